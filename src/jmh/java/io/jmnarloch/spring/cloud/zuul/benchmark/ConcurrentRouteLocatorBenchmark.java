@@ -0,0 +1,112 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the route lookups performed from all of the available cores, while the routes are being continuously
+ * reset by a background thread, resembling the gateway that receives route refresh events under load.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Threads(Threads.MAX)
+public class ConcurrentRouteLocatorBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int routes;
+
+    @Param({RouteLocators.STOCK, RouteLocators.CHAR_ARRAY, RouteLocators.SPARSE_CHAR_ARRAY, RouteLocators.ASCII_TRIE,
+            RouteLocators.HASH_MAP, RouteLocators.CHAR_HASH_MAP, RouteLocators.RADIX, RouteLocators.COMPILED,
+            RouteLocators.DOUBLE_ARRAY, RouteLocators.OFF_HEAP, RouteLocators.PATH, RouteLocators.PERSISTENT,
+            RouteLocators.CACHED})
+    public String locator;
+
+    @Param({"HIT", "MISS", "WILDCARD"})
+    public RouteTables.Workload workload;
+
+    private ProxyRouteLocator routeLocator;
+
+    private String[] requests;
+
+    private Thread refresher;
+
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() {
+        routeLocator = RouteLocators.locator(locator, RouteTables.properties(routes));
+        requests = RouteTables.requests(routes, workload);
+        running = true;
+        refresher = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (running) {
+                    routeLocator.resetRoutes();
+                }
+            }
+        }, "route-refresher");
+        refresher.setDaemon(true);
+        refresher.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        refresher.join();
+    }
+
+    @Benchmark
+    public ProxyRouteLocator.ProxyRouteSpec getMatchingRoute(Cursor cursor) {
+        return routeLocator.getMatchingRoute(requests[cursor.next()]);
+    }
+
+    /**
+     * The per thread position within the request paths.
+     *
+     * @author Jakub Narloch
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        private int index;
+
+        int next() {
+            return index++ & (RouteTables.REQUESTS - 1);
+        }
+    }
+}
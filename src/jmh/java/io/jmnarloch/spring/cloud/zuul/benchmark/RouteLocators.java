@@ -0,0 +1,257 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.benchmark;
+
+import io.jmnarloch.spring.cloud.zuul.matcher.PathTrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.PersistentTrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.RouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.TrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.route.MatcherProxyRouteLocator;
+import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Creates the benchmarked route locators and matchers by their names.
+ *
+ * @author Jakub Narloch
+ */
+final class RouteLocators {
+
+    /**
+     * The Spring Cloud's {@link ProxyRouteLocator}.
+     */
+    static final String STOCK = "stock";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.CharArrayTrie} with the ASCII node capacity.
+     */
+    static final String CHAR_ARRAY = "charArray";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.SparseCharArrayTrie}.
+     */
+    static final String SPARSE_CHAR_ARRAY = "sparseCharArray";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.AsciiTrie}.
+     */
+    static final String ASCII_TRIE = "ascii";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.HashMapTrie}.
+     */
+    static final String HASH_MAP = "hashMap";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.CharHashMapTrie}.
+     */
+    static final String CHAR_HASH_MAP = "charHashMap";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.RadixTrie}.
+     */
+    static final String RADIX = "radix";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.CompiledTrie}.
+     */
+    static final String COMPILED = "compiled";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.DoubleArrayTrie}.
+     */
+    static final String DOUBLE_ARRAY = "doubleArray";
+
+    /**
+     * The {@link io.jmnarloch.spring.cloud.zuul.trie.OffHeapTrie}.
+     */
+    static final String OFF_HEAP = "offHeap";
+
+    /**
+     * The {@link PathTrieRouteMatcher}.
+     */
+    static final String PATH = "path";
+
+    /**
+     * The {@link PersistentTrieRouteMatcher}.
+     */
+    static final String PERSISTENT = "persistent";
+
+    /**
+     * The {@link MatcherProxyRouteLocator} caching the route specs of the {@link #COMPILED} matcher.
+     */
+    static final String CACHED = "cached";
+
+    /**
+     * The ASCII character capacity.
+     */
+    private static final int ASCII = 128;
+
+    /**
+     * The route spec cache size.
+     */
+    private static final int CACHE_SIZE = 4096;
+
+    /**
+     * Creates new instance of {@link RouteLocators}.
+     *
+     * Private constructor prevents from instantation outside this class.
+     */
+    private RouteLocators() {
+        // empty constructor
+    }
+
+    /**
+     * Creates the route locator and populates it with the configured routes.
+     *
+     * @param implementation the implementation name
+     * @param properties     the Zuul properties
+     * @return the route locator
+     */
+    static ProxyRouteLocator locator(String implementation, ZuulProperties properties) {
+        final ProxyRouteLocator locator;
+        if (STOCK.equals(implementation)) {
+            locator = new ProxyRouteLocator("", new NoopDiscoveryClient(), properties);
+        } else if (CACHED.equals(implementation)) {
+            locator = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(), properties, matcher(COMPILED),
+                    CACHE_SIZE);
+        } else {
+            locator = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(), properties, matcher(implementation));
+        }
+        locator.resetRoutes();
+        return locator;
+    }
+
+    /**
+     * Creates the route matcher.
+     *
+     * @param implementation the implementation name
+     * @return the route matcher
+     */
+    static RouteMatcher matcher(final String implementation) {
+        if (PATH.equals(implementation)) {
+            return new PathTrieRouteMatcher();
+        } else if (PERSISTENT.equals(implementation)) {
+            return new PersistentTrieRouteMatcher();
+        } else if (DOUBLE_ARRAY.equals(implementation)) {
+            return new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+                @Override
+                public <T> Trie<T> createTrie() {
+                    return Tries.newHashMapTrie();
+                }
+            }, new TrieRouteMatcher.TrieCompiler() {
+                @Override
+                public <T> Trie<T> compile(Trie<T> trie) {
+                    return Tries.newDoubleArrayTrie(trie);
+                }
+            });
+        } else if (OFF_HEAP.equals(implementation)) {
+            return new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+                @Override
+                public <T> Trie<T> createTrie() {
+                    return Tries.newHashMapTrie();
+                }
+            }, new TrieRouteMatcher.TrieCompiler() {
+                @Override
+                public <T> Trie<T> compile(Trie<T> trie) {
+                    return Tries.newOffHeapTrie(trie);
+                }
+            });
+        } else if (COMPILED.equals(implementation)) {
+            return new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+                @Override
+                public <T> Trie<T> createTrie() {
+                    return Tries.newHashMapTrie();
+                }
+            });
+        }
+        return new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+            @Override
+            public <T> Trie<T> createTrie() {
+                return trie(implementation);
+            }
+        }, new TrieRouteMatcher.TrieCompiler() {
+            @Override
+            public <T> Trie<T> compile(Trie<T> trie) {
+                return trie;
+            }
+        });
+    }
+
+    private static <T> Trie<T> trie(String implementation) {
+        if (CHAR_ARRAY.equals(implementation)) {
+            return Tries.newCharArrayTrie(ASCII);
+        } else if (SPARSE_CHAR_ARRAY.equals(implementation)) {
+            return Tries.newSparseCharArrayTrie();
+        } else if (ASCII_TRIE.equals(implementation)) {
+            return Tries.newAsciiTrie();
+        } else if (HASH_MAP.equals(implementation)) {
+            return Tries.newHashMapTrie();
+        } else if (CHAR_HASH_MAP.equals(implementation)) {
+            return Tries.newCharHashMapTrie();
+        } else if (RADIX.equals(implementation)) {
+            return Tries.newRadixTrie();
+        }
+        throw new IllegalArgumentException("Unsupported Trie implementation " + implementation);
+    }
+
+    /**
+     * A {@link DiscoveryClient} that does not know about any service, so that only the configured routes are used.
+     *
+     * @author Jakub Narloch
+     */
+    private static class NoopDiscoveryClient implements DiscoveryClient {
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public String description() {
+            return "No-op discovery client";
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public ServiceInstance getLocalServiceInstance() {
+            return null;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return Collections.emptyList();
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public List<String> getServices() {
+            return Collections.emptyList();
+        }
+    }
+}
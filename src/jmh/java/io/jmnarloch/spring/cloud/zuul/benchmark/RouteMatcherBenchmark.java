@@ -0,0 +1,76 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.benchmark;
+
+import io.jmnarloch.spring.cloud.zuul.matcher.RouteMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link io.jmnarloch.spring.cloud.zuul.matcher.TrieRouteMatcher#getMatchingRoute(String)} for every
+ * {@link io.jmnarloch.spring.cloud.zuul.trie.Trie} implementation.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RouteMatcherBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    public int routes;
+
+    @Param({RouteLocators.CHAR_ARRAY, RouteLocators.SPARSE_CHAR_ARRAY, RouteLocators.ASCII_TRIE, RouteLocators.HASH_MAP,
+            RouteLocators.CHAR_HASH_MAP, RouteLocators.RADIX, RouteLocators.COMPILED, RouteLocators.DOUBLE_ARRAY,
+            RouteLocators.OFF_HEAP, RouteLocators.PATH, RouteLocators.PERSISTENT})
+    public String trie;
+
+    @Param({"HIT", "MISS", "WILDCARD"})
+    public RouteTables.Workload workload;
+
+    private RouteMatcher matcher;
+
+    private String[] requests;
+
+    private int index;
+
+    @Setup
+    public void setUp() {
+        matcher = RouteLocators.matcher(trie);
+        matcher.setRoutes(RouteTables.routes(routes));
+        requests = RouteTables.requests(routes, workload);
+    }
+
+    @Benchmark
+    public ZuulProperties.ZuulRoute getMatchingRoute() {
+        return matcher.getMatchingRoute(requests[index++ & (RouteTables.REQUESTS - 1)]);
+    }
+}
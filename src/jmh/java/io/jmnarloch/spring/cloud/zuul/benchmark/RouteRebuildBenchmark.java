@@ -0,0 +1,91 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.benchmark;
+
+import io.jmnarloch.spring.cloud.zuul.matcher.TrieRouteMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the {@link TrieRouteMatcher#setRoutes(Map)} for the array and map backed
+ * {@link io.jmnarloch.spring.cloud.zuul.trie.Trie} implementations, populated sequentially and in parallel, as well as
+ * for the default {@link TrieRouteMatcher.TrieCompiler} compiling the routes into the
+ * {@link io.jmnarloch.spring.cloud.zuul.trie.CompiledTrie}.
+ *
+ * @author Jakub Narloch
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 10, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class RouteRebuildBenchmark {
+
+    @Param({"10000", "100000"})
+    public int routes;
+
+    @Param({RouteLocators.COMPILED, RouteLocators.CHAR_ARRAY, RouteLocators.SPARSE_CHAR_ARRAY, RouteLocators.ASCII_TRIE,
+            RouteLocators.HASH_MAP, RouteLocators.CHAR_HASH_MAP})
+    public String trie;
+
+    @Param({"0", "4"})
+    public int parallelism;
+
+    private TrieRouteMatcher matcher;
+
+    private ForkJoinPool pool;
+
+    private Map<String, ZuulProperties.ZuulRoute> table;
+
+    @Setup
+    public void setUp() {
+        matcher = (TrieRouteMatcher) RouteLocators.matcher(trie);
+        if (parallelism > 0) {
+            pool = new ForkJoinPool(parallelism);
+            matcher.setBuildPool(pool);
+        }
+        table = RouteTables.routes(routes);
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Benchmark
+    public TrieRouteMatcher setRoutes() {
+        matcher.setRoutes(table);
+        return matcher;
+    }
+}
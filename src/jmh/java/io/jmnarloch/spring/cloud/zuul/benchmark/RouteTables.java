@@ -0,0 +1,182 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.benchmark;
+
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Generates the route tables and request paths used by the benchmarks. The routes resemble the typical gateway
+ * configuration: a couple of shared leading segments (`/api/v1/customers/...`) followed by a service specific
+ * segment, half of them being wildcard routes and the other half exact ones.
+ *
+ * @author Jakub Narloch
+ */
+final class RouteTables {
+
+    /**
+     * The number of request paths generated for a single workload, must be a power of two.
+     */
+    static final int REQUESTS = 1024;
+
+    /**
+     * The wildcard suffix.
+     */
+    private static final String WILDCARD = "**";
+
+    /**
+     * The seed used for generating the routes, so that every benchmark run uses the same route table.
+     */
+    private static final long SEED = 0x5eedL;
+
+    /**
+     * The vocabulary of the path segments.
+     */
+    private static final String[] SEGMENTS = {
+            "api", "v1", "v2", "v3", "customers", "orders", "accounts", "payments", "invoices", "products",
+            "inventory", "users", "profiles", "notifications", "search", "catalog", "reports", "shipping", "auth",
+            "admin"
+    };
+
+    /**
+     * The distribution of the number of leading segments, biased towards two and three segment long paths.
+     */
+    private static final int[] DEPTHS = {1, 2, 2, 2, 3, 3, 3, 4, 4, 5};
+
+    /**
+     * Creates new instance of {@link RouteTables}.
+     *
+     * Private constructor prevents from instantation outside this class.
+     */
+    private RouteTables() {
+        // empty constructor
+    }
+
+    /**
+     * Creates the Zuul properties with the specific number of routes.
+     *
+     * @param count the number of routes
+     * @return the Zuul properties
+     */
+    static ZuulProperties properties(int count) {
+        final ZuulProperties properties = new ZuulProperties();
+        for (ZuulProperties.ZuulRoute route : routes(count).values()) {
+            properties.getRoutes().put(route.getId(), route);
+        }
+        return properties;
+    }
+
+    /**
+     * Creates the routes map, keyed by the route path, with the specific number of routes.
+     *
+     * @param count the number of routes
+     * @return the routes
+     */
+    static Map<String, ZuulProperties.ZuulRoute> routes(int count) {
+        final Random random = new Random(SEED);
+        final Map<String, ZuulProperties.ZuulRoute> routes = new LinkedHashMap<String, ZuulProperties.ZuulRoute>();
+        for (int index = 0; index < count; index++) {
+            final String path = path(random, index);
+            routes.put(path, new ZuulProperties.ZuulRoute("route" + index, path, "service" + index, null, true, null));
+        }
+        return routes;
+    }
+
+    /**
+     * Creates the request paths for the specific workload.
+     *
+     * @param count    the number of routes
+     * @param workload the workload
+     * @return the request paths
+     */
+    static String[] requests(int count, Workload workload) {
+        final Random random = new Random(SEED);
+        final String[] routes = routes(count).keySet().toArray(new String[count]);
+        final String[] requests = new String[REQUESTS];
+        for (int index = 0; index < REQUESTS; index++) {
+            requests[index] = request(random, routes, workload);
+        }
+        return requests;
+    }
+
+    private static String request(Random random, String[] routes, Workload workload) {
+        switch (workload) {
+            case HIT:
+                return routes[exact(random, routes.length)];
+            case WILDCARD:
+                final String route = routes[wildcard(random, routes.length)];
+                return route.substring(0, route.length() - WILDCARD.length() - 1)
+                        + segments(random, 1 + random.nextInt(3)) + "/" + random.nextInt(100000);
+            case MISS:
+                return "/unknown" + segments(random, DEPTHS[random.nextInt(DEPTHS.length)]) + "/" + random.nextInt(100000);
+            default:
+                throw new IllegalArgumentException("Unsupported workload " + workload);
+        }
+    }
+
+    private static int exact(Random random, int count) {
+        return count == 1 ? 0 : (random.nextInt(count / 2) * 2 + 1);
+    }
+
+    private static int wildcard(Random random, int count) {
+        return random.nextInt((count + 1) / 2) * 2;
+    }
+
+    private static String path(Random random, int index) {
+        final StringBuilder path = new StringBuilder(segments(random, DEPTHS[random.nextInt(DEPTHS.length)]));
+        path.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]).append('-').append(index).append('/');
+        if (index % 2 == 0) {
+            path.append(WILDCARD);
+        } else {
+            path.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        return path.toString();
+    }
+
+    private static String segments(Random random, int count) {
+        final StringBuilder segments = new StringBuilder();
+        for (int index = 0; index < count; index++) {
+            segments.append('/').append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+        }
+        return segments.toString();
+    }
+
+    /**
+     * The benchmarked request workload.
+     *
+     * @author Jakub Narloch
+     */
+    enum Workload {
+
+        /**
+         * Requests that match exactly one of the exact routes.
+         */
+        HIT,
+
+        /**
+         * Requests that do not match any route.
+         */
+        MISS,
+
+        /**
+         * Requests that match one of the wildcard routes.
+         */
+        WILDCARD
+    }
+}
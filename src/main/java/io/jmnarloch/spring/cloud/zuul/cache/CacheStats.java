@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.cache;
+
+/**
+ * The immutable snapshot of the cache statistics.
+ *
+ * @author Jakub Narloch
+ */
+public class CacheStats {
+
+    /**
+     * The number of lookups that found the cached value.
+     */
+    private final long hitCount;
+
+    /**
+     * The number of lookups that did not find the cached value.
+     */
+    private final long missCount;
+
+    /**
+     * The number of entries evicted in favour of the more frequently used ones.
+     */
+    private final long evictionCount;
+
+    /**
+     * The number of entries that have not been admitted into the full cache.
+     */
+    private final long rejectionCount;
+
+    /**
+     * Creates new instance of {@link CacheStats}.
+     *
+     * @param hitCount       the number of hits
+     * @param missCount      the number of misses
+     * @param evictionCount  the number of evictions
+     * @param rejectionCount the number of rejections
+     */
+    public CacheStats(long hitCount, long missCount, long evictionCount, long rejectionCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.rejectionCount = rejectionCount;
+    }
+
+    /**
+     * Returns the number of lookups that found the cached value.
+     *
+     * @return the number of hits
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * Returns the number of lookups that did not find the cached value.
+     *
+     * @return the number of misses
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Returns the number of entries evicted in favour of the more frequently used ones.
+     *
+     * @return the number of evictions
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * Returns the number of entries that have not been admitted into the full cache, because they were used less
+     * frequently than the entry that would have to be evicted.
+     *
+     * @return the number of rejections
+     */
+    public long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    /**
+     * Returns the total number of lookups.
+     *
+     * @return the number of lookups
+     */
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    /**
+     * Returns the ratio of lookups that found the cached value, or {@code 1.0} if there were no lookups.
+     *
+     * @return the hit ratio
+     */
+    public double getHitRatio() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "CacheStats{hitCount=" + hitCount + ", missCount=" + missCount + ", evictionCount=" + evictionCount
+                + ", rejectionCount=" + rejectionCount + "}";
+    }
+}
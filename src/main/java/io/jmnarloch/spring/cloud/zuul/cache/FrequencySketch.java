@@ -0,0 +1,152 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.cache;
+
+/**
+ * A probabilistic counter of the key access frequency. The sketch is a Count-Min sketch with four hash functions and
+ * 4-bit counters, sixteen of which are packed into every {@code long}. Whenever the number of recorded accesses
+ * reaches the sample size all of the counters are being halved, so that the sketch forgets the keys which were
+ * popular only in the past.
+ *
+ * The sketch is not thread safe.
+ *
+ * @author Jakub Narloch
+ */
+class FrequencySketch {
+
+    /**
+     * The seeds of the hash functions.
+     */
+    private static final long[] SEEDS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+    };
+
+    /**
+     * The mask clearing the most significant bit of every counter after the shift.
+     */
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    /**
+     * The maximum counter value.
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * The counters.
+     */
+    private final long[] table;
+
+    /**
+     * The table index mask.
+     */
+    private final int tableMask;
+
+    /**
+     * The number of accesses after which the counters are being halved.
+     */
+    private final int sampleSize;
+
+    /**
+     * The number of accesses recorded since the last reset.
+     */
+    private int size;
+
+    /**
+     * Creates new instance of {@link FrequencySketch} for the cache of specific size.
+     *
+     * @param maximumSize the maximum cache size
+     */
+    public FrequencySketch(int maximumSize) {
+        final int capacity = Math.max(maximumSize, 1);
+        final int tableSize = Integer.highestOneBit(capacity - 1) << 1;
+        this.table = new long[Math.max(tableSize, 1)];
+        this.tableMask = table.length - 1;
+        this.sampleSize = 10 * capacity;
+    }
+
+    /**
+     * Returns the estimated number of accesses of the key with specific hash.
+     *
+     * @param hash the key hash
+     * @return the estimated frequency, at most {@code 15}
+     */
+    public int frequency(int hash) {
+        final int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int index = 0; index < SEEDS.length; index++) {
+            final int offset = (start + index) << 2;
+            final int count = (int) ((table[indexOf(hash, index)] >>> offset) & MAX_COUNT);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    /**
+     * Records the access of the key with specific hash.
+     *
+     * @param hash the key hash
+     */
+    public void increment(int hash) {
+        final int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int index = 0; index < SEEDS.length; index++) {
+            added |= incrementAt(indexOf(hash, index), start + index);
+        }
+        if (added && ++size == sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Increments the counter, unless it has already reached its maximum value.
+     *
+     * @param index   the table index
+     * @param counter the counter within the table entry
+     * @return true if the counter has been incremented
+     */
+    private boolean incrementAt(int index, int counter) {
+        final int offset = counter << 2;
+        final long mask = ((long) MAX_COUNT) << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Halves all of the counters.
+     */
+    private void reset() {
+        for (int index = 0; index < table.length; index++) {
+            table[index] = (table[index] >>> 1) & RESET_MASK;
+        }
+        size = size >>> 1;
+    }
+
+    /**
+     * Returns the table index for the specific hash function.
+     *
+     * @param hash     the key hash
+     * @param function the hash function
+     * @return the table index
+     */
+    private int indexOf(int hash, int function) {
+        long value = (hash + SEEDS[function]) * SEEDS[function];
+        value += value >>> 32;
+        return ((int) value) & tableMask;
+    }
+}
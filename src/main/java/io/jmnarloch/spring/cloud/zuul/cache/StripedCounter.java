@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter incremented by many threads at once. The count is being spread over the cells chosen by the incrementing
+ * thread, every one of which occupies its own cache line, so that the threads incrementing the counter concurrently
+ * do not contend on the same memory location. The count is only summed up when it is read.
+ *
+ * @author Jakub Narloch
+ */
+class StripedCounter {
+
+    /**
+     * The number of {@code long} elements per cell, so that every cell occupies its own cache line.
+     */
+    private static final int PADDING = 8;
+
+    /**
+     * The number of cells, the power of two no lower than the number of the processors.
+     */
+    private static final int CELLS = Math.min(64, Integer.highestOneBit(
+            Math.max(1, Runtime.getRuntime().availableProcessors() * 2 - 1)));
+
+    /**
+     * The cells.
+     */
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PADDING);
+
+    /**
+     * Increments the counter.
+     */
+    public void increment() {
+        cells.incrementAndGet(cell());
+    }
+
+    /**
+     * Returns the current count.
+     *
+     * @return the count
+     */
+    public long sum() {
+        long sum = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            sum += cells.get(cell * PADDING);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the index of the cell of the current thread.
+     *
+     * @return the cell index
+     */
+    private static int cell() {
+        final int hash = (int) Thread.currentThread().getId() * 0x9E3779B9;
+        return ((hash ^ (hash >>> 16)) & (CELLS - 1)) * PADDING;
+    }
+}
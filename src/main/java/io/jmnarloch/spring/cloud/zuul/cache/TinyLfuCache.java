@@ -0,0 +1,306 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.cache;
+
+import org.springframework.util.Assert;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded, concurrent cache with the TinyLFU admission policy. The entries are being split between the independently
+ * locked segments, every one of which keeps its entries in the least recently used order and records the frequency
+ * of the accessed keys in the {@link FrequencySketch}. Once the segment is full the new entry is admitted only if its
+ * key has been accessed more frequently than the key of the least recently used entry, that would have to be evicted.
+ * Thanks to that the cache is not being flushed by the stream of keys which are requested only once.
+ *
+ * The hits never wait for the segment lock. The value is being read from the {@link ConcurrentHashMap} and the
+ * access of the key is being recorded in the sketch and the recency order only if the segment is not locked at the
+ * moment, otherwise it is dropped, so that the threads reading the same hot keys do not serialize on the lock. The
+ * frequency and recency of the hot keys are high enough to survive the dropped samples. The misses, which are about to
+ * be followed by storing the value anyway, always record the access under the lock.
+ *
+ * @author Jakub Narloch
+ */
+public class TinyLfuCache<K, V> {
+
+    /**
+     * The default number of segments.
+     */
+    private static final int DEFAULT_CONCURRENCY_LEVEL = 16;
+
+    /**
+     * The segments.
+     */
+    private final Segment<K, V>[] segments;
+
+    /**
+     * The segment index mask.
+     */
+    private final int segmentMask;
+
+    /**
+     * The number of hits, counted outside of the segment locks.
+     */
+    private final StripedCounter hits = new StripedCounter();
+
+    /**
+     * Creates new instance of {@link TinyLfuCache} with specific maximum size.
+     *
+     * @param maximumSize the maximum number of entries
+     * @throws IllegalArgumentException if {@code maximumSize} is not positive
+     */
+    public TinyLfuCache(int maximumSize) {
+        this(maximumSize, DEFAULT_CONCURRENCY_LEVEL);
+    }
+
+    /**
+     * Creates new instance of {@link TinyLfuCache} with specific maximum size and concurrency level.
+     *
+     * @param maximumSize      the maximum number of entries
+     * @param concurrencyLevel the estimated number of concurrently accessing threads
+     * @throws IllegalArgumentException if {@code maximumSize} or {@code concurrencyLevel} is not positive
+     */
+    @SuppressWarnings("unchecked")
+    public TinyLfuCache(int maximumSize, int concurrencyLevel) {
+        Assert.isTrue(maximumSize > 0, "Parameter 'maximumSize' must be positive");
+        Assert.isTrue(concurrencyLevel > 0, "Parameter 'concurrencyLevel' must be positive");
+
+        final int segmentCount = Integer.highestOneBit(Math.min(maximumSize, concurrencyLevel));
+        this.segments = (Segment<K, V>[]) new Segment[segmentCount];
+        this.segmentMask = segmentCount - 1;
+        for (int index = 0; index < segmentCount; index++) {
+            final int capacity = maximumSize / segmentCount + (index < maximumSize % segmentCount ? 1 : 0);
+            segments[index] = new Segment<K, V>(capacity);
+        }
+    }
+
+    /**
+     * Retrieves the cached value and records the access of the key.
+     *
+     * @param key the key
+     * @return the cached value, or {@code null} if none
+     * @throws IllegalArgumentException if {@code key} is {@code null}
+     */
+    public V get(K key) {
+        Assert.notNull(key, "Parameter 'key' can not be null");
+
+        final int hash = hash(key);
+        return segmentFor(hash).get(key, hash, hits);
+    }
+
+    /**
+     * Stores the value in the cache, unless the cache is full and the key is being accessed less frequently than the
+     * key of the entry that would have to be evicted.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return true if the value has been stored
+     * @throws IllegalArgumentException if {@code key} or {@code value} is {@code null}
+     */
+    public boolean put(K key, V value) {
+        Assert.notNull(key, "Parameter 'key' can not be null");
+        Assert.notNull(value, "Parameter 'value' can not be null");
+
+        final int hash = hash(key);
+        return segmentFor(hash).put(key, hash, value);
+    }
+
+    /**
+     * Returns the number of cached entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the snapshot of the cache statistics.
+     *
+     * @return the cache statistics
+     */
+    public CacheStats stats() {
+        long misses = 0;
+        long evictions = 0;
+        long rejections = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock();
+            try {
+                misses += segment.misses;
+                evictions += segment.evictions;
+                rejections += segment.rejections;
+            } finally {
+                segment.unlock();
+            }
+        }
+        return new CacheStats(hits.sum(), misses, evictions, rejections);
+    }
+
+    /**
+     * Returns the segment for the specific hash.
+     *
+     * @param hash the key hash
+     * @return the segment
+     */
+    private Segment<K, V> segmentFor(int hash) {
+        return segments[(hash >>> 16) & segmentMask];
+    }
+
+    /**
+     * Spreads the key hash code, so that both the segment and the sketch use the well distributed bits.
+     *
+     * @param key the key
+     * @return the key hash
+     */
+    private static int hash(Object key) {
+        final int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * The cache segment, that is the lock guarding the recency order and the sketch of its entries.
+     *
+     * @author Jakub Narloch
+     */
+    private static class Segment<K, V> extends ReentrantLock {
+
+        /**
+         * The entries, read without locking.
+         */
+        private final ConcurrentHashMap<K, V> entries;
+
+        /**
+         * The keys of the entries in the least recently used order.
+         */
+        private final LinkedHashMap<K, Boolean> order;
+
+        /**
+         * The key access frequency sketch.
+         */
+        private final FrequencySketch sketch;
+
+        /**
+         * The maximum number of entries.
+         */
+        private final int capacity;
+
+        /**
+         * The number of misses.
+         */
+        private long misses;
+
+        /**
+         * The number of evictions.
+         */
+        private long evictions;
+
+        /**
+         * The number of rejections.
+         */
+        private long rejections;
+
+        /**
+         * Creates new instance of {@link Segment}.
+         *
+         * @param capacity the maximum number of entries
+         */
+        public Segment(int capacity) {
+            this.entries = new ConcurrentHashMap<K, V>(Math.min(capacity, 1024));
+            this.order = new LinkedHashMap<K, Boolean>(16, 0.75f, true);
+            this.sketch = new FrequencySketch(capacity);
+            this.capacity = capacity;
+        }
+
+        /**
+         * Retrieves the cached value and records the access of the key. The hit is recorded only if the segment is
+         * not locked.
+         *
+         * @param key  the key
+         * @param hash the key hash
+         * @param hits the hit counter
+         * @return the cached value, or {@code null} if none
+         */
+        public V get(K key, int hash, StripedCounter hits) {
+            final V value = entries.get(key);
+            if (value == null) {
+                lock();
+                try {
+                    sketch.increment(hash);
+                    misses++;
+                } finally {
+                    unlock();
+                }
+                return null;
+            }
+            hits.increment();
+            if (!isLocked() && tryLock()) {
+                try {
+                    sketch.increment(hash);
+                    order.get(key);
+                } finally {
+                    unlock();
+                }
+            }
+            return value;
+        }
+
+        /**
+         * Stores the value, evicting the least recently used entry if the new key is accessed more frequently.
+         *
+         * @param key   the key
+         * @param hash  the key hash
+         * @param value the value
+         * @return true if the value has been stored
+         */
+        public boolean put(K key, int hash, V value) {
+            lock();
+            try {
+                if (order.size() >= capacity && !order.containsKey(key)) {
+                    final Iterator<K> iterator = order.keySet().iterator();
+                    final K victim = iterator.next();
+                    if (sketch.frequency(hash) <= sketch.frequency(hash(victim))) {
+                        rejections++;
+                        return false;
+                    }
+                    iterator.remove();
+                    entries.remove(victim);
+                    evictions++;
+                }
+                order.put(key, Boolean.TRUE);
+                entries.put(key, value);
+                return true;
+            } finally {
+                unlock();
+            }
+        }
+
+        /**
+         * Returns the number of cached entries.
+         *
+         * @return the number of entries
+         */
+        public int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,375 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.PrefixMatcher;
+import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link RouteMatcher} that matches the routes by both the request host and the request path. Every route can be
+ * qualified with the host pattern, either the exact host name, like {@code api.example.com}, or the wildcard
+ * subdomain, like {@code *.example.com}, that matches any of the subdomains of {@code example.com}, but not the
+ * {@code example.com} itself. The routes without the host pattern match the requests to any host.
+ *
+ * The host patterns are being stored in the case insensitive Trie keyed by the reversed host names, so that the
+ * request host is being matched by a single prefix lookup of its reversed view, without copying it. Every host
+ * pattern leads to its own {@link RouteMatcher} with the routes qualified with that pattern. When none of them matches
+ * the request path, the routes of the most specific wildcard pattern matching the host are tried, and eventually the
+ * routes not qualified with any host.
+ *
+ * The host pattern of the route is being taken either from the route key, qualified with the host pattern followed
+ * by a space, like {@code api.example.com /api/}, or otherwise from the patterns set through
+ * {@link #setHosts(Map)}, so that the routes sharing the same path, but qualified with different host patterns, can
+ * be all set at once.
+ *
+ * @author Jakub Narloch
+ */
+public class HostRouteMatcher implements RouteMatcher {
+
+    /**
+     * The separator of the host pattern qualifying the route key.
+     */
+    private static final char SEPARATOR = ' ';
+
+    /**
+     * The prefix of the wildcard subdomain patterns.
+     */
+    private static final String WILDCARD = "*.";
+
+    /**
+     * The {@link PrefixMatcher} accepting the wildcard patterns matching the reversed host and the exact host
+     * stored under the whole reversed host.
+     */
+    private static final PrefixMatcher<HostEntry> HOST_MATCHER = new PrefixMatcher<HostEntry>() {
+        @Override
+        public boolean matches(HostEntry entry, int length, int keyLength) {
+            return entry.isWildcard() || length == keyLength;
+        }
+    };
+
+    /**
+     * The {@link PrefixMatcher} accepting only the wildcard patterns.
+     */
+    private static final PrefixMatcher<HostEntry> WILDCARD_MATCHER = new PrefixMatcher<HostEntry>() {
+        @Override
+        public boolean matches(HostEntry entry, int length, int keyLength) {
+            return entry.isWildcard();
+        }
+    };
+
+    /**
+     * The {@link RouteMatcherFactory} used for creating the matchers of the routes of every host pattern.
+     */
+    private final RouteMatcherFactory routeMatcherFactory;
+
+    /**
+     * The host patterns by the route ids.
+     */
+    private volatile Map<String, String> hosts = Collections.emptyMap();
+
+    /**
+     * Holds the reference to the current route table.
+     */
+    private final AtomicReference<HostTable> table = new AtomicReference<HostTable>();
+
+    /**
+     * Creates new instance of {@link HostRouteMatcher}, that matches the routes of every host pattern with the
+     * {@link TrieRouteMatcher}.
+     */
+    public HostRouteMatcher() {
+        this(new RouteMatcherFactory() {
+            @Override
+            public RouteMatcher createRouteMatcher() {
+                return new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+                    @Override
+                    public <T> Trie<T> createTrie() {
+                        return Tries.newCharHashMapTrie();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Creates new instance of {@link HostRouteMatcher} with specific route matcher factory.
+     *
+     * @param routeMatcherFactory the factory of the matchers of the routes of every host pattern
+     */
+    public HostRouteMatcher(RouteMatcherFactory routeMatcherFactory) {
+        Assert.notNull(routeMatcherFactory, "Parameter 'routeMatcherFactory' can not be null");
+        this.routeMatcherFactory = routeMatcherFactory;
+        final RouteMatcher defaultMatcher = routeMatcherFactory.createRouteMatcher();
+        defaultMatcher.setRoutes(Collections.<String, ZuulProperties.ZuulRoute>emptyMap());
+        this.table.set(new HostTable(Tries.compile(Tries.<HostEntry>newCharHashMapTrie()), defaultMatcher));
+    }
+
+    /**
+     * Sets the host patterns of the routes. The host patterns are being applied when the routes are being set.
+     *
+     * @param hosts the host patterns by the route ids
+     */
+    public void setHosts(Map<String, String> hosts) {
+        Assert.notNull(hosts, "Parameter 'hosts' can not be null");
+        this.hosts = new HashMap<String, String>(hosts);
+    }
+
+    /**
+     * Returns the host patterns of the routes.
+     *
+     * @return the host patterns by the route ids
+     */
+    public Map<String, String> getHosts() {
+        return Collections.unmodifiableMap(hosts);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setRoutes(Map<String, ZuulProperties.ZuulRoute> routes) {
+
+        final Map<String, String> hosts = this.hosts;
+        final Map<String, Map<String, ZuulProperties.ZuulRoute>> groups =
+                new LinkedHashMap<String, Map<String, ZuulProperties.ZuulRoute>>();
+        final Map<String, ZuulProperties.ZuulRoute> defaults = new LinkedHashMap<String, ZuulProperties.ZuulRoute>();
+        for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
+            final int separator = route.getKey().indexOf(SEPARATOR);
+            final String host = separator >= 0
+                    ? route.getKey().substring(0, separator) : hosts.get(route.getValue().getId());
+            final String path = route.getKey().substring(separator + 1);
+            if (!StringUtils.hasText(host)) {
+                defaults.put(path, route.getValue());
+                continue;
+            }
+            final String key = getKey(host.trim());
+            Map<String, ZuulProperties.ZuulRoute> group = groups.get(key);
+            if (group == null) {
+                group = new LinkedHashMap<String, ZuulProperties.ZuulRoute>();
+                groups.put(key, group);
+            }
+            group.put(path, route.getValue());
+        }
+
+        final Trie<HostEntry> trie = Tries.caseInsensitive(Tries.<HostEntry>newCharHashMapTrie());
+        final List<HostEntry> entries = new ArrayList<HostEntry>(groups.size());
+        for (Map.Entry<String, Map<String, ZuulProperties.ZuulRoute>> group : groups.entrySet()) {
+            final RouteMatcher matcher = routeMatcherFactory.createRouteMatcher();
+            matcher.setRoutes(group.getValue());
+            final HostEntry entry = new HostEntry(group.getKey(), matcher);
+            trie.put(entry.key, entry);
+            entries.add(entry);
+        }
+        for (HostEntry entry : entries) {
+            if (entry.key.length() > 1) {
+                entry.fallback = trie.longestMatch(entry.key, 0, entry.key.length() - 1, WILDCARD_MATCHER);
+            }
+        }
+
+        final RouteMatcher defaultMatcher = routeMatcherFactory.createRouteMatcher();
+        defaultMatcher.setRoutes(defaults);
+        this.table.set(new HostTable(Tries.compile(trie), defaultMatcher));
+    }
+
+    /**
+     * Retrieves the route specification for the path, ignoring the routes qualified with any host.
+     *
+     * @param path the route path
+     * @return the matching route spec, or null if no routes matches the path
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(String path) {
+        Assert.notNull(path, "Parameter 'path' can not be null");
+
+        return getMatchingRoute(null, path, 0, path.length());
+    }
+
+    /**
+     * Retrieves the route specification for the path, ignoring the routes qualified with any host.
+     *
+     * @param path the character sequence containing the route path
+     * @param from the path start offset, inclusive
+     * @param to   the path end offset, exclusive
+     * @return the matching route spec, or null if no routes matches the path
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to) {
+        return getMatchingRoute(null, path, from, to);
+    }
+
+    /**
+     * Retrieves the route specification for the host and the path stored in the specific region of the character
+     * sequence. The host can contain the port, which is being ignored.
+     *
+     * @param host the request host, or {@code null} to match only the routes not qualified with any host
+     * @param path the character sequence containing the route path
+     * @param from the path start offset, inclusive
+     * @param to   the path end offset, exclusive
+     * @return the matching route spec, or null if no routes matches the host and the path
+     */
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence host, CharSequence path, int from, int to) {
+
+        final HostTable table = this.table.get();
+        if (host != null && !table.hosts.isEmpty()) {
+            final int end = getHostEnd(host);
+            HostEntry entry = end > 0
+                    ? table.hosts.longestMatch(new ReversedCharSequence(host, 0, end), 0, end, HOST_MATCHER) : null;
+            while (entry != null) {
+                final ZuulProperties.ZuulRoute route = entry.matcher.getMatchingRoute(path, from, to);
+                if (route != null) {
+                    return route;
+                }
+                entry = entry.fallback;
+            }
+        }
+        return table.defaultMatcher.getMatchingRoute(path, from, to);
+    }
+
+    /**
+     * Returns the end offset of the host name, without the port and the trailing dot.
+     *
+     * @param host the host
+     * @return the host name end offset
+     */
+    private static int getHostEnd(CharSequence host) {
+        int end = host.length();
+        for (int index = end - 1; index > 0; index--) {
+            final char c = host.charAt(index);
+            if (c == ':') {
+                end = index;
+                break;
+            } else if (c < '0' || c > '9') {
+                break;
+            }
+        }
+        if (end > 0 && host.charAt(end - 1) == '.') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Returns the host pattern trie key, that is the reversed host name, ending with the dot for the wildcard
+     * subdomain patterns.
+     *
+     * @param host the host pattern
+     * @return the trie key
+     * @throws IllegalArgumentException if the host pattern is not valid
+     */
+    private static String getKey(String host) {
+        if (host.startsWith(WILDCARD)) {
+            Assert.isTrue(host.length() > WILDCARD.length() && host.indexOf('*', 1) < 0,
+                    "Invalid host pattern " + host);
+            return ReversedCharSequence.reverse(host.substring(1));
+        }
+        Assert.isTrue(host.indexOf('*') < 0, "Invalid host pattern " + host);
+        return ReversedCharSequence.reverse(host);
+    }
+
+    /**
+     * The factory of the {@link RouteMatcher} instances.
+     *
+     * @author Jakub Narloch
+     */
+    public interface RouteMatcherFactory {
+
+        RouteMatcher createRouteMatcher();
+    }
+
+    /**
+     * The host pattern along with the matcher of its routes.
+     *
+     * @author Jakub Narloch
+     */
+    private static class HostEntry {
+
+        /**
+         * The reversed host pattern.
+         */
+        private final String key;
+
+        /**
+         * The matcher of the routes qualified with the host pattern.
+         */
+        private final RouteMatcher matcher;
+
+        /**
+         * The most specific wildcard pattern matching every host matched by this pattern, tried when none of
+         * the routes of this pattern matches the request path.
+         */
+        private HostEntry fallback;
+
+        /**
+         * Creates new instance of {@link HostEntry}.
+         *
+         * @param key     the reversed host pattern
+         * @param matcher the route matcher
+         */
+        HostEntry(String key, RouteMatcher matcher) {
+            this.key = key;
+            this.matcher = matcher;
+        }
+
+        /**
+         * Returns whether this is the wildcard subdomain pattern.
+         *
+         * @return true if this is the wildcard pattern
+         */
+        boolean isWildcard() {
+            return key.charAt(key.length() - 1) == '.';
+        }
+    }
+
+    /**
+     * The immutable route table, published atomically whenever the routes are being set.
+     *
+     * @author Jakub Narloch
+     */
+    private static class HostTable {
+
+        /**
+         * The host patterns.
+         */
+        private final Trie<HostEntry> hosts;
+
+        /**
+         * The matcher of the routes not qualified with any host.
+         */
+        private final RouteMatcher defaultMatcher;
+
+        /**
+         * Creates new instance of {@link HostTable}.
+         *
+         * @param hosts          the host patterns
+         * @param defaultMatcher the matcher of the routes not qualified with any host
+         */
+        HostTable(Trie<HostEntry> hosts, RouteMatcher defaultMatcher) {
+            this.hosts = hosts;
+            this.defaultMatcher = defaultMatcher;
+        }
+    }
+}
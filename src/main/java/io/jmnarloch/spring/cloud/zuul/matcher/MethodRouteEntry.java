@@ -0,0 +1,243 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.PrefixMatcher;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Arrays;
+
+/**
+ * The Trie value entry associating the route path with the routes of specific HTTP methods, along with the route
+ * matching any method. The method specific routes are stored in the compact table, that holds only the routes of the
+ * methods set in the bitmask, ordered by the method index.
+ *
+ * @author Jakub Narloch
+ */
+class MethodRouteEntry extends ZuulRouteEntry {
+
+    /**
+     * The supported HTTP methods, indexed by the bits of the method mask.
+     */
+    static final String[] METHODS = {"GET", "HEAD", "POST", "PUT", "PATCH", "DELETE", "OPTIONS", "TRACE"};
+
+    /**
+     * The empty route table.
+     */
+    private static final ZuulProperties.ZuulRoute[] EMPTY = new ZuulProperties.ZuulRoute[0];
+
+    /**
+     * The {@link PrefixMatcher}s of the supported methods, indexed by the method index.
+     */
+    private static final MethodMatcher[] MATCHERS = new MethodMatcher[METHODS.length];
+
+    /**
+     * The {@link PrefixMatcher} of the unknown or unsupported method, accepting only the entries having the route
+     * matching any method.
+     */
+    private static final MethodMatcher ANY_METHOD_MATCHER = new MethodMatcher(0);
+
+    static {
+        for (int index = 0; index < METHODS.length; index++) {
+            MATCHERS[index] = new MethodMatcher(1 << index);
+        }
+    }
+
+    /**
+     * The bitmask of the methods having their own route.
+     */
+    private int mask;
+
+    /**
+     * The method specific routes, ordered by the method index.
+     */
+    private ZuulProperties.ZuulRoute[] routes = EMPTY;
+
+    /**
+     * Creates new instance of {@link MethodRouteEntry}.
+     *
+     * @param path  the route path
+     * @param route the route matching any method, or {@code null}
+     */
+    MethodRouteEntry(String path, ZuulProperties.ZuulRoute route) {
+        super(path, route);
+    }
+
+    /**
+     * Creates new instance of {@link MethodRouteEntry} with the routes of the other entry and the route matching
+     * any method replaced.
+     *
+     * @param entry the entry
+     * @param route the route matching any method
+     */
+    MethodRouteEntry(MethodRouteEntry entry, ZuulProperties.ZuulRoute route) {
+        super(entry.getPath(), route);
+        this.mask = entry.mask;
+        this.routes = entry.routes;
+    }
+
+    /**
+     * Returns the index of the HTTP method.
+     *
+     * @param method the HTTP method
+     * @return the method index, or {@code -1} if the method is not supported
+     */
+    static int indexOf(CharSequence method) {
+        for (int index = 0; index < METHODS.length; index++) {
+            if (contentEquals(METHODS[index], method)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the {@link PrefixMatcher} accepting the entries matching the whole request path, that have either the
+     * route of the specific method or the route matching any method.
+     *
+     * @param method the method index, or {@code -1} if the method is unknown or not supported
+     * @return the prefix matcher
+     */
+    static PrefixMatcher<MethodRouteEntry> getMatcher(int method) {
+        return method >= 0 ? MATCHERS[method] : ANY_METHOD_MATCHER;
+    }
+
+    /**
+     * Sets the route of the specific method. Can be invoked only before the entry is put into the Trie.
+     *
+     * @param method the method index
+     * @param route  the route
+     */
+    void setRoute(int method, ZuulProperties.ZuulRoute route) {
+        final int bit = 1 << method;
+        final int position = Integer.bitCount(mask & (bit - 1));
+        if ((mask & bit) != 0) {
+            routes[position] = route;
+            return;
+        }
+        final ZuulProperties.ZuulRoute[] routes = new ZuulProperties.ZuulRoute[this.routes.length + 1];
+        System.arraycopy(this.routes, 0, routes, 0, position);
+        System.arraycopy(this.routes, position, routes, position + 1, this.routes.length - position);
+        routes[position] = route;
+        this.routes = routes;
+        this.mask |= bit;
+    }
+
+    /**
+     * Returns the route of the specific method, or the route matching any method if the method has no route of its
+     * own.
+     *
+     * @param method the method index, or {@code -1} if the method is unknown or not supported
+     * @return the route, or {@code null} if neither the method nor any method has the route
+     */
+    public ZuulProperties.ZuulRoute getRoute(int method) {
+        if (method >= 0) {
+            final int bit = 1 << method;
+            if ((mask & bit) != 0) {
+                return routes[Integer.bitCount(mask & (bit - 1))];
+            }
+        }
+        return getRoute();
+    }
+
+    /**
+     * Returns the bitmask of the methods having their own route.
+     *
+     * @return the method mask
+     */
+    public int getMask() {
+        return mask;
+    }
+
+    /**
+     * Compares the string with the character sequence.
+     *
+     * @param value    the string
+     * @param sequence the character sequence
+     * @return true if both contain the same characters
+     */
+    private static boolean contentEquals(String value, CharSequence sequence) {
+        if (value.length() != sequence.length()) {
+            return false;
+        }
+        for (int index = 0; index < value.length(); index++) {
+            if (value.charAt(index) != sequence.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final MethodRouteEntry that = (MethodRouteEntry) o;
+        return getPath().equals(that.getPath())
+                && (getRoute() != null ? getRoute().equals(that.getRoute()) : that.getRoute() == null)
+                && mask == that.mask && Arrays.equals(routes, that.routes);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        int result = getPath().hashCode();
+        result = 31 * result + (getRoute() != null ? getRoute().hashCode() : 0);
+        result = 31 * result + mask;
+        return 31 * result + Arrays.hashCode(routes);
+    }
+
+    /**
+     * The {@link PrefixMatcher} accepting the entries matching the whole request path, that have either the route of
+     * the method or the route matching any method, so that the entries having only the routes of the other methods
+     * do not hide the less specific ones.
+     *
+     * @author Jakub Narloch
+     */
+    private static class MethodMatcher implements PrefixMatcher<MethodRouteEntry> {
+
+        /**
+         * The method bit.
+         */
+        private final int bit;
+
+        /**
+         * Creates new instance of {@link MethodMatcher}.
+         *
+         * @param bit the method bit, or zero to accept only the entries having the route matching any method
+         */
+        MethodMatcher(int bit) {
+            this.bit = bit;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public boolean matches(MethodRouteEntry entry, int length, int keyLength) {
+            return entry.matches(keyLength) && ((entry.mask & bit) != 0 || entry.getRoute() != null);
+        }
+    }
+}
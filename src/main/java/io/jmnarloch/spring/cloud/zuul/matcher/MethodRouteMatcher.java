@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A Trie based {@link RouteMatcher} that matches the routes by both the request path and the HTTP method. The routes
+ * sharing the same path are being stored in the single Trie value, that holds the table of the method specific routes
+ * along with the route matching any method, so that a single Trie lookup resolves the route of the request method,
+ * falling back to the route matching any method.
+ *
+ * The route keys can be qualified with the comma separated list of the HTTP methods, followed by the space, like
+ * {@code GET,HEAD /orders/**}. The routes with the plain path keys match any method.
+ *
+ * @author Jakub Narloch
+ */
+public class MethodRouteMatcher implements RouteMatcher {
+
+    /**
+     * The separator of the methods and the path in the route key.
+     */
+    private static final char SEPARATOR = ' ';
+
+    /**
+     * The instance of {@link TrieRouteMatcher.TrieSupplier} used for instantiating new Tries.
+     */
+    private final TrieRouteMatcher.TrieSupplier trieSupplier;
+
+    /**
+     * The HTTP methods by the route ids.
+     */
+    private volatile Map<String, String> methods = Collections.emptyMap();
+
+    /**
+     * Holds the reference to the Trie instance.
+     */
+    private final AtomicReference<Trie<MethodRouteEntry>> trie = new AtomicReference<Trie<MethodRouteEntry>>();
+
+    /**
+     * Creates new instance of {@link MethodRouteMatcher} that stores the routes in the
+     * {@link io.jmnarloch.spring.cloud.zuul.trie.CharHashMapTrie}.
+     */
+    public MethodRouteMatcher() {
+        this(new TrieRouteMatcher.TrieSupplier() {
+            @Override
+            public <T> Trie<T> createTrie() {
+                return Tries.newCharHashMapTrie();
+            }
+        });
+    }
+
+    /**
+     * Creates new instance of {@link MethodRouteMatcher} with specific supplier. The populated Trie is being compiled
+     * through {@link Tries#compile(Trie)} before it is used for matching the routes.
+     *
+     * @param trieSupplier the Trie instance supplier
+     */
+    public MethodRouteMatcher(TrieRouteMatcher.TrieSupplier trieSupplier) {
+        Assert.notNull(trieSupplier, "Parameter 'trieSupplier' can not be null");
+        this.trieSupplier = trieSupplier;
+    }
+
+    /**
+     * Sets the HTTP methods of the routes, as the comma separated method lists by the route ids. The methods are
+     * being used by the {@link io.jmnarloch.spring.cloud.zuul.route.MatcherProxyRouteLocator} for qualifying the
+     * route keys.
+     *
+     * @param methods the HTTP methods by the route ids
+     */
+    public void setMethods(Map<String, String> methods) {
+        Assert.notNull(methods, "Parameter 'methods' can not be null");
+        this.methods = new HashMap<String, String>(methods);
+    }
+
+    /**
+     * Returns the HTTP methods of the routes.
+     *
+     * @return the HTTP methods by the route ids
+     */
+    public Map<String, String> getMethods() {
+        return Collections.unmodifiableMap(methods);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if any of the route keys is qualified with an unsupported method
+     */
+    @Override
+    public void setRoutes(Map<String, ZuulProperties.ZuulRoute> routes) {
+
+        final Map<String, MethodRouteEntry> paths = new HashMap<String, MethodRouteEntry>();
+        for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
+            final String key = route.getKey();
+            final int separator = key.indexOf(SEPARATOR);
+            final String path = separator < 0 ? key : key.substring(separator + 1).trim();
+            MethodRouteEntry entry = paths.get(path);
+            if (separator < 0) {
+                entry = entry != null ? new MethodRouteEntry(entry, route.getValue())
+                        : new MethodRouteEntry(path, route.getValue());
+            } else {
+                if (entry == null) {
+                    entry = new MethodRouteEntry(path, null);
+                }
+                for (String method : StringUtils.commaDelimitedListToStringArray(key.substring(0, separator))) {
+                    final int index = MethodRouteEntry.indexOf(method.trim().toUpperCase());
+                    Assert.isTrue(index >= 0, "Unsupported HTTP method " + method + " of route " + key);
+                    entry.setRoute(index, route.getValue());
+                }
+            }
+            paths.put(path, entry);
+        }
+
+        final SortedMap<String, MethodRouteEntry> entries = new TreeMap<String, MethodRouteEntry>();
+        for (MethodRouteEntry entry : paths.values()) {
+            entries.put(entry.getKey(), entry);
+        }
+        final Trie<MethodRouteEntry> trie = trieSupplier.createTrie();
+        Tries.bulkLoad(trie, entries);
+        this.trie.set(Tries.compile(trie));
+    }
+
+    /**
+     * Retrieves the route specification for the path, matching any method.
+     *
+     * @param path the route path
+     * @return the matching route spec, or null if no routes matches the path
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(String path) {
+        return getMatchingRoute(null, path);
+    }
+
+    /**
+     * Retrieves the route specification for the path stored in the specific region of the character sequence,
+     * matching any method.
+     *
+     * @param path the character sequence containing the route path
+     * @param from the path start offset, inclusive
+     * @param to   the path end offset, exclusive
+     * @return the matching route spec, or null if no routes matches the path
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to) {
+        return getMatchingRoute(null, path, from, to);
+    }
+
+    /**
+     * Retrieves the route specification for the HTTP method and the path.
+     *
+     * @param method the HTTP method, or {@code null} to match only the routes matching any method
+     * @param path   the route path
+     * @return the matching route spec, or null if no routes matches the method and the path
+     */
+    public ZuulProperties.ZuulRoute getMatchingRoute(String method, String path) {
+        Assert.notNull(path, "Parameter 'path' can not be null");
+
+        return getMatchingRoute(method, path, 0, path.length());
+    }
+
+    /**
+     * Retrieves the route specification for the HTTP method and the path stored in the specific region of the
+     * character sequence. The route of the method is being preferred over the route matching any method of the same
+     * path.
+     *
+     * @param method the HTTP method, or {@code null} to match only the routes matching any method
+     * @param path   the character sequence containing the route path
+     * @param from   the path start offset, inclusive
+     * @param to     the path end offset, exclusive
+     * @return the matching route spec, or null if no routes matches the method and the path
+     */
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence method, CharSequence path, int from, int to) {
+        final int index = method != null ? MethodRouteEntry.indexOf(method) : -1;
+        final MethodRouteEntry matching = trie.get().longestMatch(path, from, to, MethodRouteEntry.getMatcher(index));
+        return matching != null ? matching.getRoute(index) : null;
+    }
+}
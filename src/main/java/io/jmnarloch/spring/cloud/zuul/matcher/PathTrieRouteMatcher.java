@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.PathMatch;
+import io.jmnarloch.spring.cloud.zuul.trie.PathTrie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link PathTrie} based {@link RouteMatcher}. Unlike the {@link TrieRouteMatcher}, that treats the routes as
+ * plain character prefixes, this matcher understands the Ant style route paths with the {@code *} and {@code **}
+ * wildcards placed in any of the path segments, and resolves them in a single pass over the request path.
+ *
+ * The route paths can also contain the {@code {name}} template variables, like {@code /users/{id}/orders/**}. The
+ * offsets of the path segments captured by them can be obtained through the reusable {@link PathMatch}, so that the
+ * downstream filters can rewrite the target paths without extracting the variables with the regular expressions.
+ *
+ * @author Jakub Narloch
+ */
+public class PathTrieRouteMatcher implements RouteMatcher {
+
+    /**
+     * Holds the reference to the Trie instance.
+     */
+    private final AtomicReference<PathTrie<ZuulProperties.ZuulRoute>> trie =
+            new AtomicReference<PathTrie<ZuulProperties.ZuulRoute>>(Tries.<ZuulProperties.ZuulRoute>newPathTrie());
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setRoutes(Map<String, ZuulProperties.ZuulRoute> routes) {
+
+        final PathTrie<ZuulProperties.ZuulRoute> trie = Tries.newPathTrie();
+        for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
+            trie.put(route.getKey(), route.getValue());
+        }
+        this.trie.set(trie);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(String path) {
+        return trie.get().match(path);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to) {
+        return trie.get().match(path, from, to);
+    }
+
+    /**
+     * Retrieves the route specification for the path stored in the specific region of the character sequence, along
+     * with the offsets of the path segments captured by the template variables of the route path.
+     *
+     * @param path  the character sequence containing the route path
+     * @param from  the path start offset, inclusive
+     * @param to    the path end offset, exclusive
+     * @param match the result holder receiving the captures, reused between the lookups
+     * @return the matching route spec, or null if no routes matches the path
+     */
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to,
+                                                     PathMatch<ZuulProperties.ZuulRoute> match) {
+        return trie.get().match(path, from, to, match) ? match.getValue() : null;
+    }
+}
@@ -0,0 +1,97 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.PersistentTrie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.util.Assert;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A {@link PersistentTrie} based {@link RouteMatcher}. Instead of rebuilding the whole Trie, whenever the routes are
+ * being set only the added, changed and removed routes are being applied to the current version of the Trie, so the
+ * refresh allocates only the copies of the nodes on the paths of the modified routes and shares the rest of the tree.
+ * The matching is lock free and always uses the consistent version of the Trie.
+ *
+ * @author Jakub Narloch
+ */
+public class PersistentTrieRouteMatcher implements RouteMatcher {
+
+    /**
+     * Holds the reference to the current version of the Trie.
+     */
+    private final AtomicReference<PersistentTrie<ZuulRouteEntry>> trie =
+            new AtomicReference<PersistentTrie<ZuulRouteEntry>>(Tries.<ZuulRouteEntry>newPersistentTrie());
+
+    /**
+     * The entries of the current version of the Trie by their keys, guarded by this instance.
+     */
+    private Map<String, ZuulRouteEntry> entries = Collections.emptyMap();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public synchronized void setRoutes(Map<String, ZuulProperties.ZuulRoute> routes) {
+
+        final Map<String, ZuulRouteEntry> entries = new HashMap<String, ZuulRouteEntry>(routes.size() * 2);
+        for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
+            final ZuulRouteEntry entry = new ZuulRouteEntry(route.getKey(), route.getValue());
+            entries.put(entry.getKey(), entry);
+        }
+
+        PersistentTrie<ZuulRouteEntry> trie = this.trie.get();
+        for (String key : this.entries.keySet()) {
+            if (!entries.containsKey(key)) {
+                trie = trie.without(key);
+            }
+        }
+        for (Map.Entry<String, ZuulRouteEntry> entry : entries.entrySet()) {
+            final ZuulRouteEntry current = this.entries.get(entry.getKey());
+            if (entry.getValue().equals(current)) {
+                entry.setValue(current);
+            } else {
+                trie = trie.with(entry.getKey(), entry.getValue());
+            }
+        }
+        this.entries = entries;
+        this.trie.set(trie);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(String path) {
+        Assert.notNull(path, "Parameter 'path' can not be null");
+
+        return getMatchingRoute(path, 0, path.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to) {
+        final ZuulRouteEntry matching = trie.get().longestMatch(path, from, to, ZuulRouteEntry.MATCHER);
+        return matching != null ? matching.getRoute() : null;
+    }
+}
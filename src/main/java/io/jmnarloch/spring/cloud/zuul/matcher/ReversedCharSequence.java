@@ -0,0 +1,105 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+/**
+ * A reversed view of the region of the character sequence. The characters are not copied, the view reads them from
+ * the underlying sequence in the reversed order.
+ *
+ * @author Jakub Narloch
+ */
+final class ReversedCharSequence implements CharSequence {
+
+    /**
+     * The underlying character sequence.
+     */
+    private final CharSequence sequence;
+
+    /**
+     * The region start offset, inclusive.
+     */
+    private final int from;
+
+    /**
+     * The region end offset, exclusive.
+     */
+    private final int to;
+
+    /**
+     * Creates new instance of {@link ReversedCharSequence}.
+     *
+     * @param sequence the underlying character sequence
+     * @param from     the region start offset, inclusive
+     * @param to       the region end offset, exclusive
+     */
+    ReversedCharSequence(CharSequence sequence, int from, int to) {
+        this.sequence = sequence;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Reverses the string, character by character, in the same way as the view does.
+     *
+     * @param value the string
+     * @return the reversed string
+     */
+    static String reverse(String value) {
+        final char[] chars = new char[value.length()];
+        for (int index = 0; index < chars.length; index++) {
+            chars[index] = value.charAt(chars.length - 1 - index);
+        }
+        return new String(chars);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int length() {
+        return to - from;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char charAt(int index) {
+        if (index < 0 || index >= length()) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of the sequence bounds");
+        }
+        return sequence.charAt(to - 1 - index);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length() || start > end) {
+            throw new IndexOutOfBoundsException("Region [" + start + ", " + end + ") is out of the sequence bounds");
+        }
+        return new ReversedCharSequence(sequence, to - end, to - start);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return reverse(sequence.subSequence(from, to).toString());
+    }
+}
@@ -40,4 +40,14 @@ public interface RouteMatcher {
      * @return the matching route spec, or null if no routes matches the path
      */
     ZuulProperties.ZuulRoute getMatchingRoute(String path);
+
+    /**
+     * Retrieves the route specification for the path stored in the specific region of the character sequence.
+     *
+     * @param path the character sequence containing the route path
+     * @param from the path start offset, inclusive
+     * @param to   the path end offset, exclusive
+     * @return the matching route spec, or null if no routes matches the path
+     */
+    ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to);
 }
@@ -0,0 +1,231 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.route.PrecomputedZuulRoute;
+import io.jmnarloch.spring.cloud.zuul.trie.OffHeapTrie;
+import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.TrieVisitor;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes the binary snapshot of the route table, that contains both the route entries and the already built
+ * Trie, so that the routes can be matched right after the snapshot has been read without populating the Trie.
+ *
+ * <p>The snapshot consists of the magic number, the format version, the route entries ordered lexicographically by
+ * their Trie keys, the {@link OffHeapTrie} buffer and the CRC32 checksum of all of the preceding bytes. The entries of
+ * the {@link PrecomputedZuulRoute} routes also store their precomputed global settings, so that they are restored as
+ * the {@link PrecomputedZuulRoute} as well.
+ *
+ * @author Jakub Narloch
+ */
+final class RouteSnapshot {
+
+    /**
+     * The magic number identifying the snapshot.
+     */
+    static final int MAGIC = 0x5A52534E;
+
+    /**
+     * The snapshot format version.
+     */
+    static final int VERSION = 2;
+
+    /**
+     * The value representing the {@code null} retryable flag.
+     */
+    private static final byte NO_RETRYABLE = -1;
+
+    /**
+     * Creates new instance of {@link RouteSnapshot}.
+     *
+     * Private constructor prevents from instantation outside this class.
+     */
+    private RouteSnapshot() {
+        // empty constructor
+    }
+
+    /**
+     * Writes the snapshot of the Trie into the file. The file is first written under a temporary name and then
+     * atomically moved into its place, so that the partially written snapshot is never read.
+     *
+     * @param trie the trie
+     * @param file the snapshot file
+     * @throws IOException if any I/O error occurs
+     */
+    static void write(Trie<ZuulRouteEntry> trie, File file) throws IOException {
+        final OffHeapTrie<ZuulRouteEntry> offHeapTrie = Tries.newOffHeapTrie(trie);
+        final List<ZuulRouteEntry> entries = new ArrayList<ZuulRouteEntry>(offHeapTrie.size());
+        offHeapTrie.traverse(new TrieVisitor<ZuulRouteEntry>() {
+            @Override
+            public void visit(String key, ZuulRouteEntry value) {
+                entries.add(value);
+            }
+        });
+
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream output = new DataOutputStream(bytes);
+        output.writeInt(MAGIC);
+        output.writeInt(VERSION);
+        output.writeInt(entries.size());
+        for (ZuulRouteEntry entry : entries) {
+            writeEntry(output, entry);
+        }
+        final ByteBuffer buffer = offHeapTrie.getBuffer();
+        output.writeInt(buffer.remaining());
+        final WritableByteChannel channel = Channels.newChannel(output);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(bytes.toByteArray());
+        output.writeLong(checksum.getValue());
+        output.flush();
+
+        final File parent = file.getAbsoluteFile().getParentFile();
+        final File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            final OutputStream stream = new FileOutputStream(temp);
+            try {
+                bytes.writeTo(stream);
+            } finally {
+                stream.close();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+    }
+
+    /**
+     * Reads the snapshot from the file, verifying its format, version and checksum.
+     *
+     * @param file the snapshot file
+     * @return the trie of the snapshot routes
+     * @throws IOException if any I/O error occurs or the file is not a valid snapshot
+     */
+    static Trie<ZuulRouteEntry> read(File file) throws IOException {
+        final byte[] bytes = Files.readAllBytes(file.toPath());
+        if (bytes.length < 8 + 8) {
+            throw new IOException("The file " + file + " is not a route snapshot.");
+        }
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+        if (input.readInt() != MAGIC) {
+            throw new IOException("The file " + file + " is not a route snapshot.");
+        }
+        final int version = input.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported route snapshot version " + version + ".");
+        }
+        final CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - 8);
+        if (checksum.getValue() != ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong()) {
+            throw new IOException("The route snapshot " + file + " is corrupted.");
+        }
+
+        final int size = input.readInt();
+        final List<ZuulRouteEntry> entries = new ArrayList<ZuulRouteEntry>(size);
+        for (int index = 0; index < size; index++) {
+            entries.add(readEntry(input));
+        }
+        final int length = input.readInt();
+        final int offset = bytes.length - 8 - length;
+        if (length < 0 || offset < 0) {
+            throw new IOException("The route snapshot " + file + " is corrupted.");
+        }
+        try {
+            return OffHeapTrie.wrap(ByteBuffer.wrap(bytes, offset, length), entries);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("The route snapshot " + file + " is corrupted.", e);
+        }
+    }
+
+    private static void writeEntry(DataOutputStream output, ZuulRouteEntry entry) throws IOException {
+        final ZuulProperties.ZuulRoute route = entry.getRoute();
+        output.writeUTF(entry.getPath());
+        writeString(output, route.getId());
+        writeString(output, route.getPath());
+        writeString(output, route.getServiceId());
+        writeString(output, route.getUrl());
+        output.writeBoolean(route.isStripPrefix());
+        writeBoolean(output, route.getRetryable());
+        output.writeBoolean(route instanceof PrecomputedZuulRoute);
+        if (route instanceof PrecomputedZuulRoute) {
+            final PrecomputedZuulRoute precomputed = (PrecomputedZuulRoute) route;
+            output.writeUTF(precomputed.getGlobalPrefix());
+            output.writeBoolean(precomputed.isStripGlobalPrefix());
+            writeBoolean(output, precomputed.getSpecRetryable());
+        }
+    }
+
+    private static ZuulRouteEntry readEntry(DataInputStream input) throws IOException {
+        final String path = input.readUTF();
+        final String id = readString(input);
+        final String routePath = readString(input);
+        final String serviceId = readString(input);
+        final String url = readString(input);
+        final boolean stripPrefix = input.readBoolean();
+        final Boolean retryable = readBoolean(input);
+        final ZuulProperties.ZuulRoute route = new ZuulProperties.ZuulRoute(id, routePath, serviceId, url,
+                stripPrefix, retryable);
+        if (input.readBoolean()) {
+            final String globalPrefix = input.readUTF();
+            final boolean stripGlobalPrefix = input.readBoolean();
+            return new ZuulRouteEntry(path, new PrecomputedZuulRoute(route, globalPrefix, stripGlobalPrefix,
+                    readBoolean(input)));
+        }
+        return new ZuulRouteEntry(path, route);
+    }
+
+    private static void writeBoolean(DataOutputStream output, Boolean value) throws IOException {
+        output.writeByte(value == null ? NO_RETRYABLE : value ? 1 : 0);
+    }
+
+    private static Boolean readBoolean(DataInputStream input) throws IOException {
+        final byte value = input.readByte();
+        return value == NO_RETRYABLE ? null : value == 1;
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+}
@@ -16,10 +16,24 @@
 package io.jmnarloch.spring.cloud.zuul.matcher;
 
 import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.TrieStats;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
 import org.springframework.util.Assert;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
 /**
@@ -30,15 +44,31 @@ import java.util.concurrent.atomic.AtomicReference;
 public class TrieRouteMatcher implements RouteMatcher {
 
     /**
-     * The suffix used for wildcard route matching.
+     * The logger instance used by this class.
      */
-    private static final String WILDCARD = "**";
+    private static final Log logger = LogFactory.getLog(TrieRouteMatcher.class);
+
+    /**
+     * The default {@link TrieCompiler} that packs the populated Trie into the
+     * {@link io.jmnarloch.spring.cloud.zuul.trie.CompiledTrie}.
+     */
+    private static final TrieCompiler COMPILER = new TrieCompiler() {
+        @Override
+        public <T> Trie<T> compile(Trie<T> trie) {
+            return Tries.compile(trie);
+        }
+    };
 
     /**
      * The instance of {@link TrieSupplier} used for instantiating new Tries.
      */
     private final TrieSupplier trieSupplier;
 
+    /**
+     * The instance of {@link TrieCompiler} used for turning the populated Tries into their read only form.
+     */
+    private final TrieCompiler trieCompiler;
+
     /**
      * Holds the reference to the Trie instance.
      */
@@ -46,151 +76,271 @@ public class TrieRouteMatcher implements RouteMatcher {
             new AtomicReference<Trie<ZuulRouteEntry>>();
 
     /**
-     * Creates new instance of {@link TrieRouteMatcher} with specific supplier.
+     * The file storing the snapshot of the route table, or {@code null} if the snapshot is disabled.
+     */
+    private volatile File snapshotFile;
+
+    /**
+     * Holds the reference to the published Trie waiting to be written to the snapshot file.
+     */
+    private final AtomicReference<Trie<ZuulRouteEntry>> pendingSnapshot =
+            new AtomicReference<Trie<ZuulRouteEntry>>();
+
+    /**
+     * The single threaded executor writing the snapshots, its thread is being started with the first snapshot.
+     */
+    private final ExecutorService snapshotWriter = Executors.newSingleThreadExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            final Thread thread = new Thread(runnable, "zuul-route-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    /**
+     * Writes the latest of the published Tries to the snapshot file, the Tries published while the previous one was
+     * being written are written only once.
+     */
+    private final Runnable snapshotWrite = new Runnable() {
+        @Override
+        public void run() {
+            final Trie<ZuulRouteEntry> trie = pendingSnapshot.getAndSet(null);
+            if (trie != null) {
+                writeSnapshot(trie);
+            }
+        }
+    };
+
+    /**
+     * The fork join pool used for populating the Trie in parallel, or {@code null} if the Trie is being populated
+     * sequentially.
+     */
+    private volatile ForkJoinPool buildPool;
+
+    /**
+     * Whether the routes are being matched ignoring case.
+     */
+    private volatile boolean caseInsensitive;
+
+    /**
+     * Creates new instance of {@link TrieRouteMatcher} with specific supplier. The routes are being compiled through
+     * {@link Tries#compile(java.util.SortedMap, boolean)} straight into the
+     * {@link io.jmnarloch.spring.cloud.zuul.trie.CompiledTrie}, without populating the Trie of the supplier.
      *
      * @param trieSupplier the Trie instance supplier
      */
     public TrieRouteMatcher(TrieSupplier trieSupplier) {
+        this(trieSupplier, COMPILER);
+    }
+
+    /**
+     * Creates new instance of {@link TrieRouteMatcher} with specific supplier and compiler.
+     *
+     * @param trieSupplier the Trie instance supplier
+     * @param trieCompiler the Trie compiler
+     */
+    public TrieRouteMatcher(TrieSupplier trieSupplier, TrieCompiler trieCompiler) {
         Assert.notNull(trieSupplier, "Parameter 'trieSupplier' can not be null");
+        Assert.notNull(trieCompiler, "Parameter 'trieCompiler' can not be null");
         this.trieSupplier = trieSupplier;
+        this.trieCompiler = trieCompiler;
     }
 
     /**
      * {@inheritDoc}
+     *
+     * With the default {@link TrieCompiler} the sorted routes are being compiled straight into the
+     * {@link io.jmnarloch.spring.cloud.zuul.trie.CompiledTrie}, since the populated Trie would be only walked back into
+     * the sorted entries by the compiler. Otherwise the Trie created by the {@link TrieSupplier} is being populated and
+     * passed to the compiler.
      */
     @Override
     public void setRoutes(Map<String, ZuulProperties.ZuulRoute> routes) {
 
-        final Trie<ZuulRouteEntry> trie = createTrie();
+        final SortedMap<String, ZuulRouteEntry> entries = new TreeMap<String, ZuulRouteEntry>();
         for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
-            trie.put(
-                    path(route.getKey()),
-                    new ZuulRouteEntry(route.getKey(), route.getValue(), isWildcard(route.getKey()))
-            );
+            final ZuulRouteEntry entry = new ZuulRouteEntry(route.getKey(), route.getValue());
+            entries.put(entry.getKey(), entry);
+        }
+        final Trie<ZuulRouteEntry> compiled;
+        if (trieCompiler == COMPILER) {
+            compiled = Tries.compile(entries, caseInsensitive);
+        } else {
+            final Trie<ZuulRouteEntry> trie = createTrie();
+            final ForkJoinPool buildPool = this.buildPool;
+            if (buildPool != null) {
+                Tries.putAll(trie, entries, buildPool);
+            } else {
+                Tries.bulkLoad(trie, entries);
+            }
+            compiled = trieCompiler.compile(trie);
         }
-        this.trie.lazySet(trie);
+        this.trie.set(compiled);
+        requestSnapshot(compiled);
     }
 
     /**
-     * {@inheritDoc}
+     * Sets the fork join pool used for populating the Trie. With the pool set, the large route tables are being
+     * split by their distinct path prefixes and the resulting subtrees are being populated in parallel. The pool is
+     * used only with the custom {@link TrieCompiler}, since the default one compiles the sorted routes without
+     * populating the Trie.
+     *
+     * @param buildPool the fork join pool, or {@code null} to populate the Trie sequentially
+     * @see Tries#putAll(Trie, Map, ForkJoinPool)
      */
-    @Override
-    public ZuulProperties.ZuulRoute getMatchingRoute(String path) {
-        final ZuulRouteEntry matching = trie.get().prefix(path);
-        if (matching == null
-                || !matching.isWildcard() && !matchesExact(path, matching.getPath())) {
-            return null;
-        } else {
-            return matching.getRoute();
-        }
+    public void setBuildPool(ForkJoinPool buildPool) {
+        this.buildPool = buildPool;
+    }
+
+    /**
+     * Sets whether the routes are being matched ignoring case. The Tries created by the {@link TrieSupplier} are being
+     * made case insensitive through {@link Tries#caseInsensitive(Trie)}, so that the request path is being folded
+     * while it is matched, without being copied. The case insensitive routes are not stored in the snapshot.
+     *
+     * @param caseInsensitive whether the routes are matched ignoring case
+     */
+    public void setCaseInsensitive(boolean caseInsensitive) {
+        this.caseInsensitive = caseInsensitive;
     }
 
     /**
-     * Normalizes the path by removing any wildcard symbol front the end.
+     * Sets the file storing the snapshot of the route table. Once set, the snapshot is being replaced in the background
+     * every time the routes are set and can be loaded through {@link #loadSnapshot()} on startup, before the routes are
+     * known.
      *
-     * @param path the path
-     * @return the normalized path
+     * @param snapshotFile the snapshot file, or {@code null} to disable the snapshot
      */
-    private String path(String path) {
-        if (isWildcard(path)) {
-            path = path.substring(0, path.length() - WILDCARD.length());
+    public void setSnapshotFile(File snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Loads the routes from the snapshot file, so that the requests can be matched before the routes are set for
+     * the first time. The snapshot routes are being used only until the routes are set.
+     *
+     * @return true if the snapshot has been loaded, false if the snapshot does not exist, is not valid or the routes
+     * are matched ignoring case
+     */
+    public boolean loadSnapshot() {
+        final File file = snapshotFile;
+        if (file == null || caseInsensitive || !file.isFile()) {
+            return false;
+        }
+        try {
+            final Trie<ZuulRouteEntry> snapshot = RouteSnapshot.read(file);
+            return this.trie.compareAndSet(null, snapshot);
+        } catch (IOException e) {
+            logger.warn("Could not load the route snapshot " + file, e);
+            return false;
         }
-        return path;
     }
 
     /**
-     * Returns whether the actual request path matches the configured route.
+     * Returns whether the routes can be already matched, either because they have been set or loaded from the
+     * snapshot.
      *
-     * @param expected the configured path
-     * @param actual   the request path
-     * @return true if actual path matches the expectation
+     * @return true if the routes are available
      */
-    private boolean matchesExact(String expected, String actual) {
-        return expected.length() == actual.length();
+    public boolean hasRoutes() {
+        return trie.get() != null;
     }
 
     /**
-     * Returns whether the specific path contains a wildcard.
+     * Stops writing the snapshots, the snapshot of the already published routes is still being written.
+     */
+    public void shutdown() {
+        snapshotWriter.shutdown();
+    }
+
+    /**
+     * Waits for the snapshot of the published routes to be written after {@link #shutdown()}.
      *
-     * @param path the path
-     * @return whether path contains wildcard
+     * @param timeout the maximum time to wait
+     * @param unit    the timeout unit
+     * @return true if the snapshot has been written, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return snapshotWriter.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(String path) {
+        Assert.notNull(path, "Parameter 'path' can not be null");
+
+        return getMatchingRoute(path, 0, path.length());
+    }
+
+    /**
+     * {@inheritDoc}
      */
-    private boolean isWildcard(String path) {
-        return path.endsWith(WILDCARD);
+    @Override
+    public ZuulProperties.ZuulRoute getMatchingRoute(CharSequence path, int from, int to) {
+        final ZuulRouteEntry matching = trie.get().longestMatch(path, from, to, ZuulRouteEntry.MATCHER);
+        return matching != null ? matching.getRoute() : null;
     }
 
     /**
-     * Creates new instance of {@link Trie} by delegating to the provided {@link TrieSupplier} instance.
+     * Computes the statistics of the currently published Trie, that is the Trie returned by the {@link TrieCompiler}.
      *
-     * @return the trie instance
+     * @return the trie statistics, or {@code null} if no routes have been set yet or the published Trie does not
+     * provide the statistics
+     * @see Tries#getStats(Trie)
      */
-    private Trie<ZuulRouteEntry> createTrie() {
-        return trieSupplier.createTrie();
+    public TrieStats getStats() {
+        final Trie<ZuulRouteEntry> trie = this.trie.get();
+        return trie != null ? Tries.getStats(trie) : null;
     }
 
     /**
-     * A simple wrapper on the Trie value entry allowing to associate additional information with the route specs.
+     * Requests writing the snapshot of the published Trie in the background, if the snapshot file has been set, so
+     * that the routes are published without waiting for the snapshot to be written.
      *
-     * @author Jakub Narloch
+     * @param trie the published trie
      */
-    private static class ZuulRouteEntry {
-
-        /**
-         * The route path.
-         */
-        private final String path;
-
-        /**
-         * The route spec.
-         */
-        private final ZuulProperties.ZuulRoute route;
-
-        /**
-         * Whether the route is a wildcard.
-         */
-        private final boolean wildcard;
-
-        /**
-         * Creates new instance of {@link ZuulRouteEntry}
-         *
-         * @param path           the route path
-         * @param route the zuul route
-         * @param wildcard       whether the route is wildcard
-         */
-        public ZuulRouteEntry(String path, ZuulProperties.ZuulRoute route, boolean wildcard) {
-            this.path = path;
-            this.route = route;
-            this.wildcard = wildcard;
+    private void requestSnapshot(Trie<ZuulRouteEntry> trie) {
+        if (snapshotFile == null || pendingSnapshot.getAndSet(trie) != null) {
+            return;
         }
-
-        /**
-         * Returns the route path.
-         *
-         * @return the route path
-         */
-        public String getPath() {
-            return path;
+        try {
+            snapshotWriter.execute(snapshotWrite);
+        } catch (RejectedExecutionException e) {
+            pendingSnapshot.set(null);
         }
+    }
 
-        /**
-         * Retrieves the route spec
-         *
-         * @return the route spec
-         */
-        public ZuulProperties.ZuulRoute getRoute() {
-            return route;
+    /**
+     * Writes the snapshot of the published Trie, if the snapshot file has been set.
+     *
+     * @param trie the published trie
+     */
+    private void writeSnapshot(Trie<ZuulRouteEntry> trie) {
+        final File file = snapshotFile;
+        if (file == null || Tries.isCaseInsensitive(trie)) {
+            return;
         }
-
-        /**
-         * Returns whether the path is a wildcard.
-         *
-         * @return the path wildcard
-         */
-        public boolean isWildcard() {
-            return wildcard;
+        try {
+            RouteSnapshot.write(trie, file);
+        } catch (IOException e) {
+            logger.warn("Could not write the route snapshot " + file, e);
         }
     }
 
+    /**
+     * Creates new instance of {@link Trie} by delegating to the provided {@link TrieSupplier} instance, case
+     * insensitive if the routes are matched ignoring case.
+     *
+     * @return the trie instance
+     */
+    private Trie<ZuulRouteEntry> createTrie() {
+        final Trie<ZuulRouteEntry> trie = trieSupplier.createTrie();
+        return caseInsensitive ? Tries.caseInsensitive(trie) : trie;
+    }
+
     /**
      * The Trie instance supplier, used whenever to instantiate and populate a Trie whenever a new list of routes is
      * being provided.
@@ -201,4 +351,15 @@ public class TrieRouteMatcher implements RouteMatcher {
 
         <T> Trie<T> createTrie();
     }
-}
+
+    /**
+     * The Trie compiler, used for turning the populated Trie into the form that is going to be used for matching the
+     * routes. The returned Trie is only being queried afterwards.
+     *
+     * @author Jakub Narloch
+     */
+    public interface TrieCompiler {
+
+        <T> Trie<T> compile(Trie<T> trie);
+    }
+}
\ No newline at end of file
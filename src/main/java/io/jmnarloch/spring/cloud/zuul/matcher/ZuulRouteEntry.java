@@ -0,0 +1,139 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.PrefixMatcher;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+/**
+ * A simple wrapper on the Trie value entry allowing to associate additional information with the route specs.
+ *
+ * @author Jakub Narloch
+ */
+class ZuulRouteEntry {
+
+    /**
+     * The suffix used for wildcard route matching.
+     */
+    private static final String WILDCARD = "**";
+
+    /**
+     * The {@link PrefixMatcher} accepting the entries matching the whole request path, that is the wildcard entries
+     * stored under any prefix of the request path and the remaining entries stored under the request path itself.
+     */
+    static final PrefixMatcher<ZuulRouteEntry> MATCHER = new PrefixMatcher<ZuulRouteEntry>() {
+        @Override
+        public boolean matches(ZuulRouteEntry entry, int length, int keyLength) {
+            return entry.matches(keyLength);
+        }
+    };
+
+    /**
+     * The route path.
+     */
+    private final String path;
+
+    /**
+     * The route spec.
+     */
+    private final ZuulProperties.ZuulRoute route;
+
+    /**
+     * Whether the route is a wildcard.
+     */
+    private final boolean wildcard;
+
+    /**
+     * Creates new instance of {@link ZuulRouteEntry}
+     *
+     * @param path  the route path
+     * @param route the zuul route
+     */
+    public ZuulRouteEntry(String path, ZuulProperties.ZuulRoute route) {
+        this.path = path;
+        this.route = route;
+        this.wildcard = path.endsWith(WILDCARD);
+    }
+
+    /**
+     * Returns the route path.
+     *
+     * @return the route path
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the Trie key of the route, that is the route path with the wildcard symbol removed from the end.
+     *
+     * @return the Trie key
+     */
+    public String getKey() {
+        return wildcard ? path.substring(0, path.length() - WILDCARD.length()) : path;
+    }
+
+    /**
+     * Retrieves the route spec
+     *
+     * @return the route spec
+     */
+    public ZuulProperties.ZuulRoute getRoute() {
+        return route;
+    }
+
+    /**
+     * Returns whether the path is a wildcard.
+     *
+     * @return the path wildcard
+     */
+    public boolean isWildcard() {
+        return wildcard;
+    }
+
+    /**
+     * Returns whether the request path, which prefix has been matched with the Trie key, matches the route.
+     *
+     * @param length the request path length
+     * @return true if the request path matches the route
+     */
+    public boolean matches(int length) {
+        return wildcard || path.length() == length;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final ZuulRouteEntry that = (ZuulRouteEntry) o;
+        return path.equals(that.path) && route.equals(that.route);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * path.hashCode() + route.hashCode();
+    }
+}
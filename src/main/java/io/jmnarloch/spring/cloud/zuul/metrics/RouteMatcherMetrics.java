@@ -0,0 +1,259 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.metrics;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects the route matching and the route rebuild metrics. The matched and unmatched lookups are always counted,
+ * while the lookup time is being measured only for the randomly sampled lookups, one per {@code sampleRate} on
+ * average, so that reading the clock does not add to the latency of every request.
+ *
+ * <p>The counters are striped across the threads and can be safely updated from any number of request threads.
+ *
+ * @author Jakub Narloch
+ */
+public class RouteMatcherMetrics {
+
+    /**
+     * The default sample rate.
+     */
+    public static final int DEFAULT_SAMPLE_RATE = 64;
+
+    /**
+     * The lookups are timed once per this number of lookups, zero disables timing.
+     */
+    private final int sampleRate;
+
+    /**
+     * The number of lookups that have matched the route.
+     */
+    private final StripedCounter matched = new StripedCounter();
+
+    /**
+     * The number of lookups that have not matched any route.
+     */
+    private final StripedCounter unmatched = new StripedCounter();
+
+    /**
+     * The number of timed lookups.
+     */
+    private final StripedCounter samples = new StripedCounter();
+
+    /**
+     * The total time of the timed lookups.
+     */
+    private final StripedCounter sampleNanos = new StripedCounter();
+
+    /**
+     * The longest time of the timed lookups.
+     */
+    private final AtomicLong maxSampleNanos = new AtomicLong();
+
+    /**
+     * The number of route rebuilds.
+     */
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    /**
+     * The number of route rebuilds that have been skipped, because they were merged into or superseded by another
+     * rebuild.
+     */
+    private final AtomicLong skippedRebuilds = new AtomicLong();
+
+    /**
+     * The total time of the route rebuilds.
+     */
+    private final AtomicLong rebuildNanos = new AtomicLong();
+
+    /**
+     * The time of the last route rebuild.
+     */
+    private volatile long lastRebuildNanos;
+
+    /**
+     * The number of routes after the last rebuild.
+     */
+    private volatile int routes;
+
+    /**
+     * Creates new instance of {@link RouteMatcherMetrics} with default sample rate.
+     */
+    public RouteMatcherMetrics() {
+        this(DEFAULT_SAMPLE_RATE);
+    }
+
+    /**
+     * Creates new instance of {@link RouteMatcherMetrics} with specific sample rate.
+     *
+     * @param sampleRate the lookups are timed once per this number of lookups, zero disables timing
+     * @throws IllegalArgumentException if {@code sampleRate} is negative
+     */
+    public RouteMatcherMetrics(int sampleRate) {
+        Assert.isTrue(sampleRate >= 0, "Parameter 'sampleRate' can not be negative");
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Decides whether the current lookup should be timed.
+     *
+     * @return true if the lookup should be timed
+     */
+    public boolean sample() {
+        return sampleRate == 1 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) == 0);
+    }
+
+    /**
+     * Records the result of the lookup.
+     *
+     * @param matched whether the lookup has matched the route
+     */
+    public void recordMatch(boolean matched) {
+        if (matched) {
+            this.matched.increment();
+        } else {
+            this.unmatched.increment();
+        }
+    }
+
+    /**
+     * Records the time of the sampled lookup.
+     *
+     * @param nanos the lookup time in nanoseconds
+     */
+    public void recordMatchTime(long nanos) {
+        samples.increment();
+        sampleNanos.add(nanos);
+        long max = maxSampleNanos.get();
+        while (nanos > max && !maxSampleNanos.compareAndSet(max, nanos)) {
+            max = maxSampleNanos.get();
+        }
+    }
+
+    /**
+     * Records the route rebuild.
+     *
+     * @param nanos  the rebuild time in nanoseconds
+     * @param routes the number of routes
+     */
+    public void recordRebuild(long nanos, int routes) {
+        rebuilds.incrementAndGet();
+        rebuildNanos.addAndGet(nanos);
+        this.lastRebuildNanos = nanos;
+        this.routes = routes;
+    }
+
+    /**
+     * Records the route rebuild that has been skipped.
+     */
+    public void recordSkippedRebuild() {
+        skippedRebuilds.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of lookups that have matched the route.
+     *
+     * @return the number of matched lookups
+     */
+    public long getMatchedCount() {
+        return matched.sum();
+    }
+
+    /**
+     * Returns the number of lookups that have not matched any route.
+     *
+     * @return the number of unmatched lookups
+     */
+    public long getUnmatchedCount() {
+        return unmatched.sum();
+    }
+
+    /**
+     * Returns the number of timed lookups.
+     *
+     * @return the number of timed lookups
+     */
+    public long getSampleCount() {
+        return samples.sum();
+    }
+
+    /**
+     * Returns the mean time of the timed lookups.
+     *
+     * @return the mean lookup time in nanoseconds, or 0 if no lookup has been timed
+     */
+    public double getMeanMatchNanos() {
+        final long samples = getSampleCount();
+        return samples > 0 ? (double) sampleNanos.sum() / samples : 0;
+    }
+
+    /**
+     * Returns the longest time of the timed lookups.
+     *
+     * @return the longest lookup time in nanoseconds
+     */
+    public long getMaxMatchNanos() {
+        return maxSampleNanos.get();
+    }
+
+    /**
+     * Returns the number of route rebuilds.
+     *
+     * @return the number of rebuilds
+     */
+    public long getRebuildCount() {
+        return rebuilds.get();
+    }
+
+    /**
+     * Returns the number of skipped route rebuilds.
+     *
+     * @return the number of skipped rebuilds
+     */
+    public long getSkippedRebuildCount() {
+        return skippedRebuilds.get();
+    }
+
+    /**
+     * Returns the total time of the route rebuilds.
+     *
+     * @return the total rebuild time in nanoseconds
+     */
+    public long getTotalRebuildNanos() {
+        return rebuildNanos.get();
+    }
+
+    /**
+     * Returns the time of the last route rebuild.
+     *
+     * @return the last rebuild time in nanoseconds
+     */
+    public long getLastRebuildNanos() {
+        return lastRebuildNanos;
+    }
+
+    /**
+     * Returns the number of routes after the last rebuild.
+     *
+     * @return the number of routes
+     */
+    public int getRouteCount() {
+        return routes;
+    }
+}
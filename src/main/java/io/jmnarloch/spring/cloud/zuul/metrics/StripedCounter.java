@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter, that spreads the increments over multiple cells chosen by the thread identifier, so that the threads
+ * incrementing the counter concurrently rarely contend on the same cell. Every cell is padded to its own cache line.
+ *
+ * @author Jakub Narloch
+ */
+class StripedCounter {
+
+    /**
+     * The number of array elements per cell, the cells are 64 bytes apart.
+     */
+    private static final int PADDING = 8;
+
+    /**
+     * The number of cells.
+     */
+    private static final int CELLS = ceilingPowerOfTwo(Runtime.getRuntime().availableProcessors() * 2);
+
+    /**
+     * The cells.
+     */
+    private final AtomicLongArray cells = new AtomicLongArray(CELLS * PADDING);
+
+    /**
+     * Increments the counter.
+     */
+    public void increment() {
+        add(1);
+    }
+
+    /**
+     * Adds the value to the counter.
+     *
+     * @param value the value to add
+     */
+    public void add(long value) {
+        final long id = Thread.currentThread().getId();
+        final int cell = (int) (id ^ (id >>> 32)) & (CELLS - 1);
+        cells.addAndGet(cell * PADDING, value);
+    }
+
+    /**
+     * Returns the sum of all of the cells. The sum is not an atomic snapshot when the counter is being concurrently
+     * incremented.
+     *
+     * @return the counter value
+     */
+    public long sum() {
+        long sum = 0;
+        for (int cell = 0; cell < CELLS; cell++) {
+            sum += cells.get(cell * PADDING);
+        }
+        return sum;
+    }
+
+    private static int ceilingPowerOfTwo(int value) {
+        int result = 1;
+        while (result < value) {
+            result <<= 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.route;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs the route rebuilds of the {@link MatcherProxyRouteLocator} on a dedicated background thread, so that the
+ * route refreshes do not add latency to the threads that have requested them.
+ *
+ * At most one rebuild is being queued at any time, the rebuilds requested while one is already waiting are merged
+ * into it. The rebuild requested while another one is running is queued behind it, so that the running rebuild always
+ * completes and the {@link MatcherProxyRouteLocator} publishes its routes.
+ *
+ * Optionally the rebuilds can be debounced, so that the bursts of refresh requests, for instance caused by the service
+ * discovery flapping, result in a single rebuild. The queued rebuild is then being started only once no further
+ * rebuild has been requested for the {@code minInterval}, but no later than {@code maxDelay} after it has been
+ * requested for the first time.
+ *
+ * @author Jakub Narloch
+ */
+public class AsyncRouteRebuilder {
+
+    /**
+     * The logger instance used by this class.
+     */
+    private static final Log logger = LogFactory.getLog(AsyncRouteRebuilder.class);
+
+    /**
+     * The single threaded executor running the rebuilds.
+     */
+    private final ScheduledExecutorService executor;
+
+    /**
+     * The time in nanoseconds without any further requests, after which the queued rebuild is started.
+     */
+    private final long minIntervalNanos;
+
+    /**
+     * The maximum time in nanoseconds the queued rebuild can be delayed by.
+     */
+    private final long maxDelayNanos;
+
+    /**
+     * Whether a rebuild has been requested and is waiting to be run.
+     */
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /**
+     * The time of the first of the requests merged into the queued rebuild.
+     */
+    private volatile long firstRequestNanos;
+
+    /**
+     * The time of the last of the requests merged into the queued rebuild.
+     */
+    private volatile long lastRequestNanos;
+
+    /**
+     * Creates new instance of {@link AsyncRouteRebuilder}, that starts the rebuilds as soon as possible.
+     */
+    public AsyncRouteRebuilder() {
+        this(0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Creates new instance of {@link AsyncRouteRebuilder} with debounced rebuilds.
+     *
+     * @param minInterval the time without any further requests, after which the queued rebuild is started
+     * @param maxDelay    the maximum time the queued rebuild can be delayed by
+     * @param unit        the time unit
+     * @throws IllegalArgumentException if {@code minInterval} is negative or {@code maxDelay} is lower than
+     *                                  {@code minInterval}
+     */
+    public AsyncRouteRebuilder(long minInterval, long maxDelay, TimeUnit unit) {
+        Assert.isTrue(minInterval >= 0, "Parameter 'minInterval' can not be negative");
+        Assert.isTrue(maxDelay >= minInterval, "Parameter 'maxDelay' can not be lower than 'minInterval'");
+        Assert.notNull(unit, "Parameter 'unit' can not be null");
+        this.minIntervalNanos = unit.toNanos(minInterval);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                final Thread thread = new Thread(runnable, "zuul-route-rebuild");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Requests the rebuild. The rebuild is being run on the background thread, unless another rebuild is already
+     * waiting to be run, in which case this request is merged into it.
+     *
+     * @param rebuild the rebuild
+     * @return true if the rebuild has been queued, false if the request has been merged into the queued rebuild
+     */
+    public boolean submit(final Runnable rebuild) {
+        Assert.notNull(rebuild, "Parameter 'rebuild' can not be null");
+
+        final long now = System.nanoTime();
+        lastRequestNanos = now;
+        if (!pending.compareAndSet(false, true)) {
+            return false;
+        }
+        firstRequestNanos = now;
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                final long delay = Math.min(lastRequestNanos + minIntervalNanos, firstRequestNanos + maxDelayNanos)
+                        - System.nanoTime();
+                if (delay > 0 && !executor.isShutdown()) {
+                    executor.schedule(this, delay, TimeUnit.NANOSECONDS);
+                    return;
+                }
+                pending.set(false);
+                try {
+                    rebuild.run();
+                } catch (RuntimeException e) {
+                    logger.error("The route rebuild has failed", e);
+                }
+            }
+        }, minIntervalNanos, TimeUnit.NANOSECONDS);
+        return true;
+    }
+
+    /**
+     * Stops accepting new rebuilds, the already requested rebuild is still being run, without waiting for the
+     * {@code minInterval} to elapse.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Waits for the requested rebuilds to complete after {@link #shutdown()}.
+     *
+     * @param timeout the maximum time to wait
+     * @param unit    the timeout unit
+     * @return true if all of the rebuilds have completed, false if the timeout elapsed
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.awaitTermination(timeout, unit);
+    }
+}
@@ -15,20 +15,61 @@
  */
 package io.jmnarloch.spring.cloud.zuul.route;
 
+import io.jmnarloch.spring.cloud.zuul.cache.CacheStats;
+import io.jmnarloch.spring.cloud.zuul.cache.TinyLfuCache;
+import io.jmnarloch.spring.cloud.zuul.matcher.HostRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.MethodRouteMatcher;
 import io.jmnarloch.spring.cloud.zuul.matcher.RouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.TrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.metrics.RouteMatcherMetrics;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator;
 import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.util.Assert;
 import org.springframework.util.StringUtils;
 
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * A simple implementation of {@link ProxyRouteLocator} that delegates to the {@link RouteMatcher} for retrieving the
  * best matching route for specified request path.
  *
+ * Optionally the resolved route specs can be cached by the request path in the bounded {@link TinyLfuCache}. The
+ * cache is being replaced whenever the routes are being reset and the requests not matching any route are never
+ * cached. The cached route specs are being shared between the requests.
+ *
+ * When the {@link RouteMatcherMetrics} are provided, every lookup is being counted as matched or unmatched, the
+ * sampled lookups are being timed and so is every rebuild of the route matcher.
+ *
+ * When the {@link AsyncRouteRebuilder} is provided, every reset of the routes only requests the rebuild, that is run
+ * in the background. The requests are being matched against the previous routes until the rebuilt ones are
+ * published. Only the reset that finds no routes at all rebuilds them synchronously.
+ *
+ * When the {@link TrieRouteMatcher} has loaded its routes from the snapshot, the requests are being matched against
+ * the snapshot routes from the start and the first reset, as well, only replaces them in the background.
+ *
+ * When the {@link HostRouteMatcher} is used, the routes can be also matched by the request host through
+ * {@link #getMatchingRoute(String, String)}. When the {@link MethodRouteMatcher} is used, the routes can be matched
+ * by the HTTP method through {@link #getMatchingRoute(String, String, String)}. The keys of the routes having their
+ * host patterns or methods set are then being qualified with those. The lookups qualified with the host or the method
+ * are never cached.
+ *
  * @author Jakub Narloch
  */
 public class MatcherProxyRouteLocator extends ProxyRouteLocator {
 
+    /**
+     * The logger instance used by this class.
+     */
+    private static final Log logger = LogFactory.getLog(MatcherProxyRouteLocator.class);
+
     /**
      * The route matcher instance.
      */
@@ -44,6 +85,87 @@ public class MatcherProxyRouteLocator extends ProxyRouteLocator {
      */
     private final ZuulProperties properties;
 
+    /**
+     * The maximum number of cached route specs, zero if caching is disabled.
+     */
+    private final int cacheSize;
+
+    /**
+     * The route matcher metrics, {@code null} if metrics are disabled.
+     */
+    private final RouteMatcherMetrics metrics;
+
+    /**
+     * Holds the reference to the route spec cache, created for the current routes.
+     */
+    private final AtomicReference<TinyLfuCache<String, ProxyRouteSpec>> cache =
+            new AtomicReference<TinyLfuCache<String, ProxyRouteSpec>>();
+
+    /**
+     * The asynchronous route rebuilder, {@code null} if the routes are being rebuilt synchronously.
+     */
+    private final AsyncRouteRebuilder rebuilder;
+
+    /**
+     * The rebuild submitted to the {@link #rebuilder}.
+     */
+    private final Runnable rebuild = new Runnable() {
+        @Override
+        public void run() {
+            rebuildRoutes();
+        }
+    };
+
+    /**
+     * Replaces the snapshot routes with the located ones, on a background thread of its own. The resets requested
+     * while it is running are merged into a single following rebuild, run by the same thread.
+     */
+    private final Runnable initialRebuild = new Runnable() {
+        @Override
+        public void run() {
+            do {
+                while (initialRebuildRequested.getAndSet(false)) {
+                    try {
+                        rebuildRoutes();
+                    } catch (RuntimeException e) {
+                        logger.error("The route rebuild has failed, the snapshot routes are still being used", e);
+                    }
+                }
+                initialRebuildRunning.set(false);
+            } while (initialRebuildRequested.get() && initialRebuildRunning.compareAndSet(false, true));
+        }
+    };
+
+    /**
+     * Whether the reset has been requested since the background initial rebuild has last started.
+     */
+    private final AtomicBoolean initialRebuildRequested = new AtomicBoolean();
+
+    /**
+     * Whether the background initial rebuild thread is running.
+     */
+    private final AtomicBoolean initialRebuildRunning = new AtomicBoolean();
+
+    /**
+     * The number of the started rebuilds, used for ordering them.
+     */
+    private final AtomicLong rebuilds = new AtomicLong();
+
+    /**
+     * Guards the publishing of the rebuilt routes.
+     */
+    private final Object publishLock = new Object();
+
+    /**
+     * The number of the rebuild that has published the current routes.
+     */
+    private long publishedRebuild;
+
+    /**
+     * Whether the routes have been built at least once.
+     */
+    private volatile boolean initialized;
+
     /**
      * Creates new instance of {@link MatcherProxyRouteLocator}.
      *
@@ -54,10 +176,64 @@ public class MatcherProxyRouteLocator extends ProxyRouteLocator {
      */
     public MatcherProxyRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
                                     RouteMatcher routeMatcher) {
+        this(servletPath, discovery, properties, routeMatcher, 0);
+    }
+
+    /**
+     * Creates new instance of {@link MatcherProxyRouteLocator} with the route spec cache.
+     *
+     * @param servletPath  the servlet path
+     * @param discovery    the service discovery
+     * @param properties   the properties
+     * @param routeMatcher the route matcher
+     * @param cacheSize    the maximum number of cached route specs, zero disables caching
+     * @throws IllegalArgumentException if {@code cacheSize} is negative
+     */
+    public MatcherProxyRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
+                                    RouteMatcher routeMatcher, int cacheSize) {
+        this(servletPath, discovery, properties, routeMatcher, cacheSize, null);
+    }
+
+    /**
+     * Creates new instance of {@link MatcherProxyRouteLocator} with the route spec cache and metrics.
+     *
+     * @param servletPath  the servlet path
+     * @param discovery    the service discovery
+     * @param properties   the properties
+     * @param routeMatcher the route matcher
+     * @param cacheSize    the maximum number of cached route specs, zero disables caching
+     * @param metrics      the route matcher metrics, {@code null} disables metrics
+     * @throws IllegalArgumentException if {@code cacheSize} is negative
+     */
+    public MatcherProxyRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
+                                    RouteMatcher routeMatcher, int cacheSize, RouteMatcherMetrics metrics) {
+        this(servletPath, discovery, properties, routeMatcher, cacheSize, metrics, null);
+    }
+
+    /**
+     * Creates new instance of {@link MatcherProxyRouteLocator} with the route spec cache, metrics and asynchronous
+     * route rebuilds.
+     *
+     * @param servletPath  the servlet path
+     * @param discovery    the service discovery
+     * @param properties   the properties
+     * @param routeMatcher the route matcher
+     * @param cacheSize    the maximum number of cached route specs, zero disables caching
+     * @param metrics      the route matcher metrics, {@code null} disables metrics
+     * @param rebuilder    the asynchronous route rebuilder, {@code null} rebuilds the routes synchronously
+     * @throws IllegalArgumentException if {@code cacheSize} is negative
+     */
+    public MatcherProxyRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties,
+                                    RouteMatcher routeMatcher, int cacheSize, RouteMatcherMetrics metrics,
+                                    AsyncRouteRebuilder rebuilder) {
         super(servletPath, discovery, properties);
+        Assert.isTrue(cacheSize >= 0, "Parameter 'cacheSize' can not be negative");
         this.servletPath = servletPath;
         this.properties = properties;
         this.routeMatcher = routeMatcher;
+        this.cacheSize = cacheSize;
+        this.metrics = metrics;
+        this.rebuilder = rebuilder;
     }
 
     /**
@@ -65,21 +241,263 @@ public class MatcherProxyRouteLocator extends ProxyRouteLocator {
      */
     @Override
     public ProxyRouteSpec getMatchingRoute(String path) {
+        return getMatchingRoute(null, path);
+    }
 
+    /**
+     * Retrieves the route spec matching the request host and path. The host is being taken into account only when
+     * the routes are being matched by the {@link HostRouteMatcher}, otherwise it is ignored.
+     *
+     * @param host the request host, optionally with the port, or {@code null} to match only by the request path
+     * @param path the request path
+     * @return the route spec, or {@code null} if none of the routes matches the host and the path
+     */
+    public ProxyRouteSpec getMatchingRoute(String host, String path) {
+        return getMatchingRoute(null, host, path);
+    }
+
+    /**
+     * Retrieves the route spec matching the request HTTP method, host and path. The method is being taken into
+     * account only when the routes are being matched by the {@link MethodRouteMatcher} and the host only when they
+     * are being matched by the {@link HostRouteMatcher}, otherwise they are ignored.
+     *
+     * @param method the request HTTP method, or {@code null} to match only the routes matching any method
+     * @param host   the request host, optionally with the port, or {@code null} to match only by the request path
+     * @param path   the request path
+     * @return the route spec, or {@code null} if none of the routes matches the method, the host and the path
+     */
+    public ProxyRouteSpec getMatchingRoute(String method, String host, String path) {
+
+        final RouteMatcherMetrics metrics = this.metrics;
+        if (metrics == null) {
+            return getCachedMatchingRoute(method, host, path);
+        }
+
+        final boolean sampled = metrics.sample();
+        final long start = sampled ? System.nanoTime() : 0L;
+        final ProxyRouteSpec route = getCachedMatchingRoute(method, host, path);
+        if (sampled) {
+            metrics.recordMatchTime(System.nanoTime() - start);
+        }
+        metrics.recordMatch(route != null);
+        return route;
+    }
+
+    /**
+     * Returns the route matcher metrics.
+     *
+     * @return the metrics, or {@code null} if metrics are disabled
+     */
+    public RouteMatcherMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Finds the route spec matching the request method, host and path, through the route spec cache if enabled and
+     * neither the method nor the host is taken into account.
+     *
+     * @param method the request HTTP method, or {@code null}
+     * @param host   the request host, or {@code null}
+     * @param path   the request path
+     * @return the route spec, or {@code null} if none of the routes matches the method, the host and the path
+     */
+    private ProxyRouteSpec getCachedMatchingRoute(String method, String host, String path) {
+
+        final String routeMethod = routeMatcher instanceof MethodRouteMatcher ? method : null;
+        final String routeHost = routeMatcher instanceof HostRouteMatcher ? host : null;
+        final TinyLfuCache<String, ProxyRouteSpec> cache = this.cache.get();
+        if (cache == null || routeMethod != null || routeHost != null) {
+            return findMatchingRoute(routeMethod, routeHost, path);
+        }
+
+        ProxyRouteSpec route = cache.get(path);
+        if (route == null) {
+            route = findMatchingRoute(null, null, path);
+            if (route != null) {
+                cache.put(path, route);
+            }
+        }
+        return route;
+    }
+
+    /**
+     * Returns the statistics of the route spec cache. The statistics are being reset together with the routes.
+     *
+     * @return the cache statistics, or {@code null} if caching is disabled
+     */
+    public CacheStats getCacheStats() {
+        final TinyLfuCache<String, ProxyRouteSpec> cache = this.cache.get();
+        return cache != null ? cache.stats() : null;
+    }
+
+    /**
+     * Finds the route spec matching the request method, host and path.
+     *
+     * @param method the request HTTP method, or {@code null} to match only the routes matching any method
+     * @param host   the request host, or {@code null} to match only by the request path
+     * @param path   the request path
+     * @return the route spec, or {@code null} if none of the routes matches the method, the host and the path
+     */
+    private ProxyRouteSpec findMatchingRoute(String method, String host, String path) {
+
+        int offset = 0;
         if (StringUtils.hasText(this.servletPath) && !this.servletPath.equals("/")
                 && path.startsWith(this.servletPath)) {
-            path = path.substring(this.servletPath.length());
+            offset = this.servletPath.length();
         }
 
-        return toProxyRouteSpec(path, routeMatcher.getMatchingRoute(path));
+        final ZuulProperties.ZuulRoute route;
+        if (method != null) {
+            route = ((MethodRouteMatcher) routeMatcher).getMatchingRoute(method, path, offset, path.length());
+        } else if (host != null) {
+            route = ((HostRouteMatcher) routeMatcher).getMatchingRoute(host, path, offset, path.length());
+        } else {
+            route = routeMatcher.getMatchingRoute(path, offset, path.length());
+        }
+        if (route instanceof PrecomputedZuulRoute) {
+            return toProxyRouteSpec(path, offset, (PrecomputedZuulRoute) route);
+        }
+        return toProxyRouteSpec(path.substring(offset), route);
     }
 
     /**
      * {@inheritDoc}
+     *
+     * The routes are rebuilt synchronously only when there are no routes at all, neither built by a previous reset
+     * nor loaded from the snapshot, so that the requests are never matched before any routes are set. Otherwise,
+     * with the {@link AsyncRouteRebuilder} every reset only requests the rebuild, and without it the snapshot
+     * routes are replaced by a single background thread, that merges the resets requested in the meantime.
      */
     @Override
     public void resetRoutes() {
-        routeMatcher.setRoutes(locateRoutes());
+        if (!initialized && !hasSnapshotRoutes()) {
+            rebuildRoutes();
+        } else if (rebuilder != null) {
+            if (!rebuilder.submit(rebuild) && metrics != null) {
+                metrics.recordSkippedRebuild();
+            }
+        } else if (!initialized) {
+            initialRebuildRequested.set(true);
+            if (initialRebuildRunning.compareAndSet(false, true)) {
+                final Thread thread = new Thread(initialRebuild, "zuul-route-rebuild");
+                thread.setDaemon(true);
+                thread.start();
+            }
+        } else {
+            rebuildRoutes();
+        }
+    }
+
+    /**
+     * Returns whether the route matcher has loaded the routes from the snapshot.
+     *
+     * @return true if the snapshot routes are available
+     */
+    private boolean hasSnapshotRoutes() {
+        return routeMatcher instanceof TrieRouteMatcher && ((TrieRouteMatcher) routeMatcher).hasRoutes();
+    }
+
+    /**
+     * Locates the routes and publishes them to the route matcher, unless a rebuild started later has already
+     * published its routes. The rebuild is being published even if a newer one has been requested in the meantime,
+     * so that the refreshes requested faster than the routes are located can not keep the routes from being
+     * published.
+     */
+    private void rebuildRoutes() {
+        final long rebuild = rebuilds.incrementAndGet();
+        final Map<String, ZuulProperties.ZuulRoute> routes = precompute(locateRoutes());
+        synchronized (publishLock) {
+            if (rebuild < publishedRebuild) {
+                if (metrics != null) {
+                    metrics.recordSkippedRebuild();
+                }
+                return;
+            }
+            final long start = System.nanoTime();
+            routeMatcher.setRoutes(routes);
+            if (metrics != null) {
+                metrics.recordRebuild(System.nanoTime() - start, routes.size());
+            }
+            if (cacheSize > 0) {
+                cache.set(new TinyLfuCache<String, ProxyRouteSpec>(cacheSize));
+            }
+            publishedRebuild = rebuild;
+            initialized = true;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * With the {@link HostRouteMatcher} the keys of the routes having their host patterns set are being qualified
+     * with those patterns, and with the {@link MethodRouteMatcher} the keys of the routes having their HTTP methods
+     * set are being qualified with those methods, so that the routes sharing the same path but differing by the host
+     * or the method are all located, instead of overriding each other.
+     */
+    @Override
+    protected LinkedHashMap<String, ZuulProperties.ZuulRoute> locateRoutes() {
+        final LinkedHashMap<String, ZuulProperties.ZuulRoute> routes = super.locateRoutes();
+        if (routeMatcher instanceof HostRouteMatcher) {
+            return qualify(routes, ((HostRouteMatcher) routeMatcher).getHosts());
+        } else if (routeMatcher instanceof MethodRouteMatcher) {
+            return qualify(routes, ((MethodRouteMatcher) routeMatcher).getMethods());
+        }
+        return routes;
+    }
+
+    /**
+     * Qualifies the keys of the routes with the qualifiers set for their ids, separated by a space. The routes
+     * sharing the same path are being located once again from the properties, since only the last one of them has
+     * been kept under the path.
+     *
+     * @param routes     the located routes
+     * @param qualifiers the qualifiers by the route ids
+     * @return the routes with the qualified keys
+     */
+    private LinkedHashMap<String, ZuulProperties.ZuulRoute> qualify(
+            LinkedHashMap<String, ZuulProperties.ZuulRoute> routes, Map<String, String> qualifiers) {
+        if (qualifiers.isEmpty()) {
+            return routes;
+        }
+
+        final Map<String, String> keys = new HashMap<String, String>();
+        final LinkedHashMap<String, ZuulProperties.ZuulRoute> qualified =
+                new LinkedHashMap<String, ZuulProperties.ZuulRoute>();
+        for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
+            keys.put(route.getValue().getPath(), route.getKey());
+            if (!StringUtils.hasText(qualifiers.get(route.getValue().getId()))) {
+                qualified.put(route.getKey(), route.getValue());
+            }
+        }
+        for (ZuulProperties.ZuulRoute route : properties.getRoutes().values()) {
+            final String qualifier = qualifiers.get(route.getId());
+            final String key = keys.get(route.getPath());
+            if (key == null) {
+                continue;
+            }
+            if (StringUtils.hasText(qualifier)) {
+                qualified.put(qualifier.trim() + " " + key, route);
+            } else if (!qualified.containsKey(key)) {
+                qualified.put(key, route);
+            }
+        }
+        return qualified;
+    }
+
+    /**
+     * Replaces every route with the {@link PrecomputedZuulRoute}, so that the route spec information that does not
+     * depend on the request path is not being computed on every request.
+     *
+     * @param routes the routes
+     * @return the precomputed routes
+     */
+    private Map<String, ZuulProperties.ZuulRoute> precompute(Map<String, ZuulProperties.ZuulRoute> routes) {
+        final Map<String, ZuulProperties.ZuulRoute> precomputed =
+                new LinkedHashMap<String, ZuulProperties.ZuulRoute>(routes.size() * 2);
+        for (Map.Entry<String, ZuulProperties.ZuulRoute> route : routes.entrySet()) {
+            precomputed.put(route.getKey(), new PrecomputedZuulRoute(route.getValue(), properties));
+        }
+        return precomputed;
     }
 
     /**
@@ -120,6 +538,69 @@ public class MatcherProxyRouteLocator extends ProxyRouteLocator {
         );
     }
 
+    /**
+     * Creates a {@link org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator.ProxyRouteSpec} out of
+     * {@link PrecomputedZuulRoute}. The servlet path and the prefixes are being removed by the offset, so the request
+     * path is being copied at most once. The prefixes are being compared ignoring case, so that they are also removed
+     * from the paths matched by the case insensitive route matcher.
+     *
+     * @param path   the request path
+     * @param offset the offset of the request path following the servlet path
+     * @param route  the precomputed zuul route
+     * @return the route spec
+     */
+    private ProxyRouteSpec toProxyRouteSpec(final String path, int offset, final PrecomputedZuulRoute route) {
+
+        if (route.isStripGlobalPrefix() && startsWithIgnoreCase(path, offset, route.getGlobalPrefix())) {
+            offset += route.getGlobalPrefix().length();
+        }
+
+        final String routePrefix = route.getRoutePrefix();
+        final String targetPath;
+        if (routePrefix == null) {
+            targetPath = path.substring(offset);
+        } else if (startsWithIgnoreCase(path, offset, routePrefix)) {
+            targetPath = path.substring(offset + routePrefix.length());
+        } else {
+            targetPath = removeFirst(path.substring(offset), routePrefix);
+        }
+
+        return new ProxyRouteSpec(
+                route.getId(),
+                targetPath,
+                route.getLocation(),
+                route.getSpecPrefix(),
+                route.getSpecRetryable()
+        );
+    }
+
+    /**
+     * Returns whether the path starts with the prefix at the given offset, ignoring case.
+     *
+     * @param path   the path
+     * @param offset the offset
+     * @param prefix the prefix
+     * @return true if the path starts with the prefix
+     */
+    private static boolean startsWithIgnoreCase(String path, int offset, String prefix) {
+        return path.regionMatches(true, offset, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Removes the first occurrence of the value from the path.
+     *
+     * @param path  the path
+     * @param value the value to remove
+     * @return the path without the value
+     */
+    private static String removeFirst(String path, String value) {
+        final int index = path.indexOf(value);
+        if (index < 0) {
+            return path;
+        }
+        return path.substring(0, index) + path.substring(index + value.length());
+    }
+
     /**
      * Returns whether connection to specific route is retryable.
      *
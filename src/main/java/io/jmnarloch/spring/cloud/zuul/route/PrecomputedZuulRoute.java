@@ -0,0 +1,170 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.route;
+
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * A {@link ZuulProperties.ZuulRoute} that additionally holds all of the
+ * {@link org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator.ProxyRouteSpec} information that depends
+ * only on the route and the Zuul properties, computed once whenever the routes are being reset.
+ *
+ * @author Jakub Narloch
+ */
+public class PrecomputedZuulRoute extends ZuulProperties.ZuulRoute {
+
+    /**
+     * The global prefix.
+     */
+    private final String globalPrefix;
+
+    /**
+     * Whether the global prefix is being stripped from the request path.
+     */
+    private final boolean stripGlobalPrefix;
+
+    /**
+     * The route prefix stripped from the request path, or {@code null} if none.
+     */
+    private final String routePrefix;
+
+    /**
+     * The route spec prefix.
+     */
+    private final String specPrefix;
+
+    /**
+     * The route spec retryable flag.
+     */
+    private final Boolean specRetryable;
+
+    /**
+     * Creates new instance of {@link PrecomputedZuulRoute}.
+     *
+     * @param route      the zuul route
+     * @param properties the zuul properties
+     */
+    public PrecomputedZuulRoute(ZuulProperties.ZuulRoute route, ZuulProperties properties) {
+        this(route, properties.getPrefix(), properties.isStripPrefix(), properties.getRetryable());
+    }
+
+    /**
+     * Creates new instance of {@link PrecomputedZuulRoute} out of the already known global settings, like the ones
+     * restored from the route snapshot.
+     *
+     * @param route             the zuul route
+     * @param globalPrefix      the global prefix
+     * @param stripGlobalPrefix whether the global prefix is being stripped from the request path
+     * @param retryable         the global retryable flag, used when the route does not set its own
+     */
+    public PrecomputedZuulRoute(ZuulProperties.ZuulRoute route, String globalPrefix, boolean stripGlobalPrefix,
+                                Boolean retryable) {
+        super(route.getId(), route.getPath(), route.getServiceId(), route.getUrl(), route.isStripPrefix(),
+                route.getRetryable());
+        this.globalPrefix = globalPrefix;
+        this.stripGlobalPrefix = stripGlobalPrefix;
+        this.routePrefix = routePrefix(route);
+        this.specPrefix = routePrefix != null ? globalPrefix + routePrefix : globalPrefix;
+        this.specRetryable = route.getRetryable() != null ? route.getRetryable() : retryable;
+    }
+
+    /**
+     * Returns the global prefix.
+     *
+     * @return the global prefix
+     */
+    public String getGlobalPrefix() {
+        return globalPrefix;
+    }
+
+    /**
+     * Returns whether the global prefix is being stripped from the request path.
+     *
+     * @return whether to strip the global prefix
+     */
+    public boolean isStripGlobalPrefix() {
+        return stripGlobalPrefix;
+    }
+
+    /**
+     * Returns the route prefix stripped from the request path.
+     *
+     * @return the route prefix, or {@code null} if none
+     */
+    public String getRoutePrefix() {
+        return routePrefix;
+    }
+
+    /**
+     * Returns the route spec prefix.
+     *
+     * @return the route spec prefix
+     */
+    public String getSpecPrefix() {
+        return specPrefix;
+    }
+
+    /**
+     * Returns the route spec retryable flag.
+     *
+     * @return the route spec retryable flag
+     */
+    public Boolean getSpecRetryable() {
+        return specRetryable;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PrecomputedZuulRoute) || !super.equals(o)) {
+            return false;
+        }
+        final PrecomputedZuulRoute that = (PrecomputedZuulRoute) o;
+        return stripGlobalPrefix == that.stripGlobalPrefix
+                && ObjectUtils.nullSafeEquals(globalPrefix, that.globalPrefix)
+                && ObjectUtils.nullSafeEquals(specRetryable, that.specRetryable);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return 31 * super.hashCode() + ObjectUtils.nullSafeHashCode(globalPrefix);
+    }
+
+    /**
+     * Retrieves the part of the route path preceding the first wildcard, if the route strips it.
+     *
+     * @param route the zuul route
+     * @return the route prefix, or {@code null} if none
+     */
+    private static String routePrefix(ZuulProperties.ZuulRoute route) {
+        if (route.isStripPrefix()) {
+            int index = route.getPath().indexOf("*") - 1;
+            if (index > 0) {
+                return route.getPath().substring(0, index);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,73 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.support;
+
+import io.jmnarloch.spring.cloud.zuul.metrics.RouteMatcherMetrics;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Exposes the {@link RouteMatcherMetrics} through the Spring Boot Actuator metrics endpoint. The metrics are read
+ * only when the endpoint is queried, so publishing them does not add any cost to the route lookups.
+ *
+ * @author Jakub Narloch
+ */
+public class RouteMatcherPublicMetrics implements PublicMetrics {
+
+    /**
+     * The metrics name prefix.
+     */
+    private static final String PREFIX = "zuul.matcher.";
+
+    /**
+     * The route matcher metrics.
+     */
+    private final RouteMatcherMetrics metrics;
+
+    /**
+     * Creates new instance of {@link RouteMatcherPublicMetrics}.
+     *
+     * @param metrics the route matcher metrics
+     */
+    public RouteMatcherPublicMetrics(RouteMatcherMetrics metrics) {
+        Assert.notNull(metrics, "Parameter 'metrics' can not be null");
+        this.metrics = metrics;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<Metric<?>> metrics() {
+        final List<Metric<?>> result = new ArrayList<Metric<?>>();
+        result.add(new Metric<Long>("counter." + PREFIX + "matched", metrics.getMatchedCount()));
+        result.add(new Metric<Long>("counter." + PREFIX + "unmatched", metrics.getUnmatchedCount()));
+        result.add(new Metric<Long>("counter." + PREFIX + "match.samples", metrics.getSampleCount()));
+        result.add(new Metric<Double>("gauge." + PREFIX + "match.meanNanos", metrics.getMeanMatchNanos()));
+        result.add(new Metric<Long>("gauge." + PREFIX + "match.maxNanos", metrics.getMaxMatchNanos()));
+        result.add(new Metric<Long>("counter." + PREFIX + "rebuilds", metrics.getRebuildCount()));
+        result.add(new Metric<Long>("counter." + PREFIX + "rebuilds.skipped", metrics.getSkippedRebuildCount()));
+        result.add(new Metric<Long>("gauge." + PREFIX + "rebuild.lastNanos", metrics.getLastRebuildNanos()));
+        result.add(new Metric<Long>("gauge." + PREFIX + "rebuild.totalNanos", metrics.getTotalRebuildNanos()));
+        result.add(new Metric<Integer>("gauge." + PREFIX + "routes", metrics.getRouteCount()));
+        return result;
+    }
+}
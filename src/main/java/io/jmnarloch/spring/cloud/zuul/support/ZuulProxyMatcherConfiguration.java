@@ -15,15 +15,31 @@
  */
 package io.jmnarloch.spring.cloud.zuul.support;
 
+import io.jmnarloch.spring.cloud.zuul.matcher.HostRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.MethodRouteMatcher;
 import io.jmnarloch.spring.cloud.zuul.matcher.RouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.TrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.metrics.RouteMatcherMetrics;
+import io.jmnarloch.spring.cloud.zuul.route.AsyncRouteRebuilder;
 import io.jmnarloch.spring.cloud.zuul.route.MatcherProxyRouteLocator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.cloud.netflix.zuul.ZuulProxyConfiguration;
 import org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator;
 import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.StringUtils;
+
+import java.io.File;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Registers the {@link MatcherProxyRouteLocator} instance that delegates to the configured {@link RouteMatcher} for
@@ -32,6 +48,7 @@ import org.springframework.context.annotation.Configuration;
  * @author Jakub Narloch
  */
 @Configuration
+@EnableConfigurationProperties(ZuulProxyMatcherProperties.class)
 public class ZuulProxyMatcherConfiguration extends ZuulProxyConfiguration {
 
     @Autowired
@@ -46,8 +63,112 @@ public class ZuulProxyMatcherConfiguration extends ZuulProxyConfiguration {
     @Autowired
     private RouteMatcher routeMatcher;
 
+    @Autowired
+    private ZuulProxyMatcherProperties matcherProperties;
+
+    @Autowired(required = false)
+    private RouteMatcherMetrics routeMatcherMetrics;
+
+    @Autowired(required = false)
+    private AsyncRouteRebuilder asyncRouteRebuilder;
+
+    @Autowired(required = false)
+    @Qualifier("routeBuildPool")
+    private ForkJoinPool routeBuildPool;
+
     @Override
     public ProxyRouteLocator routeLocator() {
-        return new MatcherProxyRouteLocator(server.getServletPath(), discovery, zuulProperties, routeMatcher);
+        if (routeMatcher instanceof TrieRouteMatcher) {
+            configure((TrieRouteMatcher) routeMatcher);
+        }
+        if (routeMatcher instanceof HostRouteMatcher) {
+            ((HostRouteMatcher) routeMatcher).setHosts(matcherProperties.getHosts());
+        }
+        if (routeMatcher instanceof MethodRouteMatcher) {
+            ((MethodRouteMatcher) routeMatcher).setMethods(matcherProperties.getMethods());
+        }
+        return new MatcherProxyRouteLocator(server.getServletPath(), discovery, zuulProperties, routeMatcher,
+                matcherProperties.getCacheSize(), routeMatcherMetrics, asyncRouteRebuilder);
+    }
+
+    /**
+     * Applies the route matcher properties to the {@link TrieRouteMatcher}.
+     *
+     * @param trieRouteMatcher the route matcher
+     */
+    private void configure(TrieRouteMatcher trieRouteMatcher) {
+        trieRouteMatcher.setCaseInsensitive(matcherProperties.isCaseInsensitive());
+        if (routeBuildPool != null) {
+            trieRouteMatcher.setBuildPool(routeBuildPool);
+        }
+        if (StringUtils.hasText(matcherProperties.getSnapshotFile())) {
+            trieRouteMatcher.setSnapshotFile(new File(matcherProperties.getSnapshotFile()));
+            trieRouteMatcher.loadSnapshot();
+        }
+    }
+
+    /**
+     * Registers the {@link AsyncRouteRebuilder} when the {@code zuul.matcher.asyncRebuild} property is set to
+     * {@code true}, debouncing the rebuilds by {@code zuul.matcher.rebuildMinInterval} and
+     * {@code zuul.matcher.rebuildMaxDelay}.
+     *
+     * @author Jakub Narloch
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "zuul.matcher", name = "asyncRebuild", havingValue = "true")
+    protected static class AsyncRouteRebuildConfiguration {
+
+        @Autowired
+        private ZuulProxyMatcherProperties matcherProperties;
+
+        @Bean(destroyMethod = "shutdown")
+        public AsyncRouteRebuilder asyncRouteRebuilder() {
+            final long minInterval = matcherProperties.getRebuildMinInterval();
+            return new AsyncRouteRebuilder(minInterval, Math.max(minInterval, matcherProperties.getRebuildMaxDelay()),
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Registers the {@link ForkJoinPool} populating the Trie when the {@code zuul.matcher.buildParallelism} property
+     * is set to a positive number of threads.
+     *
+     * @author Jakub Narloch
+     */
+    @Configuration
+    @ConditionalOnExpression("${zuul.matcher.buildParallelism:0} > 0")
+    protected static class RouteBuildPoolConfiguration {
+
+        @Autowired
+        private ZuulProxyMatcherProperties matcherProperties;
+
+        @Bean(destroyMethod = "shutdown")
+        public ForkJoinPool routeBuildPool() {
+            return new ForkJoinPool(matcherProperties.getBuildParallelism());
+        }
+    }
+
+    /**
+     * Registers the {@link RouteMatcherMetrics} and exposes them through the actuator metrics endpoint, unless the
+     * {@code zuul.matcher.metricsEnabled} property is set to {@code false}.
+     *
+     * @author Jakub Narloch
+     */
+    @Configuration
+    @ConditionalOnProperty(prefix = "zuul.matcher", name = "metricsEnabled", matchIfMissing = true)
+    protected static class RouteMatcherMetricsConfiguration {
+
+        @Autowired
+        private ZuulProxyMatcherProperties matcherProperties;
+
+        @Bean
+        public RouteMatcherMetrics routeMatcherMetrics() {
+            return new RouteMatcherMetrics(matcherProperties.getMetricsSampleRate());
+        }
+
+        @Bean
+        public PublicMetrics routeMatcherPublicMetrics() {
+            return new RouteMatcherPublicMetrics(routeMatcherMetrics());
+        }
     }
 }
@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.support;
+
+import io.jmnarloch.spring.cloud.zuul.metrics.RouteMatcherMetrics;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The route matcher configuration properties.
+ *
+ * @author Jakub Narloch
+ */
+@ConfigurationProperties("zuul.matcher")
+public class ZuulProxyMatcherProperties {
+
+    /**
+     * The maximum number of the route specs cached by the request path, zero disables the cache.
+     */
+    private int cacheSize = 0;
+
+    /**
+     * Whether the route matcher metrics are being collected and exposed through the actuator metrics endpoint.
+     */
+    private boolean metricsEnabled = true;
+
+    /**
+     * The route lookups are timed once per this number of lookups on average, zero disables timing.
+     */
+    private int metricsSampleRate = RouteMatcherMetrics.DEFAULT_SAMPLE_RATE;
+
+    /**
+     * The file storing the snapshot of the route table, loaded on startup before the routes are located.
+     */
+    private String snapshotFile;
+
+    /**
+     * Whether the routes are being rebuilt on the background thread after they have been built for the first time.
+     */
+    private boolean asyncRebuild = false;
+
+    /**
+     * The number of threads populating the Trie of the large route tables, zero populates the Trie sequentially. The
+     * Trie is populated only for the custom Trie compiler, the default one compiles the sorted routes directly.
+     */
+    private int buildParallelism = 0;
+
+    /**
+     * Whether the request paths are being matched against the routes ignoring case.
+     */
+    private boolean caseInsensitive = false;
+
+    /**
+     * The time in milliseconds without any further route refreshes, after which the asynchronous rebuild is started.
+     */
+    private long rebuildMinInterval = 0;
+
+    /**
+     * The maximum time in milliseconds the asynchronous rebuild can be delayed by the following route refreshes.
+     */
+    private long rebuildMaxDelay = 0;
+
+    /**
+     * The host patterns of the routes, by the route ids, applied when the {@link
+     * io.jmnarloch.spring.cloud.zuul.matcher.HostRouteMatcher} is used.
+     */
+    private Map<String, String> hosts = new LinkedHashMap<String, String>();
+
+    /**
+     * The comma separated HTTP methods of the routes, by the route ids, applied when the {@link
+     * io.jmnarloch.spring.cloud.zuul.matcher.MethodRouteMatcher} is used.
+     */
+    private Map<String, String> methods = new LinkedHashMap<String, String>();
+
+    /**
+     * Returns the maximum number of the cached route specs.
+     *
+     * @return the cache size
+     */
+    public int getCacheSize() {
+        return cacheSize;
+    }
+
+    /**
+     * Sets the maximum number of the cached route specs.
+     *
+     * @param cacheSize the cache size
+     */
+    public void setCacheSize(int cacheSize) {
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Returns whether the route matcher metrics are enabled.
+     *
+     * @return true if metrics are enabled
+     */
+    public boolean isMetricsEnabled() {
+        return metricsEnabled;
+    }
+
+    /**
+     * Sets whether the route matcher metrics are enabled.
+     *
+     * @param metricsEnabled whether metrics are enabled
+     */
+    public void setMetricsEnabled(boolean metricsEnabled) {
+        this.metricsEnabled = metricsEnabled;
+    }
+
+    /**
+     * Returns the route lookup sample rate.
+     *
+     * @return the sample rate
+     */
+    public int getMetricsSampleRate() {
+        return metricsSampleRate;
+    }
+
+    /**
+     * Sets the route lookup sample rate.
+     *
+     * @param metricsSampleRate the sample rate
+     */
+    public void setMetricsSampleRate(int metricsSampleRate) {
+        this.metricsSampleRate = metricsSampleRate;
+    }
+
+    /**
+     * Returns the route table snapshot file.
+     *
+     * @return the snapshot file
+     */
+    public String getSnapshotFile() {
+        return snapshotFile;
+    }
+
+    /**
+     * Sets the route table snapshot file.
+     *
+     * @param snapshotFile the snapshot file
+     */
+    public void setSnapshotFile(String snapshotFile) {
+        this.snapshotFile = snapshotFile;
+    }
+
+    /**
+     * Returns whether the routes are being rebuilt asynchronously.
+     *
+     * @return true if the routes are rebuilt asynchronously
+     */
+    public boolean isAsyncRebuild() {
+        return asyncRebuild;
+    }
+
+    /**
+     * Sets whether the routes are being rebuilt asynchronously.
+     *
+     * @param asyncRebuild whether the routes are rebuilt asynchronously
+     */
+    public void setAsyncRebuild(boolean asyncRebuild) {
+        this.asyncRebuild = asyncRebuild;
+    }
+
+    /**
+     * Returns the time without any further route refreshes, after which the rebuild is started.
+     *
+     * @return the minimum interval in milliseconds
+     */
+    public long getRebuildMinInterval() {
+        return rebuildMinInterval;
+    }
+
+    /**
+     * Sets the time without any further route refreshes, after which the rebuild is started.
+     *
+     * @param rebuildMinInterval the minimum interval in milliseconds
+     */
+    public void setRebuildMinInterval(long rebuildMinInterval) {
+        this.rebuildMinInterval = rebuildMinInterval;
+    }
+
+    /**
+     * Returns the maximum time the rebuild can be delayed by.
+     *
+     * @return the maximum delay in milliseconds
+     */
+    public long getRebuildMaxDelay() {
+        return rebuildMaxDelay;
+    }
+
+    /**
+     * Sets the maximum time the rebuild can be delayed by.
+     *
+     * @param rebuildMaxDelay the maximum delay in milliseconds
+     */
+    public void setRebuildMaxDelay(long rebuildMaxDelay) {
+        this.rebuildMaxDelay = rebuildMaxDelay;
+    }
+
+    /**
+     * Returns the number of threads populating the Trie.
+     *
+     * @return the build parallelism
+     */
+    public int getBuildParallelism() {
+        return buildParallelism;
+    }
+
+    /**
+     * Sets the number of threads populating the Trie.
+     *
+     * @param buildParallelism the build parallelism
+     */
+    public void setBuildParallelism(int buildParallelism) {
+        this.buildParallelism = buildParallelism;
+    }
+
+    /**
+     * Returns whether the routes are matched ignoring case.
+     *
+     * @return true if the routes are matched ignoring case
+     */
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    /**
+     * Sets whether the routes are matched ignoring case.
+     *
+     * @param caseInsensitive whether the routes are matched ignoring case
+     */
+    public void setCaseInsensitive(boolean caseInsensitive) {
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Returns the host patterns of the routes.
+     *
+     * @return the host patterns by the route ids
+     */
+    public Map<String, String> getHosts() {
+        return hosts;
+    }
+
+    /**
+     * Sets the host patterns of the routes.
+     *
+     * @param hosts the host patterns by the route ids
+     */
+    public void setHosts(Map<String, String> hosts) {
+        this.hosts = hosts;
+    }
+
+    /**
+     * Returns the HTTP methods of the routes.
+     *
+     * @return the HTTP methods by the route ids
+     */
+    public Map<String, String> getMethods() {
+        return methods;
+    }
+
+    /**
+     * Sets the HTTP methods of the routes.
+     *
+     * @param methods the HTTP methods by the route ids
+     */
+    public void setMethods(Map<String, String> methods) {
+        this.methods = methods;
+    }
+}
@@ -17,8 +17,17 @@ package io.jmnarloch.spring.cloud.zuul.trie;
 
 import org.springframework.util.Assert;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * The base class for all {@link Trie} instances.
@@ -27,6 +36,12 @@ import java.util.LinkedList;
  */
 abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements Trie<T> {
 
+    /**
+     * The number of entries below which the subtree is being populated sequentially, rather than split into the
+     * subtrees of its children.
+     */
+    static final int PARALLEL_THRESHOLD = 1024;
+
     /**
      * A node factory.
      */
@@ -37,6 +52,11 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
      */
     private N root;
 
+    /**
+     * Whether the case of the key characters is being folded.
+     */
+    private boolean caseInsensitive;
+
     /**
      * Creates new instance of {@link AbstractTrie} with specific node factory.
      *
@@ -47,6 +67,28 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         this.root = createTrieNode();
     }
 
+    /**
+     * Returns whether this trie is case insensitive. The case insensitive trie folds the case of every key character,
+     * both when the key is being put and when it is being looked up, so the keys differing only by case are equal
+     * and the keys are being traversed in their folded form.
+     *
+     * @return true if the trie is case insensitive
+     */
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    /**
+     * Sets whether this trie is case insensitive.
+     *
+     * @param caseInsensitive whether the trie is case insensitive
+     * @throws IllegalStateException if the trie is not empty
+     */
+    void setCaseInsensitive(boolean caseInsensitive) {
+        Assert.state(isEmpty(), "The trie must be empty.");
+        this.caseInsensitive = caseInsensitive;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -70,7 +112,31 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
     public T put(String key, T value) {
         Assert.hasLength(key, "Key must be not null or not empty string.");
 
-        return put(getRoot(), key, value);
+        return put(getRoot(), key, 0, value);
+    }
+
+    /**
+     * Puts all of the entries into this empty trie, populating the independent subtrees in parallel. The entries
+     * are being split by the character following their common prefix and every resulting group is being put into
+     * the subtree of the separate child node by its own fork join task, until the groups become smaller than
+     * {@link #PARALLEL_THRESHOLD}. The child nodes are being linked to their parents before the tasks are forked, so
+     * that every node is being modified by a single thread only. The keys put into the case insensitive trie are being
+     * folded up front, so that the keys differing only by case end up in the same group.
+     *
+     * @param entries the entries
+     * @param pool    the fork join pool
+     * @throws IllegalStateException if the trie is not empty
+     */
+    void putAll(Map<String, ? extends T> entries, ForkJoinPool pool) {
+        Assert.state(isEmpty(), "The trie must be empty.");
+
+        final Map<String, ? extends T> keys = caseInsensitive ? fold(entries) : entries;
+        final List<Map.Entry<String, ? extends T>> list = new ArrayList<Map.Entry<String, ? extends T>>(keys.size());
+        for (Map.Entry<String, ? extends T> entry : keys.entrySet()) {
+            Assert.hasLength(entry.getKey(), "Key must be not null or not empty string.");
+            list.add(entry);
+        }
+        pool.invoke(new PutAllTask(getRoot(), list, 0));
     }
 
     /**
@@ -90,7 +156,17 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
     public T get(String key) {
         Assert.hasLength(key, "Key must be not null or not empty string.");
 
-        return get(getRoot(), key);
+        return get(getRoot(), key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        return get(getRoot(), key, from, to);
     }
 
     /**
@@ -100,7 +176,42 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
     public T prefix(String key) {
         Assert.hasLength(key, "Key must be not null or not empty string.");
 
-        return prefix(getRoot(), key);
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        N node = getRoot();
+        int index = from;
+        while (node != null) {
+            if (node.hasValue()) {
+                final T candidate = node.getValue();
+                if (matcher.matches(candidate, index - from, to - from)) {
+                    value = candidate;
+                }
+            }
+            if (index == to) {
+                break;
+            }
+            node = node.getNext(getChar(key, index));
+            index++;
+        }
+        return value;
     }
 
     @Override
@@ -110,13 +221,107 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return remove(getRoot(), key);
     }
 
-    private T put(N root, String key, T value) {
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(getRoot(), new StringBuilder(), visitor);
+    }
+
+    /**
+     * Computes the statistics of the trie shape and its estimated memory usage.
+     *
+     * @return the trie statistics
+     */
+    public TrieStats getStats() {
+        final TrieStats.Collector collector = new TrieStats.Collector();
+        collect(getRoot(), 0, collector);
+        return collector.build();
+    }
+
+    /**
+     * Puts all of the entries into this empty trie in a single pass. Since the keys are sorted, every key shares with
+     * the previous one the longest common prefix of all the keys put so far, therefore only the nodes of its
+     * remaining suffix are being created. The nodes of the previous key below the common prefix are complete at that
+     * point and their sizes are being computed bottom up, when they are being removed from the current path.
+     *
+     * The keys put into the case insensitive trie are being folded and sorted again up front, so that the keys
+     * differing only by case share their nodes, the entry sorted last replacing the others, same as if they were put
+     * one by one.
+     *
+     * @param entries the entries sorted in the natural order of their keys
+     * @throws IllegalStateException if the trie is not empty
+     */
+    void bulkLoad(SortedMap<String, ? extends T> entries) {
+        Assert.state(isEmpty(), "The trie must be empty.");
+
+        final SortedMap<String, ? extends T> sorted = caseInsensitive ? fold(entries) : entries;
+        final List<N> path = new ArrayList<N>();
+        path.add(getRoot());
+        int[] sizes = new int[16];
+        String previous = "";
+
+        for (Map.Entry<String, ? extends T> entry : sorted.entrySet()) {
+            final String key = entry.getKey();
+            Assert.hasLength(key, "Key must be not null or not empty string.");
+
+            final int prefix = commonPrefix(previous, key);
+            for (int depth = path.size() - 1; depth > prefix; depth--) {
+                path.remove(depth).setSize(sizes[depth]);
+                sizes[depth - 1] += sizes[depth];
+            }
+            if (key.length() >= sizes.length) {
+                sizes = Arrays.copyOf(sizes, Math.max(key.length() + 1, sizes.length * 2));
+            }
+            N node = path.get(prefix);
+            for (int index = prefix; index < key.length(); index++) {
+                final N next = createTrieNode();
+                node.setNext(getChar(key, index), next);
+                node = next;
+                path.add(node);
+                sizes[index + 1] = 0;
+            }
+            node.setValue(entry.getValue());
+            sizes[key.length()]++;
+            previous = key;
+        }
+        for (int depth = path.size() - 1; depth > 0; depth--) {
+            path.remove(depth).setSize(sizes[depth]);
+            sizes[depth - 1] += sizes[depth];
+        }
+        getRoot().setSize(sizes[0]);
+    }
+
+    /**
+     * Folds the case of the keys of the entries.
+     *
+     * @param entries the entries
+     * @param <T>     the element type
+     * @return the entries sorted by their folded keys
+     */
+    static <T> SortedMap<String, T> fold(Map<String, ? extends T> entries) {
+        final SortedMap<String, T> folded = new TreeMap<String, T>();
+        final StringBuilder key = new StringBuilder();
+        for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+            Assert.hasLength(entry.getKey(), "Key must be not null or not empty string.");
+
+            key.setLength(0);
+            for (int index = 0; index < entry.getKey().length(); index++) {
+                key.append(CharSequences.fold(entry.getKey().charAt(index)));
+            }
+            folded.put(key.toString(), entry.getValue());
+        }
+        return folded;
+    }
+
+    private T put(N root, String key, int from, T value) {
 
         N node = root;
-        final Deque<N> stack = new LinkedList<N>();
-        stack.push(node);
         N next;
-        int index = 0;
+        int index = from;
 
         while (index < key.length()) {
             final char c = getChar(key, index);
@@ -126,7 +331,6 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
                 node.setNext(c, next);
             }
             node = next;
-            stack.push(node);
             index++;
         }
         final boolean replaced = node.hasValue();
@@ -136,18 +340,20 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
             return old;
         }
 
-        while (!stack.isEmpty()) {
-            node = stack.pop();
+        node = root;
+        node.setSize(node.getSize() + 1);
+        for (index = from; index < key.length(); index++) {
+            node = node.getNext(getChar(key, index));
             node.setSize(node.getSize() + 1);
         }
         return null;
     }
 
-    private T get(N node, String key) {
+    private T get(N node, CharSequence key, int from, int to) {
 
-        int index = 0;
+        int index = from;
         while (node != null) {
-            if (index == key.length()) {
+            if (index == to) {
                 return node.getValue();
             }
             node = node.getNext(getChar(key, index));
@@ -156,23 +362,6 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return null;
     }
 
-    private T prefix(N node, String key) {
-
-        T value = null;
-        int index = 0;
-        while (node != null) {
-            if (node.hasValue()) {
-                value = node.getValue();
-            }
-            if (index == key.length()) {
-                break;
-            }
-            node = node.getNext(getChar(key, index));
-            index++;
-        }
-        return value;
-    }
-
     protected T remove(N root, String key) {
 
         int index = 0;
@@ -209,8 +398,39 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return value;
     }
 
-    private char getChar(String key, int index) {
-        return key.charAt(index);
+    private void traverse(N node, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        if (node.hasValue()) {
+            visitor.visit(key.toString(), node.getValue());
+        }
+        for (char c : node.getNextChars()) {
+            key.append(c);
+            traverse(node.getNext(c), key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    private void collect(N node, int depth, TrieStats.Collector collector) {
+
+        final char[] chars = node.getNextChars();
+        collector.node(depth, chars.length, node.hasValue(), node.getRetainedSize());
+        for (char c : chars) {
+            collect(node.getNext(c), depth + 1, collector);
+        }
+    }
+
+    private static int commonPrefix(String first, String second) {
+        final int length = Math.min(first.length(), second.length());
+        int index = 0;
+        while (index < length && first.charAt(index) == second.charAt(index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private char getChar(CharSequence key, int index) {
+        final char c = key.charAt(index);
+        return caseInsensitive ? CharSequences.fold(c) : c;
     }
 
     private N getRoot() {
@@ -221,6 +441,86 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         return nodeFactory.createNode();
     }
 
+    /**
+     * Puts the entries sharing the common prefix into the subtree of the node at the end of that prefix.
+     *
+     * @author Jakub Narloch
+     */
+    private class PutAllTask extends RecursiveAction {
+
+        /**
+         * The node at the end of the common prefix.
+         */
+        private final N node;
+
+        /**
+         * The entries.
+         */
+        private final List<Map.Entry<String, ? extends T>> entries;
+
+        /**
+         * The length of the common prefix.
+         */
+        private final int depth;
+
+        /**
+         * Creates new instance of {@link PutAllTask}.
+         *
+         * @param node    the node at the end of the common prefix
+         * @param entries the entries
+         * @param depth   the length of the common prefix
+         */
+        PutAllTask(N node, List<Map.Entry<String, ? extends T>> entries, int depth) {
+            this.node = node;
+            this.entries = entries;
+            this.depth = depth;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected void compute() {
+            if (entries.size() < PARALLEL_THRESHOLD) {
+                for (Map.Entry<String, ? extends T> entry : entries) {
+                    put(node, entry.getKey(), depth, entry.getValue());
+                }
+                return;
+            }
+
+            final Map<Character, List<Map.Entry<String, ? extends T>>> groups =
+                    new HashMap<Character, List<Map.Entry<String, ? extends T>>>();
+            for (Map.Entry<String, ? extends T> entry : entries) {
+                final String key = entry.getKey();
+                if (key.length() == depth) {
+                    node.setValue(entry.getValue());
+                    continue;
+                }
+                final Character c = getChar(key, depth);
+                List<Map.Entry<String, ? extends T>> group = groups.get(c);
+                if (group == null) {
+                    group = new ArrayList<Map.Entry<String, ? extends T>>();
+                    groups.put(c, group);
+                }
+                group.add(entry);
+            }
+
+            final List<PutAllTask> tasks = new ArrayList<PutAllTask>(groups.size());
+            for (Map.Entry<Character, List<Map.Entry<String, ? extends T>>> group : groups.entrySet()) {
+                final N next = createTrieNode();
+                node.setNext(group.getKey(), next);
+                tasks.add(new PutAllTask(next, group.getValue(), depth + 1));
+            }
+            invokeAll(tasks);
+
+            int size = node.hasValue() ? 1 : 0;
+            for (PutAllTask task : tasks) {
+                size += task.node.getSize();
+            }
+            node.setSize(size);
+        }
+    }
+
     interface TrieNodeFactory<T, N extends TrieNode<T, N>> {
 
         N createNode();
@@ -240,6 +540,8 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
 
         void removeNext(char c);
 
+        char[] getNextChars();
+
         void setValue(T value);
 
         T getValue();
@@ -247,5 +549,7 @@ abstract class AbstractTrie<T, N extends AbstractTrie.TrieNode<T, N>> implements
         boolean hasValue();
 
         void removeValue();
+
+        long getRetainedSize();
     }
 }
@@ -22,6 +22,11 @@ package io.jmnarloch.spring.cloud.zuul.trie;
  */
 public abstract class AbstractTrieNode<T, N extends AbstractTrieNode<T, N>> implements AbstractTrie.TrieNode<T, N> {
 
+    /**
+     * The size of the fields declared by this class.
+     */
+    static final int FIELD_BYTES = TrieStats.REFERENCE + 4;
+
     /**
      * The node value.
      */
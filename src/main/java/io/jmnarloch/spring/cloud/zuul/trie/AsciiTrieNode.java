@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import gnu.trove.map.TCharObjectMap;
+import gnu.trove.map.hash.TCharObjectHashMap;
+
+import java.util.Arrays;
+
+/**
+ * A hybrid Trie node, that stores the children for the printable ASCII characters in the directly indexed array and
+ * the children for any other character in the Trove {@link TCharObjectMap}. Both the array and the map are being
+ * allocated only once the first child of the respective range is being added.
+ *
+ * @author Jakub Narloch
+ */
+class AsciiTrieNode<T> extends AbstractTrieNode<T, AsciiTrieNode<T>> {
+
+    /**
+     * The lowest printable ASCII character.
+     */
+    private static final char MIN = 0x20;
+
+    /**
+     * The highest printable ASCII character.
+     */
+    private static final char MAX = 0x7E;
+
+    /**
+     * The array of the child nodes of the printable ASCII characters, indexed from {@link #MIN}.
+     */
+    private AsciiTrieNode<T>[] next;
+
+    /**
+     * The map of the child nodes of the remaining characters.
+     */
+    private TCharObjectMap<AsciiTrieNode<T>> overflow;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setNext(char c, AsciiTrieNode<T> next) {
+        if (isAscii(c)) {
+            if (this.next == null) {
+                this.next = (AsciiTrieNode<T>[]) new AsciiTrieNode[MAX - MIN + 1];
+            }
+            this.next[c - MIN] = next;
+        } else {
+            if (overflow == null) {
+                overflow = new TCharObjectHashMap<AsciiTrieNode<T>>();
+            }
+            overflow.put(c, next);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AsciiTrieNode<T> getNext(char c) {
+        if (isAscii(c)) {
+            return next != null ? next[c - MIN] : null;
+        }
+        return overflow != null ? overflow.get(c) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNext(char c) {
+        if (isAscii(c)) {
+            if (next != null) {
+                next[c - MIN] = null;
+            }
+        } else if (overflow != null) {
+            overflow.remove(c);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getNextChars() {
+        final char[] overflowChars = overflow != null ? overflow.keys() : new char[0];
+        int count = overflowChars.length;
+        if (next != null) {
+            for (AsciiTrieNode<T> node : next) {
+                if (node != null) {
+                    count++;
+                }
+            }
+        }
+        final char[] chars = new char[count];
+        int index = 0;
+        if (next != null) {
+            for (int i = 0; i < next.length; i++) {
+                if (next[i] != null) {
+                    chars[index++] = (char) (MIN + i);
+                }
+            }
+        }
+        System.arraycopy(overflowChars, 0, chars, index, overflowChars.length);
+        Arrays.sort(chars);
+        return chars;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRetainedSize() {
+        return TrieStats.objectSize(FIELD_BYTES + 2 * TrieStats.REFERENCE)
+                + (next != null ? TrieStats.arraySize(next.length, TrieStats.REFERENCE) : 0)
+                + (overflow != null ? TrieStats.charObjectHashMapSize(overflow.size()) : 0);
+    }
+
+    /**
+     * Returns whether the character is stored in the directly indexed array.
+     *
+     * @param c the character
+     * @return true if character is printable ASCII character
+     */
+    private static boolean isAscii(char c) {
+        return c >= MIN && c <= MAX;
+    }
+}
@@ -80,6 +80,45 @@ class CharArrayTrieNode<T> extends AbstractTrieNode<T, CharArrayTrieNode<T>> {
         next[getIndex(c)] = null;
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getNextChars() {
+        int count = 0;
+        for (CharArrayTrieNode<T> node : next) {
+            if (node != null) {
+                count++;
+            }
+        }
+        final char[] chars = new char[count];
+        int index = 0;
+        for (int c = 0; c < next.length; c++) {
+            if (next[c] != null) {
+                chars[index++] = (char) c;
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRetainedSize() {
+        return TrieStats.objectSize(FIELD_BYTES + TrieStats.REFERENCE)
+                + TrieStats.arraySize(next.length, TrieStats.REFERENCE);
+    }
+
+    /**
+     * Retrieves the number of slots allocated by this node.
+     *
+     * @return the number of slots
+     */
+    public int getCapacity() {
+        return next.length;
+    }
+
     /**
      * Retrieves the code point of the given character.
      *
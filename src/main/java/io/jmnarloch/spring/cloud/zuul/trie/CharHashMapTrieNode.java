@@ -79,4 +79,20 @@ class CharHashMapTrieNode<T> extends AbstractTrieNode<T, CharHashMapTrieNode<T>>
     public void removeNext(char c) {
         next.remove(c);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getNextChars() {
+        return next.keys();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRetainedSize() {
+        return TrieStats.objectSize(FIELD_BYTES + TrieStats.REFERENCE) + TrieStats.charObjectHashMapSize(next.size());
+    }
 }
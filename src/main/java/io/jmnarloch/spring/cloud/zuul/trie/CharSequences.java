@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+/**
+ * The helper methods for working with the regions of the {@link CharSequence} keys.
+ *
+ * @author Jakub Narloch
+ */
+final class CharSequences {
+
+    /**
+     * Creates new instances of {@link CharSequences}.
+     *
+     * Private constructor prevents from instantation outside this class.
+     */
+    private CharSequences() {
+        // empty constructor
+    }
+
+    /**
+     * Validates the key region.
+     *
+     * @param key  the key
+     * @param from the region start offset, inclusive
+     * @param to   the region end offset, exclusive
+     * @throws IllegalArgumentException  if {@code key} is {@code null} or the region is empty
+     * @throws IndexOutOfBoundsException if the region is out of the key bounds
+     */
+    static void checkRegion(CharSequence key, int from, int to) {
+        Assert.notNull(key, "Key must be not null or not empty string.");
+        if (from < 0 || to > key.length() || from > to) {
+            throw new IndexOutOfBoundsException("Region [" + from + ", " + to + ") is out of the key bounds");
+        }
+        Assert.isTrue(from < to, "Key must be not null or not empty string.");
+    }
+
+    /**
+     * Returns whether the key region starts with the specific prefix at the given offset.
+     *
+     * @param key    the key
+     * @param offset the offset
+     * @param to     the region end offset, exclusive
+     * @param prefix the prefix
+     * @return true if key region contains the prefix at the given offset
+     */
+    static boolean startsWith(CharSequence key, int offset, int to, String prefix) {
+        if (to - offset < prefix.length()) {
+            return false;
+        }
+        for (int index = 0; index < prefix.length(); index++) {
+            if (key.charAt(offset + index) != prefix.charAt(index)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Folds the case of the character, so that the characters differing only by case are folded into the same
+     * character. The ASCII characters are being folded without the Unicode case mapping lookup.
+     *
+     * @param c the character
+     * @return the folded character
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+}
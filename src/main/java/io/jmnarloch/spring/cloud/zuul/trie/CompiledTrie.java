@@ -0,0 +1,415 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An immutable Trie tree packed into the flat primitive arrays. The nodes are numbered in the breadth first order,
+ * so that the children of every node are stored next to each other and the edge stored at specific slot always
+ * leads to the node with the number one greater then the slot index, which makes storing the child references
+ * unnecessary.
+ *
+ * <p>
+ * The compiled Trie does not allocate on lookups and since all of its state is kept in final fields it can be
+ * safely shared between threads. Use {@link Tries#compile(Trie)} to create the instance out of any Trie.
+ *
+ * @author Jakub Narloch
+ */
+public class CompiledTrie<T> implements Trie<T> {
+
+    /**
+     * The value index marking nodes without value.
+     */
+    private static final int NO_VALUE = -1;
+
+    /**
+     * The offset of the first edge of every node, with additional trailing entry marking the end of the last node.
+     */
+    private final int[] offsets;
+
+    /**
+     * The edge characters, sorted for every node.
+     */
+    private final char[] chars;
+
+    /**
+     * The index of the node value within {@link #values} or {@link #NO_VALUE}.
+     */
+    private final int[] valueIndex;
+
+    /**
+     * The values.
+     */
+    private final Object[] values;
+
+    /**
+     * Whether the case of the looked up characters is being folded.
+     */
+    private final boolean caseInsensitive;
+
+    /**
+     * Creates new instance of {@link CompiledTrie} out of the lexicographically sorted entries.
+     *
+     * @param entries the entries
+     */
+    CompiledTrie(SortedMap<String, ? extends T> entries) {
+        this(entries, false);
+    }
+
+    /**
+     * Creates new instance of {@link CompiledTrie} out of the lexicographically sorted entries.
+     *
+     * @param entries         the entries
+     * @param caseInsensitive whether the keys have been case folded and the looked up characters should be folded
+     */
+    CompiledTrie(SortedMap<String, ? extends T> entries, boolean caseInsensitive) {
+        final String[] keys = entries.keySet().toArray(new String[entries.size()]);
+        int capacity = 1;
+        for (String key : keys) {
+            capacity += key.length();
+        }
+
+        int[] offsets = new int[capacity + 1];
+        char[] chars = new char[capacity];
+        int[] valueIndex = new int[capacity];
+        int[] queue = new int[3 * 16];
+        int head = 0;
+        int tail = 0;
+        int nodes = 0;
+        int slots = 0;
+
+        queue[tail++] = 0;
+        queue[tail++] = keys.length;
+        queue[tail++] = 0;
+        while (head < tail) {
+            int low = queue[head++];
+            final int high = queue[head++];
+            final int depth = queue[head++];
+            final int node = nodes++;
+
+            offsets[node] = slots;
+            valueIndex[node] = NO_VALUE;
+            if (low < high && keys[low].length() == depth) {
+                valueIndex[node] = low++;
+            }
+            while (low < high) {
+                final char c = keys[low].charAt(depth);
+                int next = low + 1;
+                while (next < high && keys[next].charAt(depth) == c) {
+                    next++;
+                }
+                chars[slots++] = c;
+                if (tail + 3 > queue.length) {
+                    queue = Arrays.copyOf(queue, queue.length * 2);
+                }
+                queue[tail++] = low;
+                queue[tail++] = next;
+                queue[tail++] = depth + 1;
+                low = next;
+            }
+        }
+        offsets[nodes] = slots;
+
+        this.offsets = Arrays.copyOf(offsets, nodes + 1);
+        this.chars = Arrays.copyOf(chars, slots);
+        this.valueIndex = Arrays.copyOf(valueIndex, nodes);
+        this.values = entries.values().toArray();
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    /**
+     * Compiles the specific trie. The trie compiled out of the case insensitive trie is case insensitive as well.
+     *
+     * @param trie the trie
+     * @param <T>  the element type
+     * @return the compiled trie
+     */
+    static <T> CompiledTrie<T> compile(Trie<T> trie) {
+        final SortedMap<String, T> entries = new TreeMap<String, T>();
+        trie.traverse(new TrieVisitor<T>() {
+            @Override
+            public void visit(String key, T value) {
+                entries.put(key, value);
+            }
+        });
+        return new CompiledTrie<T>(entries, Tries.isCaseInsensitive(trie));
+    }
+
+    /**
+     * Compiles the entries sorted by their keys, without populating any trie first. The keys of the case insensitive
+     * trie are being folded and sorted again, the entry sorted last replacing the ones differing only by case.
+     *
+     * @param entries         the entries
+     * @param caseInsensitive whether the compiled trie is case insensitive
+     * @param <T>             the element type
+     * @return the compiled trie
+     */
+    static <T> CompiledTrie<T> compile(SortedMap<String, ? extends T> entries, boolean caseInsensitive) {
+        if (caseInsensitive) {
+            return new CompiledTrie<T>(AbstractTrie.<T>fold(entries), true);
+        }
+        for (String key : entries.keySet()) {
+            Assert.hasLength(key, "Key must be not null or not empty string.");
+        }
+        return new CompiledTrie<T>(entries.comparator() == null ? entries : new TreeMap<String, T>(entries), false);
+    }
+
+    /**
+     * Returns whether this trie is case insensitive.
+     *
+     * @return true if the trie is case insensitive
+     */
+    public boolean isCaseInsensitive() {
+        return caseInsensitive;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the compiled trie is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T put(String key, T value) {
+        throw new UnsupportedOperationException("The compiled trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        int node = 0;
+        for (int index = from; index < to && node >= 0; index++) {
+            node = getNext(node, getChar(key, index));
+        }
+        return node >= 0 ? getValue(node) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        int node = 0;
+        int index = from;
+        while (node >= 0) {
+            if (valueIndex[node] != NO_VALUE) {
+                final T candidate = getValue(node);
+                if (matcher.matches(candidate, index - from, to - from)) {
+                    value = candidate;
+                }
+            }
+            if (index == to) {
+                break;
+            }
+            node = getNext(node, getChar(key, index));
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the compiled trie is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T remove(String key) {
+        throw new UnsupportedOperationException("The compiled trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(0, new StringBuilder(), visitor);
+    }
+
+    /**
+     * Computes the statistics of the trie shape and its memory usage.
+     *
+     * @return the trie statistics
+     */
+    public TrieStats getStats() {
+        final TrieStats.Collector collector = new TrieStats.Collector();
+        collector.bytes(TrieStats.objectSize(4 * TrieStats.REFERENCE)
+                + TrieStats.arraySize(offsets.length, 4)
+                + TrieStats.arraySize(chars.length, 2)
+                + TrieStats.arraySize(valueIndex.length, 4)
+                + TrieStats.arraySize(values.length, TrieStats.REFERENCE));
+        final int[] depths = new int[valueIndex.length];
+        for (int node = 0; node < valueIndex.length; node++) {
+            for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+                depths[edge + 1] = depths[node] + 1;
+            }
+            collector.node(depths[node], offsets[node + 1] - offsets[node], valueIndex[node] != NO_VALUE, 0);
+        }
+        return collector.build();
+    }
+
+    /**
+     * Returns the offset of the first edge of every node. The array is not copied and must not be modified.
+     *
+     * @return the edge offsets
+     */
+    int[] getOffsets() {
+        return offsets;
+    }
+
+    /**
+     * Returns the edge characters. The array is not copied and must not be modified.
+     *
+     * @return the edge characters
+     */
+    char[] getChars() {
+        return chars;
+    }
+
+    /**
+     * Returns the index of every node value, or {@code -1} for nodes without value. The array is not copied and must
+     * not be modified.
+     *
+     * @return the value indexes
+     */
+    int[] getValueIndex() {
+        return valueIndex;
+    }
+
+    /**
+     * Returns the values, ordered lexicographically by their keys. The array is not copied and must not be modified.
+     *
+     * @return the values
+     */
+    Object[] getValues() {
+        return values;
+    }
+
+    private void traverse(int node, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        if (valueIndex[node] != NO_VALUE) {
+            visitor.visit(key.toString(), getValue(node));
+        }
+        for (int slot = offsets[node]; slot < offsets[node + 1]; slot++) {
+            key.append(chars[slot]);
+            traverse(slot + 1, key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * Returns the key character, folded if the trie is case insensitive.
+     *
+     * @param key   the key
+     * @param index the character index
+     * @return the key character
+     */
+    private char getChar(CharSequence key, int index) {
+        final char c = key.charAt(index);
+        return caseInsensitive ? CharSequences.fold(c) : c;
+    }
+
+    /**
+     * Finds the child of the node reachable through the specific character.
+     *
+     * @param node the node
+     * @param c    the character
+     * @return the child node or {@code -1} if none exists
+     */
+    private int getNext(int node, char c) {
+        final int slot = Arrays.binarySearch(chars, offsets[node], offsets[node + 1], c);
+        return slot >= 0 ? slot + 1 : -1;
+    }
+
+    /**
+     * Returns the node value.
+     *
+     * @param node the node
+     * @return the node value or {@code null} if node does not have any
+     */
+    @SuppressWarnings("unchecked")
+    private T getValue(int node) {
+        final int index = valueIndex[node];
+        return index != NO_VALUE ? (T) values[index] : null;
+    }
+}
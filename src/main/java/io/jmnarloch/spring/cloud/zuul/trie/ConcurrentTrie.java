@@ -0,0 +1,358 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import io.jmnarloch.spring.cloud.zuul.trie.ConcurrentTrieNode.Content;
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A thread safe Trie tree, that can be modified in place while being concurrently queried. The design follows the
+ * concurrent hash trie (Ctrie): every node is an indirection node, that references its immutable content, and the
+ * writers publish their modifications by atomically swapping the content of a single node. The readers are therefore
+ * lock-free and never observe a partially applied modification, while the writers are non-blocking and only retry if
+ * their compare and swap has failed due to a concurrent modification of the same node.
+ *
+ * <p>The nodes left empty by {@link #remove(String)} are first marked as removed, through the tomb content that can
+ * not be modified anymore, and afterwards unlinked from their parents. The writer that encounters a removed node
+ * helps unlinking it and restarts its operation from the root.
+ *
+ * <p>The {@link #size()} and {@link #traverse(TrieVisitor)} are weakly consistent, they reflect the state of the trie
+ * at some point during, or since, their invocation.
+ *
+ * @author Jakub Narloch
+ */
+public class ConcurrentTrie<T> implements Trie<T> {
+
+    /**
+     * The marker returned by a modification that needs to be restarted.
+     */
+    private static final Object RESTART = new Object();
+
+    /**
+     * The root node of the tree, that is never being removed.
+     */
+    private final ConcurrentTrieNode<T> root = new ConcurrentTrieNode<T>(Content.<T>empty());
+
+    /**
+     * The total number of entries.
+     */
+    private final AtomicInteger size = new AtomicInteger();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalArgumentException if {@code value} is {@code null}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T put(String key, T value) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+        Assert.notNull(value, "Parameter 'value' can not be null");
+
+        Object result;
+        do {
+            result = tryPut(key, value);
+        } while (result == RESTART);
+
+        if (result == null) {
+            size.incrementAndGet();
+        }
+        return (T) result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        Content<T> content = root.getContent();
+        for (int index = from; index < to; index++) {
+            final ConcurrentTrieNode<T> next = content.getNext(key.charAt(index));
+            if (next == null) {
+                return null;
+            }
+            content = next.getContent();
+        }
+        return content.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        Content<T> content = root.getContent();
+        int index = from;
+        while (true) {
+            if (content.getValue() != null) {
+                final T candidate = content.getValue();
+                if (matcher.matches(candidate, index - from, to - from)) {
+                    value = candidate;
+                }
+            }
+            if (index == to) {
+                break;
+            }
+            final ConcurrentTrieNode<T> next = content.getNext(key.charAt(index));
+            if (next == null) {
+                break;
+            }
+            content = next.getContent();
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T remove(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        Object result;
+        do {
+            result = tryRemove(key);
+        } while (result == RESTART);
+
+        if (result != null) {
+            size.decrementAndGet();
+        }
+        return (T) result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(root.getContent(), new StringBuilder(), visitor);
+    }
+
+    private void traverse(Content<T> content, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        if (content.getValue() != null) {
+            visitor.visit(key.toString(), content.getValue());
+        }
+        for (int index = 0; index < content.getNextCount(); index++) {
+            key.append(content.getKeyAt(index));
+            traverse(content.getNextAt(index).getContent(), key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * Associates the value with the key.
+     *
+     * @param key   the key
+     * @param value the value
+     * @return the previous value, {@code null} if none, or {@link #RESTART} if the operation has to be restarted
+     */
+    private Object tryPut(String key, T value) {
+
+        ConcurrentTrieNode<T> parent = null;
+        ConcurrentTrieNode<T> node = root;
+        int index = 0;
+        while (true) {
+            final Content<T> content = node.getContent();
+            if (content.isTomb()) {
+                unlink(parent, key.charAt(index - 1), node);
+                return RESTART;
+            }
+            if (index == key.length()) {
+                if (node.compareAndSetContent(content, content.withValue(value))) {
+                    return content.getValue();
+                }
+                continue;
+            }
+            final char c = key.charAt(index);
+            final ConcurrentTrieNode<T> next = content.getNext(c);
+            if (next == null) {
+                if (node.compareAndSetContent(content, content.withNext(c, newNode(key, index + 1, value)))) {
+                    return null;
+                }
+                continue;
+            }
+            parent = node;
+            node = next;
+            index++;
+        }
+    }
+
+    /**
+     * Removes the value associated with the key.
+     *
+     * @param key the key
+     * @return the removed value, {@code null} if none, or {@link #RESTART} if the operation has to be restarted
+     */
+    @SuppressWarnings("unchecked")
+    private Object tryRemove(String key) {
+
+        final ConcurrentTrieNode<T>[] path = (ConcurrentTrieNode<T>[]) new ConcurrentTrieNode[key.length() + 1];
+        path[0] = root;
+        int index = 0;
+        while (true) {
+            final ConcurrentTrieNode<T> node = path[index];
+            final Content<T> content = node.getContent();
+            if (content.isTomb()) {
+                unlink(path[index - 1], key.charAt(index - 1), node);
+                return RESTART;
+            }
+            if (index == key.length()) {
+                if (content.getValue() == null) {
+                    return null;
+                }
+                Content<T> removed = content.withValue(null);
+                if (removed.isEmpty() && node != root) {
+                    removed = Content.tomb();
+                }
+                if (node.compareAndSetContent(content, removed)) {
+                    if (removed.isTomb()) {
+                        contract(path, key, index);
+                    }
+                    return content.getValue();
+                }
+                continue;
+            }
+            final ConcurrentTrieNode<T> next = content.getNext(key.charAt(index));
+            if (next == null) {
+                return null;
+            }
+            index++;
+            path[index] = next;
+        }
+    }
+
+    /**
+     * Unlinks the removed nodes on the key path, starting from the given depth, for as long as their parents are left
+     * empty.
+     *
+     * @param path  the key path
+     * @param key   the key
+     * @param depth the depth of the removed node
+     */
+    private void contract(ConcurrentTrieNode<T>[] path, String key, int depth) {
+        while (depth > 0 && unlink(path[depth - 1], key.charAt(depth - 1), path[depth])) {
+            depth--;
+        }
+    }
+
+    /**
+     * Unlinks the removed node from its parent, marking the parent as removed if it has been left empty.
+     *
+     * @param parent the parent node
+     * @param c      the character of the removed node
+     * @param node   the removed node
+     * @return true if the parent has been marked as removed
+     */
+    private boolean unlink(ConcurrentTrieNode<T> parent, char c, ConcurrentTrieNode<T> node) {
+
+        while (true) {
+            final Content<T> content = parent.getContent();
+            if (content.isTomb() || content.getNext(c) != node) {
+                return false;
+            }
+            Content<T> unlinked = content.withoutNext(c);
+            if (unlinked.isEmpty() && parent != root) {
+                unlinked = Content.tomb();
+            }
+            if (parent.compareAndSetContent(content, unlinked)) {
+                return unlinked.isTomb();
+            }
+        }
+    }
+
+    /**
+     * Creates the chain of nodes for the key suffix, ending with the node holding the value.
+     *
+     * @param key   the key
+     * @param index the start index of the suffix
+     * @param value the value
+     * @return the first node of the chain
+     */
+    private static <T> ConcurrentTrieNode<T> newNode(String key, int index, T value) {
+        ConcurrentTrieNode<T> node = new ConcurrentTrieNode<T>(Content.<T>empty().withValue(value));
+        for (int i = key.length() - 1; i >= index; i--) {
+            node = new ConcurrentTrieNode<T>(Content.<T>empty().withNext(key.charAt(i), node));
+        }
+        return node;
+    }
+}
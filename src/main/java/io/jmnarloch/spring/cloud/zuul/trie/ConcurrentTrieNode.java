@@ -0,0 +1,285 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * A concurrent Trie node. The node is an indirection node, that holds the reference to its immutable content: the
+ * value and the child nodes. Every modification creates the new content and atomically replaces the previous one
+ * through the compare and swap operation. Once the node becomes empty, its content is being replaced with the tomb,
+ * that is never changed again, and the node is afterwards being removed from its parent.
+ *
+ * @author Jakub Narloch
+ */
+class ConcurrentTrieNode<T> {
+
+    /**
+     * The content updater.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final AtomicReferenceFieldUpdater<ConcurrentTrieNode, Content> CONTENT =
+            AtomicReferenceFieldUpdater.newUpdater(ConcurrentTrieNode.class, Content.class, "content");
+
+    /**
+     * The node content.
+     */
+    private volatile Content<T> content;
+
+    /**
+     * Creates new instance of {@link ConcurrentTrieNode} with specific content.
+     *
+     * @param content the node content
+     */
+    public ConcurrentTrieNode(Content<T> content) {
+        this.content = content;
+    }
+
+    /**
+     * Retrieves the node content.
+     *
+     * @return the node content
+     */
+    public Content<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Atomically replaces the node content, if it has not been modified since it was retrieved.
+     *
+     * @param expected the expected content
+     * @param content  the new content
+     * @return true if the content has been replaced
+     */
+    public boolean compareAndSetContent(Content<T> expected, Content<T> content) {
+        return CONTENT.compareAndSet(this, expected, content);
+    }
+
+    /**
+     * The immutable node content.
+     *
+     * @author Jakub Narloch
+     */
+    static class Content<T> {
+
+        /**
+         * The empty child characters.
+         */
+        private static final char[] EMPTY_KEYS = new char[0];
+
+        /**
+         * The empty child nodes.
+         */
+        private static final ConcurrentTrieNode[] EMPTY_NEXT = new ConcurrentTrieNode[0];
+
+        /**
+         * The empty content.
+         */
+        @SuppressWarnings("unchecked")
+        private static final Content EMPTY = new Content<Object>(EMPTY_KEYS, EMPTY_NEXT, null, false);
+
+        /**
+         * The content of the removed node.
+         */
+        @SuppressWarnings("unchecked")
+        private static final Content TOMB = new Content<Object>(EMPTY_KEYS, EMPTY_NEXT, null, true);
+
+        /**
+         * The sorted child characters.
+         */
+        private final char[] keys;
+
+        /**
+         * The child nodes, in the order of {@link #keys}.
+         */
+        private final ConcurrentTrieNode<T>[] next;
+
+        /**
+         * The node value, or {@code null} if none.
+         */
+        private final T value;
+
+        /**
+         * Whether the node has been removed.
+         */
+        private final boolean tomb;
+
+        /**
+         * Creates new instance of {@link Content}.
+         *
+         * @param keys  the sorted child characters
+         * @param next  the child nodes
+         * @param value the value
+         * @param tomb  whether the node has been removed
+         */
+        private Content(char[] keys, ConcurrentTrieNode<T>[] next, T value, boolean tomb) {
+            this.keys = keys;
+            this.next = next;
+            this.value = value;
+            this.tomb = tomb;
+        }
+
+        /**
+         * Returns the content without value and child nodes.
+         *
+         * @param <T> the element type
+         * @return the empty content
+         */
+        @SuppressWarnings("unchecked")
+        public static <T> Content<T> empty() {
+            return (Content<T>) EMPTY;
+        }
+
+        /**
+         * Returns the content of the removed node.
+         *
+         * @param <T> the element type
+         * @return the tomb
+         */
+        @SuppressWarnings("unchecked")
+        public static <T> Content<T> tomb() {
+            return (Content<T>) TOMB;
+        }
+
+        /**
+         * Returns whether the node has been removed.
+         *
+         * @return true if the node has been removed
+         */
+        public boolean isTomb() {
+            return tomb;
+        }
+
+        /**
+         * Returns whether the content does not have value nor child nodes.
+         *
+         * @return true if content is empty
+         */
+        public boolean isEmpty() {
+            return value == null && keys.length == 0;
+        }
+
+        /**
+         * Retrieves the node value.
+         *
+         * @return the node value, or {@code null} if none
+         */
+        public T getValue() {
+            return value;
+        }
+
+        /**
+         * Returns the copy of this content with the specific value.
+         *
+         * @param value the value, may be null
+         * @return the content copy
+         */
+        public Content<T> withValue(T value) {
+            return new Content<T>(keys, next, value, false);
+        }
+
+        /**
+         * Retrieves the child node.
+         *
+         * @param c the character
+         * @return the child node or {@code null} if none exists
+         */
+        public ConcurrentTrieNode<T> getNext(char c) {
+            final int index = Arrays.binarySearch(keys, c);
+            return index >= 0 ? next[index] : null;
+        }
+
+        /**
+         * Returns the copy of this content with the added child node.
+         *
+         * @param c    the character
+         * @param node the child node
+         * @return the content copy
+         */
+        @SuppressWarnings("unchecked")
+        public Content<T> withNext(char c, ConcurrentTrieNode<T> node) {
+            int index = Arrays.binarySearch(keys, c);
+            if (index >= 0) {
+                final ConcurrentTrieNode<T>[] next = this.next.clone();
+                next[index] = node;
+                return new Content<T>(keys, next, value, false);
+            }
+            index = -(index + 1);
+            final char[] keys = new char[this.keys.length + 1];
+            final ConcurrentTrieNode<T>[] next =
+                    (ConcurrentTrieNode<T>[]) new ConcurrentTrieNode[this.next.length + 1];
+            System.arraycopy(this.keys, 0, keys, 0, index);
+            System.arraycopy(this.next, 0, next, 0, index);
+            keys[index] = c;
+            next[index] = node;
+            System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+            System.arraycopy(this.next, index, next, index + 1, this.next.length - index);
+            return new Content<T>(keys, next, value, false);
+        }
+
+        /**
+         * Returns the copy of this content without the child node.
+         *
+         * @param c the character
+         * @return the content copy
+         */
+        @SuppressWarnings("unchecked")
+        public Content<T> withoutNext(char c) {
+            final int index = Arrays.binarySearch(keys, c);
+            if (index < 0) {
+                return this;
+            }
+            final char[] keys = new char[this.keys.length - 1];
+            final ConcurrentTrieNode<T>[] next =
+                    (ConcurrentTrieNode<T>[]) new ConcurrentTrieNode[this.next.length - 1];
+            System.arraycopy(this.keys, 0, keys, 0, index);
+            System.arraycopy(this.next, 0, next, 0, index);
+            System.arraycopy(this.keys, index + 1, keys, index, this.keys.length - index - 1);
+            System.arraycopy(this.next, index + 1, next, index, this.next.length - index - 1);
+            return new Content<T>(keys, next, value, false);
+        }
+
+        /**
+         * Returns the number of child nodes.
+         *
+         * @return the number of child nodes
+         */
+        public int getNextCount() {
+            return keys.length;
+        }
+
+        /**
+         * Retrieves the child character at specific index.
+         *
+         * @param index the index
+         * @return the child character
+         */
+        public char getKeyAt(int index) {
+            return keys[index];
+        }
+
+        /**
+         * Retrieves the child node at specific index.
+         *
+         * @param index the index
+         * @return the child node
+         */
+        public ConcurrentTrieNode<T> getNextAt(int index) {
+            return next[index];
+        }
+    }
+}
@@ -0,0 +1,476 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * An immutable double array Trie tree, as described by J. Aoe. Every state is represented by a slot in the
+ * {@code base} and {@code check} arrays, the transition from state {@code s} by character {@code c} leads to the
+ * state {@code t = base[s] + code(c)} as long as {@code check[t] == s}. This gives the constant time transition of
+ * the {@link CharArrayTrie}, while the children of different states are interleaved within the same arrays.
+ *
+ * <p>
+ * The characters are mapped to the dense codes, assigned only to the characters that actually appear in the keys.
+ * The trie is built from the lexicographically sorted keys, use {@link Tries#newDoubleArrayTrie(Trie)} to create
+ * the instance out of any Trie.
+ *
+ * @author Jakub Narloch
+ */
+public class DoubleArrayTrie<T> implements Trie<T> {
+
+    /**
+     * The marker of the unused slots and states without value.
+     */
+    private static final int NONE = -1;
+
+    /**
+     * The ratio of the occupied slots after which the search of the free slots is being started further on.
+     */
+    private static final double DENSITY = 0.95;
+
+    /**
+     * The character codes, indexed by the character, {@code 0} for characters that do not appear in any key.
+     */
+    private final int[] codes;
+
+    /**
+     * The characters, indexed by their codes.
+     */
+    private final char[] chars;
+
+    /**
+     * The base offsets of the states.
+     */
+    private final int[] base;
+
+    /**
+     * The parent states of the states.
+     */
+    private final int[] check;
+
+    /**
+     * The index of the state value within {@link #values} or {@link #NONE}.
+     */
+    private final int[] valueIndex;
+
+    /**
+     * The values.
+     */
+    private final Object[] values;
+
+    /**
+     * Creates new instance of {@link DoubleArrayTrie} out of the lexicographically sorted entries.
+     *
+     * @param entries the entries
+     */
+    DoubleArrayTrie(SortedMap<String, ? extends T> entries) {
+        final Builder builder = new Builder(entries.keySet().toArray(new String[entries.size()]));
+        this.codes = builder.codes;
+        this.chars = builder.chars;
+        this.base = Arrays.copyOf(builder.base, builder.size);
+        this.check = Arrays.copyOf(builder.check, builder.size);
+        this.valueIndex = Arrays.copyOf(builder.valueIndex, builder.size);
+        this.values = entries.values().toArray();
+    }
+
+    /**
+     * Builds the double array trie out of the entries of the specific trie.
+     *
+     * @param trie the trie
+     * @param <T>  the element type
+     * @return the double array trie
+     */
+    static <T> DoubleArrayTrie<T> build(Trie<T> trie) {
+        final SortedMap<String, T> entries = new TreeMap<String, T>();
+        trie.traverse(new TrieVisitor<T>() {
+            @Override
+            public void visit(String key, T value) {
+                entries.put(key, value);
+            }
+        });
+        return new DoubleArrayTrie<T>(entries);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the double array trie is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T put(String key, T value) {
+        throw new UnsupportedOperationException("The double array trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        int state = 0;
+        for (int index = from; index < to && state != NONE; index++) {
+            state = getNext(state, key.charAt(index));
+        }
+        return state != NONE ? getValue(state) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        int state = 0;
+        int index = from;
+        while (state != NONE) {
+            if (valueIndex[state] != NONE) {
+                final T candidate = getValue(state);
+                if (matcher.matches(candidate, index - from, to - from)) {
+                    value = candidate;
+                }
+            }
+            if (index == to) {
+                break;
+            }
+            state = getNext(state, key.charAt(index));
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the double array trie is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T remove(String key) {
+        throw new UnsupportedOperationException("The double array trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(0, new StringBuilder(), visitor);
+    }
+
+    private void traverse(int state, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        if (valueIndex[state] != NONE) {
+            visitor.visit(key.toString(), getValue(state));
+        }
+        for (int code = 1; code < chars.length; code++) {
+            final int next = base[state] + code;
+            if (next < check.length && check[next] == state) {
+                key.append(chars[code]);
+                traverse(next, key, visitor);
+                key.setLength(key.length() - 1);
+            }
+        }
+    }
+
+    /**
+     * Computes the statistics of the trie shape and its memory usage.
+     *
+     * @return the trie statistics
+     */
+    public TrieStats getStats() {
+        final TrieStats.Collector collector = new TrieStats.Collector();
+        collector.bytes(TrieStats.objectSize(6 * TrieStats.REFERENCE)
+                + TrieStats.arraySize(codes.length, 4)
+                + TrieStats.arraySize(chars.length, 2)
+                + TrieStats.arraySize(base.length, 4)
+                + TrieStats.arraySize(check.length, 4)
+                + TrieStats.arraySize(valueIndex.length, 4)
+                + TrieStats.arraySize(values.length, TrieStats.REFERENCE));
+        collect(0, 0, collector);
+        return collector.build();
+    }
+
+    private void collect(int state, int depth, TrieStats.Collector collector) {
+
+        int fanOut = 0;
+        for (int code = 1; code < chars.length; code++) {
+            final int next = base[state] + code;
+            if (next < check.length && check[next] == state) {
+                collect(next, depth + 1, collector);
+                fanOut++;
+            }
+        }
+        collector.node(depth, fanOut, valueIndex[state] != NONE, 0);
+    }
+
+    /**
+     * Performs the transition from the state by the specific character.
+     *
+     * @param state the state
+     * @param c     the character
+     * @return the next state or {@link #NONE} if there is no transition
+     */
+    private int getNext(int state, char c) {
+        final int code = c < codes.length ? codes[c] : 0;
+        if (code == 0) {
+            return NONE;
+        }
+        final int next = base[state] + code;
+        return next < check.length && check[next] == state ? next : NONE;
+    }
+
+    /**
+     * Returns the state value.
+     *
+     * @param state the state
+     * @return the state value or {@code null} if state does not have any
+     */
+    @SuppressWarnings("unchecked")
+    private T getValue(int state) {
+        final int index = valueIndex[state];
+        return index != NONE ? (T) values[index] : null;
+    }
+
+    /**
+     * Lays out the sorted keys into the double arrays.
+     *
+     * @author Jakub Narloch
+     */
+    private static class Builder {
+
+        private final String[] keys;
+
+        private int[] codes;
+
+        private char[] chars;
+
+        private int[] base;
+
+        private int[] check;
+
+        private int[] valueIndex;
+
+        private int size;
+
+        private int nextCheck;
+
+        Builder(String[] keys) {
+            this.keys = keys;
+            encode();
+            int capacity = 1;
+            for (String key : keys) {
+                capacity += key.length();
+            }
+            base = new int[capacity];
+            check = new int[capacity];
+            valueIndex = new int[capacity];
+            Arrays.fill(check, NONE);
+            Arrays.fill(valueIndex, NONE);
+            check[0] = 0;
+            size = 1;
+            nextCheck = 1;
+            build(0, 0, keys.length, 0);
+        }
+
+        /**
+         * Assigns the dense codes to every character that appears in the keys.
+         */
+        private void encode() {
+            char max = 0;
+            for (String key : keys) {
+                for (int index = 0; index < key.length(); index++) {
+                    max = (char) Math.max(max, key.charAt(index));
+                }
+            }
+            codes = new int[keys.length == 0 ? 0 : max + 1];
+            for (String key : keys) {
+                for (int index = 0; index < key.length(); index++) {
+                    codes[key.charAt(index)] = 1;
+                }
+            }
+            int count = 0;
+            for (int c = 0; c < codes.length; c++) {
+                if (codes[c] != 0) {
+                    codes[c] = ++count;
+                }
+            }
+            chars = new char[count + 1];
+            for (int c = 0; c < codes.length; c++) {
+                if (codes[c] != 0) {
+                    chars[codes[c]] = (char) c;
+                }
+            }
+        }
+
+        /**
+         * Lays out the children of the state, that represents the keys in range {@code [low, high)} sharing the
+         * first {@code depth} characters.
+         *
+         * @param state the state
+         * @param low   the first key index
+         * @param high  the key index after the last key
+         * @param depth the state depth
+         */
+        private void build(int state, int low, int high, int depth) {
+            if (low < high && keys[low].length() == depth) {
+                valueIndex[state] = low++;
+            }
+            if (low == high) {
+                return;
+            }
+
+            int count = 0;
+            final int[] children = new int[chars.length];
+            final int[] bounds = new int[chars.length + 1];
+            for (int index = low; index < high; ) {
+                final char c = keys[index].charAt(depth);
+                int next = index + 1;
+                while (next < high && keys[next].charAt(depth) == c) {
+                    next++;
+                }
+                children[count] = codes[c];
+                bounds[count] = index;
+                count++;
+                index = next;
+            }
+            bounds[count] = high;
+
+            final int offset = findBase(children, count);
+            base[state] = offset;
+            for (int index = 0; index < count; index++) {
+                check[offset + children[index]] = state;
+            }
+            for (int index = 0; index < count; index++) {
+                build(offset + children[index], bounds[index], bounds[index + 1], depth + 1);
+            }
+        }
+
+        /**
+         * Finds the base offset for which all of the child slots are unused.
+         *
+         * @param children the child codes, in ascending order
+         * @param count    the number of children
+         * @return the base offset
+         */
+        private int findBase(int[] children, int count) {
+            int position = Math.max(nextCheck, children[0] + 1);
+            int occupied = 0;
+            boolean first = true;
+            while (true) {
+                ensureCapacity(position + 1);
+                if (check[position] != NONE) {
+                    occupied++;
+                    position++;
+                    continue;
+                }
+                if (first) {
+                    first = false;
+                    if ((double) occupied / (position - nextCheck + 1) >= DENSITY) {
+                        nextCheck = position;
+                    }
+                }
+                final int offset = position - children[0];
+                ensureCapacity(offset + children[count - 1] + 1);
+                boolean free = true;
+                for (int index = 1; index < count && free; index++) {
+                    free = check[offset + children[index]] == NONE;
+                }
+                if (free) {
+                    size = Math.max(size, offset + children[count - 1] + 1);
+                    return offset;
+                }
+                position++;
+            }
+        }
+
+        private void ensureCapacity(int capacity) {
+            if (capacity <= base.length) {
+                return;
+            }
+            final int length = Math.max(capacity, base.length * 2);
+            final int previous = base.length;
+            base = Arrays.copyOf(base, length);
+            check = Arrays.copyOf(check, length);
+            valueIndex = Arrays.copyOf(valueIndex, length);
+            Arrays.fill(check, previous, length, NONE);
+            Arrays.fill(valueIndex, previous, length, NONE);
+        }
+    }
+}
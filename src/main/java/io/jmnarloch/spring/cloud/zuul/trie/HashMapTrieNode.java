@@ -25,6 +25,26 @@ import java.util.Map;
  */
 class HashMapTrieNode<T> extends AbstractTrieNode<T, HashMapTrieNode<T>> {
 
+    /**
+     * The size of the fields of the {@link HashMap}.
+     */
+    private static final int HASH_MAP_FIELD_BYTES = 4 * TrieStats.REFERENCE + 4 * 4;
+
+    /**
+     * The size of the fields of the {@link HashMap} entry.
+     */
+    private static final int ENTRY_FIELD_BYTES = 3 * TrieStats.REFERENCE + 4;
+
+    /**
+     * The default {@link HashMap} capacity.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The default {@link HashMap} load factor.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
     /**
      * The {@link Map} of children nodes.
      */
@@ -79,4 +99,40 @@ class HashMapTrieNode<T> extends AbstractTrieNode<T, HashMapTrieNode<T>> {
     public void removeNext(char c) {
         next.remove(c);
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getNextChars() {
+        final char[] chars = new char[next.size()];
+        int index = 0;
+        for (Character c : next.keySet()) {
+            chars[index++] = c;
+        }
+        return chars;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRetainedSize() {
+        long size = TrieStats.objectSize(FIELD_BYTES + TrieStats.REFERENCE)
+                + TrieStats.objectSize(HASH_MAP_FIELD_BYTES);
+        if (!next.isEmpty()) {
+            int capacity = DEFAULT_CAPACITY;
+            while (capacity * LOAD_FACTOR < next.size()) {
+                capacity <<= 1;
+            }
+            size += TrieStats.arraySize(capacity, TrieStats.REFERENCE)
+                    + next.size() * TrieStats.objectSize(ENTRY_FIELD_BYTES);
+            for (Character c : next.keySet()) {
+                if (c > Byte.MAX_VALUE) {
+                    size += TrieStats.objectSize(2);
+                }
+            }
+        }
+        return size;
+    }
 }
@@ -0,0 +1,462 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable Trie tree, that keeps its whole structure outside of the Java heap, either in the direct
+ * {@link ByteBuffer} or in the memory mapped file, and performs the lookups directly against the buffer. Only the
+ * values are kept on the heap, in the array indexed by the value identifiers stored in the buffer, so the trie adds
+ * next to nothing to the garbage collection pressure regardless of the number of its entries.
+ *
+ * <p>The buffer layout follows the {@link CompiledTrie}: the header, the offset of the first edge of every node, the
+ * value identifier of every node and the UTF-16 edge characters. The nodes are numbered in the breadth first order
+ * and the values are identified by the lexicographic order of their keys. Since the buffer holds all of the keys, the
+ * same file can be mapped by any process that holds the values of the same keys, through {@link #map(File, Map)},
+ * which binds every value by its key.
+ *
+ * @author Jakub Narloch
+ */
+public class OffHeapTrie<T> implements Trie<T> {
+
+    /**
+     * The magic number identifying the buffer format.
+     */
+    static final int MAGIC = 0x5A545249;
+
+    /**
+     * The buffer format version.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The header size: the magic number, version, number of nodes, number of edges and number of values.
+     */
+    private static final int HEADER = 5 * 4;
+
+    /**
+     * The value identifier marking nodes without value.
+     */
+    private static final int NO_VALUE = -1;
+
+    /**
+     * The buffer holding the trie structure.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * The position of the node offsets within the buffer.
+     */
+    private final int offsetsBase;
+
+    /**
+     * The position of the node value identifiers within the buffer.
+     */
+    private final int valuesBase;
+
+    /**
+     * The position of the edge characters within the buffer.
+     */
+    private final int charsBase;
+
+    /**
+     * The values, indexed by their identifiers.
+     */
+    private final Object[] values;
+
+    /**
+     * Creates new instance of {@link OffHeapTrie} out of the buffer, validating its content.
+     *
+     * @param buffer the buffer
+     * @param values the values, ordered lexicographically by their keys
+     * @throws IllegalArgumentException if the buffer is not a valid trie or it does not match the values
+     */
+    private OffHeapTrie(ByteBuffer buffer, Object[] values) {
+        Assert.isTrue(buffer.capacity() >= HEADER && buffer.getInt(0) == MAGIC,
+                "The buffer does not contain the trie.");
+        Assert.isTrue(buffer.getInt(4) == VERSION, "Unsupported trie version " + buffer.getInt(4));
+        final int nodes = buffer.getInt(8);
+        final int edges = buffer.getInt(12);
+        Assert.isTrue(buffer.getInt(16) == values.length,
+                "The trie holds " + buffer.getInt(16) + " values, but " + values.length + " have been provided.");
+        Assert.isTrue(nodes == edges + 1 && buffer.capacity() == size(nodes, edges), "The trie buffer is corrupted.");
+
+        this.buffer = buffer;
+        this.offsetsBase = HEADER;
+        this.valuesBase = offsetsBase + 4 * (nodes + 1);
+        this.charsBase = valuesBase + 4 * nodes;
+        this.values = values;
+    }
+
+    /**
+     * Creates the trie in the direct buffer.
+     *
+     * @param trie the trie
+     * @param <T>  the element type
+     * @return the off heap trie
+     */
+    static <T> OffHeapTrie<T> allocate(Trie<T> trie) {
+        final CompiledTrie<T> compiled = CompiledTrie.compile(trie);
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(size(compiled));
+        write(compiled, buffer);
+        return new OffHeapTrie<T>(buffer, compiled.getValues());
+    }
+
+    /**
+     * Writes the trie into the file and maps it into memory. The file is first written under a temporary name and
+     * then atomically moved into its place, so that the processes that have mapped the previous version of the file
+     * are not affected.
+     *
+     * @param trie the trie
+     * @param file the file
+     * @param <T>  the element type
+     * @return the off heap trie
+     * @throws IOException if any I/O error occurs
+     */
+    static <T> OffHeapTrie<T> map(Trie<T> trie, File file) throws IOException {
+        final CompiledTrie<T> compiled = CompiledTrie.compile(trie);
+        final ByteBuffer buffer = ByteBuffer.allocate(size(compiled));
+        write(compiled, buffer);
+
+        final File parent = file.getAbsoluteFile().getParentFile();
+        final File temp = File.createTempFile(file.getName(), ".tmp", parent);
+        try {
+            final RandomAccessFile output = new RandomAccessFile(temp, "rw");
+            try {
+                final FileChannel channel = output.getChannel();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(true);
+            } finally {
+                output.close();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp.toPath());
+        }
+        return new OffHeapTrie<T>(map(file), compiled.getValues());
+    }
+
+    /**
+     * Maps the trie previously written into the file, for instance by the other process. The values are being bound
+     * to the keys stored in the file, so every key of the trie must have its value provided, and no other.
+     *
+     * @param file    the file
+     * @param entries the values of the trie entries, keyed by their keys
+     * @param <T>     the element type
+     * @return the off heap trie
+     * @throws IOException              if any I/O error occurs
+     * @throws IllegalArgumentException if the file does not contain a valid trie or its keys do not match the entries
+     */
+    public static <T> OffHeapTrie<T> map(File file, Map<String, ? extends T> entries) throws IOException {
+        Assert.notNull(file, "Parameter 'file' can not be null");
+        Assert.notNull(entries, "Parameter 'entries' can not be null");
+
+        final OffHeapTrie<T> trie = new OffHeapTrie<T>(map(file), new Object[entries.size()]);
+        trie.bind(0, new StringBuilder(), entries);
+        return trie;
+    }
+
+    /**
+     * Creates the trie out of the buffer previously retrieved through {@link #getBuffer()}, for instance read from a
+     * file.
+     *
+     * @param buffer the buffer
+     * @param values the values of the trie entries, ordered lexicographically by their keys
+     * @param <T>    the element type
+     * @return the off heap trie
+     * @throws IllegalArgumentException if the buffer does not contain a valid trie or it does not match the values
+     */
+    public static <T> OffHeapTrie<T> wrap(ByteBuffer buffer, List<? extends T> values) {
+        Assert.notNull(buffer, "Parameter 'buffer' can not be null");
+        Assert.notNull(values, "Parameter 'values' can not be null");
+
+        return new OffHeapTrie<T>(buffer.slice(), values.toArray());
+    }
+
+    /**
+     * Returns the read only view of the buffer holding the trie structure.
+     *
+     * @return the trie buffer
+     */
+    public ByteBuffer getBuffer() {
+        final ByteBuffer buffer = this.buffer.asReadOnlyBuffer();
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the off heap trie is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T put(String key, T value) {
+        throw new UnsupportedOperationException("The off heap trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        int node = 0;
+        for (int index = from; index < to && node >= 0; index++) {
+            node = getNext(node, key.charAt(index));
+        }
+        return node >= 0 ? getValue(node) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        int node = 0;
+        int index = from;
+        while (node >= 0) {
+            final T nodeValue = getValue(node);
+            if (nodeValue != null && matcher.matches(nodeValue, index - from, to - from)) {
+                value = nodeValue;
+            }
+            if (index == to) {
+                break;
+            }
+            node = getNext(node, key.charAt(index));
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the off heap trie is immutable.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T remove(String key) {
+        throw new UnsupportedOperationException("The off heap trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(0, new StringBuilder(), visitor);
+    }
+
+    private void traverse(int node, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        final T value = getValue(node);
+        if (value != null) {
+            visitor.visit(key.toString(), value);
+        }
+        for (int slot = getOffset(node); slot < getOffset(node + 1); slot++) {
+            key.append(getChar(slot));
+            traverse(slot + 1, key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * Sets the values of the node and its subtree to the values of their keys.
+     *
+     * @param node    the node
+     * @param key     the node key
+     * @param entries the values keyed by their keys
+     * @throws IllegalArgumentException if any key does not have the value or the value identifier is not valid
+     */
+    private void bind(int node, StringBuilder key, Map<String, ?> entries) {
+
+        final int index = buffer.getInt(valuesBase + 4 * node);
+        if (index != NO_VALUE) {
+            Assert.isTrue(index >= 0 && index < values.length && values[index] == null,
+                    "The trie buffer is corrupted.");
+            final Object value = entries.get(key.toString());
+            Assert.isTrue(value != null, "The value of the key '" + key + "' has not been provided.");
+            values[index] = value;
+        }
+        for (int slot = getOffset(node); slot < getOffset(node + 1); slot++) {
+            key.append(getChar(slot));
+            bind(slot + 1, key, entries);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * Finds the child of the node reachable through the specific character.
+     *
+     * @param node the node
+     * @param c    the character
+     * @return the child node or {@code -1} if none exists
+     */
+    private int getNext(int node, char c) {
+        int low = getOffset(node);
+        int high = getOffset(node + 1) - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final char midChar = getChar(mid);
+            if (midChar < c) {
+                low = mid + 1;
+            } else if (midChar > c) {
+                high = mid - 1;
+            } else {
+                return mid + 1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the node value.
+     *
+     * @param node the node
+     * @return the node value or {@code null} if node does not have any
+     */
+    @SuppressWarnings("unchecked")
+    private T getValue(int node) {
+        final int index = buffer.getInt(valuesBase + 4 * node);
+        return index != NO_VALUE ? (T) values[index] : null;
+    }
+
+    private int getOffset(int node) {
+        return buffer.getInt(offsetsBase + 4 * node);
+    }
+
+    private char getChar(int slot) {
+        return buffer.getChar(charsBase + 2 * slot);
+    }
+
+    /**
+     * Writes the compiled trie into the buffer.
+     *
+     * @param compiled the compiled trie
+     * @param buffer   the buffer
+     */
+    private static void write(CompiledTrie<?> compiled, ByteBuffer buffer) {
+        final int[] valueIndex = compiled.getValueIndex();
+        final char[] chars = compiled.getChars();
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(valueIndex.length);
+        buffer.putInt(chars.length);
+        buffer.putInt(compiled.size());
+        for (int offset : compiled.getOffsets()) {
+            buffer.putInt(offset);
+        }
+        for (int index : valueIndex) {
+            buffer.putInt(index);
+        }
+        for (char c : chars) {
+            buffer.putChar(c);
+        }
+        buffer.flip();
+    }
+
+    private static int size(CompiledTrie<?> compiled) {
+        return size(compiled.getValueIndex().length, compiled.getChars().length);
+    }
+
+    private static int size(int nodes, int edges) {
+        return HEADER + 4 * (nodes + 1) + 4 * nodes + 2 * edges;
+    }
+
+    private static ByteBuffer map(File file) throws IOException {
+        final RandomAccessFile input = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = input.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            input.close();
+        }
+    }
+}
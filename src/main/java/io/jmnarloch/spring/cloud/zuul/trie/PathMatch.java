@@ -0,0 +1,207 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+/**
+ * The reusable result of matching the path against the {@link PathTrie}. Besides the matching value it holds the
+ * offsets of the path segments captured by the {@code {name}} segments of the matching pattern, so that the captured
+ * values can be read directly out of the path, without being copied into a map.
+ *
+ * The instance reuses its internal buffers between the lookups and is not thread safe, it is supposed to be reused
+ * by a single thread at a time.
+ *
+ * @author Jakub Narloch
+ */
+public class PathMatch<T> {
+
+    /**
+     * The empty variable names.
+     */
+    private static final String[] EMPTY_NAMES = new String[0];
+
+    /**
+     * The set of the nodes reached by the path prefix, reused between the lookups.
+     */
+    final PathTrie.NodeSet<T> current = new PathTrie.NodeSet<T>();
+
+    /**
+     * The set of the nodes reached by the next path segment, reused between the lookups.
+     */
+    final PathTrie.NodeSet<T> next = new PathTrie.NodeSet<T>();
+
+    /**
+     * The matched path.
+     */
+    private CharSequence path;
+
+    /**
+     * The matching value.
+     */
+    private T value;
+
+    /**
+     * The variable names of the matching pattern.
+     */
+    private String[] names = EMPTY_NAMES;
+
+    /**
+     * The start and end offsets of the captured variables.
+     */
+    private int[] offsets = new int[8];
+
+    /**
+     * Returns whether the path has matched any pattern.
+     *
+     * @return true if the path has matched
+     */
+    public boolean isMatched() {
+        return value != null;
+    }
+
+    /**
+     * Returns the matched path.
+     *
+     * @return the path, or {@code null} if nothing has been matched yet
+     */
+    public CharSequence getPath() {
+        return path;
+    }
+
+    /**
+     * Returns the value of the matching pattern.
+     *
+     * @return the value, or {@code null} if the path has not matched
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the number of the captured variables.
+     *
+     * @return the number of variables
+     */
+    public int getVariableCount() {
+        return names.length;
+    }
+
+    /**
+     * Returns the name of the variable at specific index.
+     *
+     * @param index the variable index
+     * @return the variable name
+     */
+    public String getVariableName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Returns the start offset of the variable at specific index within the matched path.
+     *
+     * @param index the variable index
+     * @return the start offset, inclusive
+     */
+    public int getStart(int index) {
+        checkIndex(index);
+        return offsets[2 * index];
+    }
+
+    /**
+     * Returns the end offset of the variable at specific index within the matched path.
+     *
+     * @param index the variable index
+     * @return the end offset, exclusive
+     */
+    public int getEnd(int index) {
+        checkIndex(index);
+        return offsets[2 * index + 1];
+    }
+
+    /**
+     * Returns the index of the variable with specific name.
+     *
+     * @param name the variable name
+     * @return the variable index, or {@code -1} if the matching pattern does not have such variable
+     */
+    public int indexOf(String name) {
+        for (int index = 0; index < names.length; index++) {
+            if (names[index].equals(name)) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the value of the variable with specific name, copied out of the matched path.
+     *
+     * @param name the variable name
+     * @return the variable value, or {@code null} if the matching pattern does not have such variable
+     */
+    public String getVariable(String name) {
+        final int index = indexOf(name);
+        return index >= 0 ? path.subSequence(getStart(index), getEnd(index)).toString() : null;
+    }
+
+    /**
+     * Clears the result before matching the path.
+     *
+     * @param path the path
+     */
+    void reset(CharSequence path) {
+        this.path = path;
+        this.value = null;
+        this.names = EMPTY_NAMES;
+    }
+
+    /**
+     * Sets the value and the variable names of the matching pattern.
+     *
+     * @param value the value
+     * @param names the variable names
+     */
+    void setValue(T value, String[] names) {
+        this.value = value;
+        this.names = names;
+        if (offsets.length < 2 * names.length) {
+            offsets = new int[2 * names.length];
+        }
+    }
+
+    /**
+     * Sets the offsets of the variable at specific index.
+     *
+     * @param index the variable index
+     * @param start the start offset, inclusive
+     * @param end   the end offset, exclusive
+     */
+    void setVariable(int index, int start, int end) {
+        offsets[2 * index] = start;
+        offsets[2 * index + 1] = end;
+    }
+
+    /**
+     * Verifies that the variable index is within the bounds.
+     *
+     * @param index the variable index
+     * @throws IndexOutOfBoundsException if the index is out of bounds
+     */
+    private void checkIndex(int index) {
+        if (index < 0 || index >= names.length) {
+            throw new IndexOutOfBoundsException("Variable index " + index + " is out of bounds");
+        }
+    }
+}
@@ -0,0 +1,724 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+
+/**
+ * A path Trie tree, that stores the Ant style path patterns split into the {@code /} delimited segments. Besides the
+ * literal segments every node can have the dedicated {@code *} child, matching exactly one segment, {@code {name}}
+ * child, matching and capturing exactly one segment, and {@code **} child, matching any number of segments. The
+ * remaining segments containing the {@code *}, {@code ?} or {@code {name}} wildcards are matched against the single
+ * path segment.
+ *
+ * The path is being matched in a single pass over its segments, by tracking the set of all of the nodes the path
+ * prefix has reached so far, so that matching never backtracks and takes at most O(M * N) time, where M is the number
+ * of the path segments and N is the number of nodes that can be reached simultaneously. When the path matches more
+ * than one pattern the most specific one is being chosen: the one with the fewest {@code **} segments, then the one
+ * with the fewest remaining wildcard segments and finally the one with the longest literal part.
+ *
+ * The path can be also matched into the reusable {@link PathMatch}, that besides the value receives the offsets of
+ * the path segments captured by the {@code {name}} segments of the matching pattern. The captures are recorded during
+ * the same single pass, every reached node carries the offsets of the segments captured on the way to it, so that
+ * capturing does not backtrack either.
+ *
+ * @author Jakub Narloch
+ */
+public class PathTrie<T> {
+
+    /**
+     * The path separator.
+     */
+    private static final char SEPARATOR = '/';
+
+    /**
+     * The segment matching exactly one path segment.
+     */
+    private static final String WILDCARD = "*";
+
+    /**
+     * The segment matching any number of path segments.
+     */
+    private static final String DOUBLE_WILDCARD = "**";
+
+    /**
+     * The root node of the tree.
+     */
+    private final PathTrieNode<T> root = new PathTrieNode<T>(false, 0, 0, 0, 0);
+
+    /**
+     * The total number of entries.
+     */
+    private int size;
+
+    /**
+     * The maximum number of {@code {name}} segments of any pattern.
+     */
+    private int maxVariables;
+
+    /**
+     * Returns whether the trie is empty.
+     *
+     * @return true if trie is empty, false otherwise
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the number of entries in the trie.
+     *
+     * @return the trie size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Stores the value under the specific path pattern. The patterns differing only by the names of their
+     * {@code {name}} segments are stored in the same node, so that the names of the last stored one are being used.
+     *
+     * @param pattern the path pattern
+     * @param value   the value
+     * @return the value previously stored under the same pattern, or {@code null} if none
+     * @throws IllegalArgumentException if {@code pattern} is {@code null} or empty
+     */
+    public T put(String pattern, T value) {
+        Assert.hasLength(pattern, "Key must be not null or not empty string.");
+
+        final String[] segments = tokenize(pattern);
+        PathTrieNode<T> node = root;
+        for (String segment : segments) {
+            node = getOrCreateNext(node, segment);
+        }
+        node.setVariableNames(getVariableNames(segments, node.getVariables()));
+        maxVariables = Math.max(maxVariables, node.getVariables());
+
+        final T old;
+        if (isTrailingSeparator(pattern)) {
+            old = node.getSlashValue();
+            node.setSlashValue(value);
+        } else {
+            old = node.getValue();
+            node.setValue(value);
+        }
+        if (old == null) {
+            size++;
+        }
+        return old;
+    }
+
+    /**
+     * Retrieves the value stored under exactly the same path pattern.
+     *
+     * @param pattern the path pattern
+     * @return the value, or {@code null} if none
+     * @throws IllegalArgumentException if {@code pattern} is {@code null} or empty
+     */
+    public T get(String pattern) {
+        Assert.hasLength(pattern, "Key must be not null or not empty string.");
+
+        PathTrieNode<T> node = root;
+        for (String segment : tokenize(pattern)) {
+            node = getNext(node, segment);
+            if (node == null) {
+                return null;
+            }
+        }
+        return isTrailingSeparator(pattern) ? node.getSlashValue() : node.getValue();
+    }
+
+    /**
+     * Finds the value stored under the most specific path pattern matching the given path.
+     *
+     * @param path the request path
+     * @return the matching value, or {@code null} if none of the patterns matches the path
+     * @throws IllegalArgumentException if {@code path} is {@code null} or empty
+     */
+    public T match(String path) {
+        Assert.hasLength(path, "Key must be not null or not empty string.");
+
+        return match(path, 0, path.length());
+    }
+
+    /**
+     * Finds the value stored under the most specific path pattern matching the path stored in the specific region of
+     * the character sequence.
+     *
+     * @param path the character sequence containing the request path
+     * @param from the path start offset, inclusive
+     * @param to   the path end offset, exclusive
+     * @return the matching value, or {@code null} if none of the patterns matches the path
+     * @throws IllegalArgumentException  if {@code path} is {@code null} or the region is empty
+     * @throws IndexOutOfBoundsException if the region is out of the {@code path} bounds
+     */
+    public T match(CharSequence path, int from, int to) {
+        CharSequences.checkRegion(path, from, to);
+
+        return find(path, from, to, new NodeSet<T>(), new NodeSet<T>(), null);
+    }
+
+    /**
+     * Finds the value stored under the most specific path pattern matching the given path, along with the offsets of
+     * the path segments captured by the variables of that pattern.
+     *
+     * @param path  the request path
+     * @param match the result holder, reused between the lookups
+     * @return true if any pattern matches the path
+     * @throws IllegalArgumentException if {@code path} is {@code null} or empty
+     */
+    public boolean match(String path, PathMatch<T> match) {
+        Assert.hasLength(path, "Key must be not null or not empty string.");
+
+        return match(path, 0, path.length(), match);
+    }
+
+    /**
+     * Finds the value stored under the most specific path pattern matching the path stored in the specific region of
+     * the character sequence, along with the offsets of the path segments captured by the variables of that pattern.
+     * The offsets are relative to the beginning of the character sequence.
+     *
+     * @param path  the character sequence containing the request path
+     * @param from  the path start offset, inclusive
+     * @param to    the path end offset, exclusive
+     * @param match the result holder, reused between the lookups
+     * @return true if any pattern matches the path
+     * @throws IllegalArgumentException  if {@code path} or {@code match} is {@code null} or the region is empty
+     * @throws IndexOutOfBoundsException if the region is out of the {@code path} bounds
+     */
+    public boolean match(CharSequence path, int from, int to, PathMatch<T> match) {
+        CharSequences.checkRegion(path, from, to);
+        Assert.notNull(match, "Parameter 'match' can not be null");
+
+        match.reset(path);
+        match.current.clear(2 * maxVariables);
+        match.next.clear(2 * maxVariables);
+        return find(path, from, to, match.current, match.next, match) != null;
+    }
+
+    /**
+     * Finds the value stored under the most specific path pattern matching the path.
+     *
+     * @param path    the path
+     * @param from    the path start offset, inclusive
+     * @param to      the path end offset, exclusive
+     * @param current the empty set used for the nodes reached by the path prefix
+     * @param next    the empty set used for the nodes reached by the next segment
+     * @param match   the result holder receiving the captures, or {@code null}
+     * @return the matching value, or {@code null} if none of the patterns matches the path
+     */
+    private T find(CharSequence path, int from, int to, NodeSet<T> current, NodeSet<T> next, PathMatch<T> match) {
+        current.addReachable(root);
+
+        int index = from;
+        while (true) {
+            while (index < to && path.charAt(index) == SEPARATOR) {
+                index++;
+            }
+            if (index == to) {
+                break;
+            }
+            int end = index;
+            while (end < to && path.charAt(end) != SEPARATOR) {
+                end++;
+            }
+
+            next.clear();
+            for (int state = 0; state < current.size(); state++) {
+                step(current, state, path, index, end, next);
+            }
+            if (next.size() == 0) {
+                return null;
+            }
+            final NodeSet<T> swap = current;
+            current = next;
+            next = swap;
+            index = end;
+        }
+        return accept(current, path, from, to, match);
+    }
+
+    /**
+     * Adds to the set all of the nodes reachable from the given node through the single path segment, along with the
+     * captures of the node extended by the segment, if it is captured by the {@code {name}} child.
+     *
+     * @param current the set of the nodes reached by the path prefix
+     * @param state   the index of the node in the {@code current} set
+     * @param path    the path
+     * @param from    the segment start offset, inclusive
+     * @param to      the segment end offset, exclusive
+     * @param next    the set of the reached nodes
+     */
+    private void step(NodeSet<T> current, int state, CharSequence path, int from, int to, NodeSet<T> next) {
+
+        final PathTrieNode<T> node = current.get(state);
+        if (node.isRepeating()) {
+            next.addReachable(node, current, state);
+        }
+        final PathTrieNode<T> literal = node.getNext(path, from, to);
+        if (literal != null) {
+            next.addReachable(literal, current, state);
+        }
+        if (node.getWildcard() != null) {
+            next.addReachable(node.getWildcard(), current, state);
+        }
+        if (node.getVariable() != null) {
+            next.addReachable(node.getVariable(), current, state, from, to);
+        }
+        for (int index = 0; index < node.getPatternCount(); index++) {
+            if (matchesSegment(node.getPatternAt(index), path, from, to)) {
+                next.addReachable(node.getPatternNextAt(index), current, state);
+            }
+        }
+    }
+
+    /**
+     * Chooses the most specific value out of the nodes reached by the whole path and, if requested, captures the
+     * variables of its pattern.
+     *
+     * @param nodes the reached nodes
+     * @param path  the path
+     * @param from  the path start offset, inclusive
+     * @param to    the path end offset, exclusive
+     * @param match the result holder receiving the captures, or {@code null}
+     * @return the matching value, or {@code null} if none
+     */
+    private T accept(NodeSet<T> nodes, CharSequence path, int from, int to, PathMatch<T> match) {
+
+        final boolean slash = path.charAt(to - 1) == SEPARATOR;
+        PathTrieNode<T> best = null;
+        int state = -1;
+        T value = null;
+        for (int index = 0; index < nodes.size(); index++) {
+            final PathTrieNode<T> node = nodes.get(index);
+            final T candidate = getValue(node, slash);
+            if (candidate != null && isMoreSpecific(node, best)) {
+                best = node;
+                state = index;
+                value = candidate;
+            }
+            // the single segment wildcard matches also the empty segment following the trailing separator, it
+            // captures nothing, so that the captures of its parent are used
+            final PathTrieNode<T> wildcard = node.getWildcard();
+            if (slash && wildcard != null && wildcard.getValue() != null && isMoreSpecific(wildcard, best)) {
+                best = wildcard;
+                state = index;
+                value = wildcard.getValue();
+            }
+        }
+        if (match != null && value != null) {
+            match.setValue(value, best.getVariableNames());
+            nodes.capture(state, best.getVariables(), match);
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves the value of the node matching the path. The patterns ending with the {@code **} segment match the path
+     * regardless of the trailing separator, the remaining patterns only when both of them end with it.
+     *
+     * @param node  the node
+     * @param slash whether the path ends with the separator
+     * @return the node value, or {@code null} if none
+     */
+    private static <T> T getValue(PathTrieNode<T> node, boolean slash) {
+        if (!node.isRepeating()) {
+            return slash ? node.getSlashValue() : node.getValue();
+        }
+        final T value = slash ? node.getSlashValue() : node.getValue();
+        return value != null ? value : slash ? node.getValue() : node.getSlashValue();
+    }
+
+    /**
+     * Returns whether the pattern of the node is more specific than the pattern of the current best node.
+     *
+     * @param node the node
+     * @param best the current best node, may be null
+     * @return true if node is more specific
+     */
+    private static boolean isMoreSpecific(PathTrieNode<?> node, PathTrieNode<?> best) {
+        if (best == null) {
+            return true;
+        }
+        if (node.getDoubleWildcards() != best.getDoubleWildcards()) {
+            return node.getDoubleWildcards() < best.getDoubleWildcards();
+        }
+        if (node.getWildcards() != best.getWildcards()) {
+            return node.getWildcards() < best.getWildcards();
+        }
+        return node.getLength() > best.getLength();
+    }
+
+    /**
+     * Retrieves the child node for the pattern segment.
+     *
+     * @param node    the node
+     * @param segment the pattern segment
+     * @return the child node or null if it does not exist
+     */
+    private static <T> PathTrieNode<T> getNext(PathTrieNode<T> node, String segment) {
+        if (DOUBLE_WILDCARD.equals(segment)) {
+            return node.getDoubleWildcard();
+        } else if (WILDCARD.equals(segment)) {
+            return node.getWildcard();
+        } else if (isVariable(segment)) {
+            return node.getVariable();
+        } else if (isPattern(segment)) {
+            return node.getPatternNext(segment);
+        }
+        return node.getNext(segment);
+    }
+
+    /**
+     * Retrieves or creates the child node for the pattern segment.
+     *
+     * @param node    the node
+     * @param segment the pattern segment
+     * @return the child node
+     */
+    private static <T> PathTrieNode<T> getOrCreateNext(PathTrieNode<T> node, String segment) {
+        PathTrieNode<T> next = getNext(node, segment);
+        if (next != null) {
+            return next;
+        }
+        if (DOUBLE_WILDCARD.equals(segment)) {
+            next = new PathTrieNode<T>(true, node.getDoubleWildcards() + 1, node.getWildcards(), node.getLength(),
+                    node.getVariables());
+            node.setDoubleWildcard(next);
+        } else if (WILDCARD.equals(segment)) {
+            next = new PathTrieNode<T>(false, node.getDoubleWildcards(), node.getWildcards() + 1, node.getLength(),
+                    node.getVariables());
+            node.setWildcard(next);
+        } else if (isVariable(segment)) {
+            next = new PathTrieNode<T>(false, node.getDoubleWildcards(), node.getWildcards() + 1, node.getLength(),
+                    node.getVariables() + 1);
+            node.setVariable(next);
+        } else if (isPattern(segment)) {
+            next = new PathTrieNode<T>(false, node.getDoubleWildcards(), node.getWildcards() + 1,
+                    node.getLength() + segment.length(), node.getVariables());
+            node.setPatternNext(segment, next);
+        } else {
+            next = new PathTrieNode<T>(false, node.getDoubleWildcards(), node.getWildcards(),
+                    node.getLength() + segment.length(), node.getVariables());
+            node.setNext(segment, next);
+        }
+        return next;
+    }
+
+    /**
+     * Splits the pattern into the non empty segments.
+     *
+     * @param pattern the pattern
+     * @return the pattern segments
+     */
+    private static String[] tokenize(String pattern) {
+        String[] segments = new String[8];
+        int count = 0;
+        int index = 0;
+        while (index < pattern.length()) {
+            final int end = pattern.indexOf(SEPARATOR, index);
+            final int to = end < 0 ? pattern.length() : end;
+            if (to > index) {
+                if (count == segments.length) {
+                    segments = Arrays.copyOf(segments, count * 2);
+                }
+                segments[count++] = pattern.substring(index, to);
+            }
+            index = to + 1;
+        }
+        return Arrays.copyOf(segments, count);
+    }
+
+    /**
+     * Returns the names of the {@code {name}} segments of the pattern.
+     *
+     * @param segments the pattern segments
+     * @param count    the number of the variable segments
+     * @return the variable names
+     */
+    private static String[] getVariableNames(String[] segments, int count) {
+        final String[] names = new String[count];
+        int index = 0;
+        for (String segment : segments) {
+            if (isVariable(segment)) {
+                names[index++] = segment.substring(1, segment.length() - 1);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Returns whether the path ends with the separator.
+     *
+     * @param path the path
+     * @return true if the path ends with the separator
+     */
+    private static boolean isTrailingSeparator(String path) {
+        return path.charAt(path.length() - 1) == SEPARATOR;
+    }
+
+    /**
+     * Returns whether the segment contains any wildcard characters.
+     *
+     * @param segment the segment
+     * @return true if the segment is a pattern
+     */
+    private static boolean isPattern(String segment) {
+        return segment.indexOf('*') >= 0 || segment.indexOf('?') >= 0 || segment.indexOf('{') >= 0;
+    }
+
+    /**
+     * Returns whether the whole segment is the {@code {name}} variable. The variables with the regular expression,
+     * like {@code {id:[0-9]+}}, are treated as the segment patterns.
+     *
+     * @param segment the segment
+     * @return true if the segment is a variable
+     */
+    private static boolean isVariable(String segment) {
+        if (segment.length() < 3 || segment.charAt(0) != '{' || segment.charAt(segment.length() - 1) != '}') {
+            return false;
+        }
+        for (int index = 1; index < segment.length() - 1; index++) {
+            final char c = segment.charAt(index);
+            if (c == '{' || c == '}' || c == ':' || c == '*' || c == '?') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Matches the single path segment against the segment pattern. The {@code *} matches any number of characters,
+     * {@code ?} matches exactly one character and the {@code {name}} variable is treated same as {@code *}.
+     *
+     * @param pattern the segment pattern
+     * @param path    the path
+     * @param from    the segment start offset, inclusive
+     * @param to      the segment end offset, exclusive
+     * @return true if the segment matches the pattern
+     */
+    static boolean matchesSegment(String pattern, CharSequence path, int from, int to) {
+        int p = 0;
+        int s = from;
+        int starP = -1;
+        int starS = -1;
+        while (s < to) {
+            if (p < pattern.length()) {
+                final char c = pattern.charAt(p);
+                final int variableEnd = c == '{' ? pattern.indexOf('}', p) : -1;
+                if (c == '*' || variableEnd >= 0) {
+                    p = c == '*' ? p + 1 : variableEnd + 1;
+                    starP = p;
+                    starS = s;
+                    continue;
+                }
+                if (c == '?' || c == path.charAt(s)) {
+                    p++;
+                    s++;
+                    continue;
+                }
+            }
+            if (starP < 0) {
+                return false;
+            }
+            p = starP;
+            s = ++starS;
+        }
+        while (p < pattern.length()) {
+            final char c = pattern.charAt(p);
+            final int variableEnd = c == '{' ? pattern.indexOf('}', p) : -1;
+            if (c == '*') {
+                p++;
+            } else if (variableEnd >= 0) {
+                p = variableEnd + 1;
+            } else {
+                break;
+            }
+        }
+        return p == pattern.length();
+    }
+
+    /**
+     * The set of the nodes reached by the path prefix. Optionally every node is being accompanied by the offsets of the
+     * path segments captured by the {@code {name}} segments on the way to it, stored in the single array with the
+     * fixed number of offsets per node.
+     *
+     * @author Jakub Narloch
+     */
+    static class NodeSet<T> {
+
+        /**
+         * The empty captures.
+         */
+        private static final int[] EMPTY_CAPTURES = new int[0];
+
+        /**
+         * The nodes.
+         */
+        private PathTrieNode<T>[] nodes;
+
+        /**
+         * The start and end offsets of the captured segments of every node.
+         */
+        private int[] captures = EMPTY_CAPTURES;
+
+        /**
+         * The number of capture offsets per node, zero if the captures are not recorded.
+         */
+        private int stride;
+
+        /**
+         * The number of nodes.
+         */
+        private int size;
+
+        /**
+         * Creates new instance of {@link NodeSet}.
+         */
+        @SuppressWarnings("unchecked")
+        public NodeSet() {
+            this.nodes = (PathTrieNode<T>[]) new PathTrieNode[4];
+        }
+
+        /**
+         * Adds the node together with every node reachable from it without consuming any segment, that is the
+         * chain of its {@code **} children.
+         *
+         * @param node the node
+         */
+        public void addReachable(PathTrieNode<T> node) {
+            addReachable(node, null, 0, -1, -1);
+        }
+
+        /**
+         * Adds the node together with every node reachable from it without consuming any segment, carrying over the
+         * captures of the node it has been reached from.
+         *
+         * @param node   the node
+         * @param source the set containing the node it has been reached from
+         * @param state  the index of that node in the {@code source} set
+         */
+        public void addReachable(PathTrieNode<T> node, NodeSet<T> source, int state) {
+            addReachable(node, source, state, -1, -1);
+        }
+
+        /**
+         * Adds the node together with every node reachable from it without consuming any segment, carrying over the
+         * captures of the node it has been reached from and, if the node is the {@code {name}} segment, capturing
+         * the path segment.
+         *
+         * @param node   the node
+         * @param source the set containing the node it has been reached from, or {@code null}
+         * @param state  the index of that node in the {@code source} set
+         * @param from   the captured segment start offset, inclusive, or {@code -1} if nothing is captured
+         * @param to     the captured segment end offset, exclusive
+         */
+        public void addReachable(PathTrieNode<T> node, NodeSet<T> source, int state, int from, int to) {
+            final int variable = 2 * (node.getVariables() - 1);
+            while (node != null) {
+                final int index = add(node);
+                if (index < 0) {
+                    return;
+                }
+                if (stride > 0) {
+                    final int offset = index * stride;
+                    if (source != null) {
+                        System.arraycopy(source.captures, state * stride, captures, offset, stride);
+                    }
+                    if (from >= 0) {
+                        captures[offset + variable] = from;
+                        captures[offset + variable + 1] = to;
+                    }
+                }
+                node = node.getDoubleWildcard();
+            }
+        }
+
+        /**
+         * Adds the node unless it is already present.
+         *
+         * @param node the node
+         * @return the index of the added node, or {@code -1} if the node was already present
+         */
+        private int add(PathTrieNode<T> node) {
+            for (int index = 0; index < size; index++) {
+                if (nodes[index] == node) {
+                    return -1;
+                }
+            }
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+            if (captures.length < nodes.length * stride) {
+                captures = Arrays.copyOf(captures, nodes.length * stride);
+            }
+            nodes[size] = node;
+            return size++;
+        }
+
+        /**
+         * Retrieves the node at specific index.
+         *
+         * @param index the index
+         * @return the node
+         */
+        public PathTrieNode<T> get(int index) {
+            return nodes[index];
+        }
+
+        /**
+         * Passes the captures of the node at specific index to the match.
+         *
+         * @param index the index
+         * @param count the number of the captured segments
+         * @param match the result holder
+         */
+        public void capture(int index, int count, PathMatch<?> match) {
+            final int offset = index * stride;
+            for (int variable = 0; variable < count; variable++) {
+                match.setVariable(variable, captures[offset + 2 * variable], captures[offset + 2 * variable + 1]);
+            }
+        }
+
+        /**
+         * Returns the number of nodes.
+         *
+         * @return the number of nodes
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Removes all of the nodes.
+         */
+        public void clear() {
+            size = 0;
+        }
+
+        /**
+         * Removes all of the nodes and sets the number of capture offsets recorded per node.
+         *
+         * @param stride the number of capture offsets per node, zero to not record the captures
+         */
+        public void clear(int stride) {
+            this.size = 0;
+            this.stride = stride;
+        }
+    }
+}
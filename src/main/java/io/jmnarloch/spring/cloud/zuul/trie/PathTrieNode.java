@@ -0,0 +1,457 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import java.util.Arrays;
+
+/**
+ * A path Trie node, that represents a single {@code /} delimited segment of the pattern. The literal segments are
+ * kept in arrays sorted by their value, while the {@code *}, {@code **} and {@code {name}} segments are stored as
+ * dedicated children and the remaining segments containing the wildcard characters are stored in the order they have
+ * been added.
+ *
+ * @author Jakub Narloch
+ */
+class PathTrieNode<T> {
+
+    /**
+     * The empty segments.
+     */
+    private static final String[] EMPTY_SEGMENTS = new String[0];
+
+    /**
+     * The empty child nodes.
+     */
+    private static final PathTrieNode[] EMPTY_NEXT = new PathTrieNode[0];
+
+    /**
+     * Whether the node represents the {@code **} segment, matching any number of path segments.
+     */
+    private final boolean repeating;
+
+    /**
+     * The number of {@code **} segments on the path leading to this node.
+     */
+    private final int doubleWildcards;
+
+    /**
+     * The number of the remaining wildcard segments on the path leading to this node.
+     */
+    private final int wildcards;
+
+    /**
+     * The number of literal characters on the path leading to this node.
+     */
+    private final int length;
+
+    /**
+     * The number of {@code {name}} segments on the path leading to this node, including this node.
+     */
+    private final int variables;
+
+    /**
+     * The names of the {@code {name}} segments of the pattern ending at this node.
+     */
+    private String[] variableNames;
+
+    /**
+     * The value of the pattern ending at this node.
+     */
+    private T value;
+
+    /**
+     * The value of the pattern ending at this node with the trailing separator.
+     */
+    private T slashValue;
+
+    /**
+     * The sorted literal segments.
+     */
+    private String[] segments;
+
+    /**
+     * The literal segment child nodes, in the order of {@link #segments}.
+     */
+    private PathTrieNode<T>[] next;
+
+    /**
+     * The segments containing the wildcard characters.
+     */
+    private String[] patterns;
+
+    /**
+     * The wildcard segment child nodes, in the order of {@link #patterns}.
+     */
+    private PathTrieNode<T>[] patternNext;
+
+    /**
+     * The {@code *} segment child node.
+     */
+    private PathTrieNode<T> wildcard;
+
+    /**
+     * The {@code **} segment child node.
+     */
+    private PathTrieNode<T> doubleWildcard;
+
+    /**
+     * The {@code {name}} segment child node.
+     */
+    private PathTrieNode<T> variable;
+
+    /**
+     * Creates new instance of {@link PathTrieNode} class.
+     *
+     * @param repeating       whether the node represents the {@code **} segment
+     * @param doubleWildcards the number of {@code **} segments leading to this node
+     * @param wildcards       the number of remaining wildcard segments leading to this node
+     * @param length          the number of literal characters leading to this node
+     * @param variables       the number of {@code {name}} segments leading to this node
+     */
+    @SuppressWarnings("unchecked")
+    public PathTrieNode(boolean repeating, int doubleWildcards, int wildcards, int length, int variables) {
+        this.repeating = repeating;
+        this.doubleWildcards = doubleWildcards;
+        this.wildcards = wildcards;
+        this.length = length;
+        this.variables = variables;
+        this.variableNames = EMPTY_SEGMENTS;
+        this.segments = EMPTY_SEGMENTS;
+        this.next = (PathTrieNode<T>[]) EMPTY_NEXT;
+        this.patterns = EMPTY_SEGMENTS;
+        this.patternNext = (PathTrieNode<T>[]) EMPTY_NEXT;
+    }
+
+    /**
+     * Returns whether the node represents the {@code **} segment.
+     *
+     * @return whether the node is repeating
+     */
+    public boolean isRepeating() {
+        return repeating;
+    }
+
+    /**
+     * Returns the number of {@code **} segments leading to this node.
+     *
+     * @return the number of double wildcards
+     */
+    public int getDoubleWildcards() {
+        return doubleWildcards;
+    }
+
+    /**
+     * Returns the number of the remaining wildcard segments leading to this node.
+     *
+     * @return the number of wildcards
+     */
+    public int getWildcards() {
+        return wildcards;
+    }
+
+    /**
+     * Returns the number of literal characters leading to this node.
+     *
+     * @return the literal length
+     */
+    public int getLength() {
+        return length;
+    }
+
+    /**
+     * Returns the number of {@code {name}} segments leading to this node, including this node.
+     *
+     * @return the number of variables
+     */
+    public int getVariables() {
+        return variables;
+    }
+
+    /**
+     * Returns the names of the {@code {name}} segments of the pattern ending at this node.
+     *
+     * @return the variable names
+     */
+    public String[] getVariableNames() {
+        return variableNames;
+    }
+
+    /**
+     * Sets the names of the {@code {name}} segments of the pattern ending at this node.
+     *
+     * @param variableNames the variable names
+     */
+    public void setVariableNames(String[] variableNames) {
+        this.variableNames = variableNames;
+    }
+
+    /**
+     * Retrieves the node value.
+     *
+     * @return the node value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Sets the node value.
+     *
+     * @param value the node value
+     */
+    public void setValue(T value) {
+        this.value = value;
+    }
+
+    /**
+     * Retrieves the value of the pattern with the trailing separator.
+     *
+     * @return the node value
+     */
+    public T getSlashValue() {
+        return slashValue;
+    }
+
+    /**
+     * Sets the value of the pattern with the trailing separator.
+     *
+     * @param slashValue the node value
+     */
+    public void setSlashValue(T slashValue) {
+        this.slashValue = slashValue;
+    }
+
+    /**
+     * Retrieves the child node of the literal segment.
+     *
+     * @param segment the segment
+     * @return the child node or null if it does not exist
+     */
+    public PathTrieNode<T> getNext(String segment) {
+        final int index = Arrays.binarySearch(segments, segment);
+        return index >= 0 ? next[index] : null;
+    }
+
+    /**
+     * Retrieves the child node of the literal segment, stored in the character sequence between specific offsets.
+     *
+     * @param path the path
+     * @param from the segment start offset, inclusive
+     * @param to   the segment end offset, exclusive
+     * @return the child node or null if it does not exist
+     */
+    public PathTrieNode<T> getNext(CharSequence path, int from, int to) {
+        int low = 0;
+        int high = segments.length - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = compare(segments[mid], path, from, to);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return next[mid];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the child node of the literal segment.
+     *
+     * @param segment the segment
+     * @param node    the child node
+     */
+    public void setNext(String segment, PathTrieNode<T> node) {
+        final int index = Arrays.binarySearch(segments, segment);
+        if (index >= 0) {
+            next[index] = node;
+            return;
+        }
+        final int insert = -index - 1;
+        final String[] newSegments = new String[segments.length + 1];
+        final PathTrieNode<T>[] newNext = Arrays.copyOf(next, next.length + 1);
+        System.arraycopy(segments, 0, newSegments, 0, insert);
+        System.arraycopy(segments, insert, newSegments, insert + 1, segments.length - insert);
+        System.arraycopy(next, insert, newNext, insert + 1, next.length - insert);
+        newSegments[insert] = segment;
+        newNext[insert] = node;
+        segments = newSegments;
+        next = newNext;
+    }
+
+    /**
+     * Returns the number of literal segment child nodes.
+     *
+     * @return the number of child nodes
+     */
+    public int getNextCount() {
+        return next.length;
+    }
+
+    /**
+     * Retrieves the literal segment at specific index.
+     *
+     * @param index the index
+     * @return the segment
+     */
+    public String getSegmentAt(int index) {
+        return segments[index];
+    }
+
+    /**
+     * Retrieves the literal segment child node at specific index.
+     *
+     * @param index the index
+     * @return the child node
+     */
+    public PathTrieNode<T> getNextAt(int index) {
+        return next[index];
+    }
+
+    /**
+     * Retrieves the child node of the segment containing the wildcard characters.
+     *
+     * @param pattern the segment pattern
+     * @return the child node or null if it does not exist
+     */
+    public PathTrieNode<T> getPatternNext(String pattern) {
+        for (int index = 0; index < patterns.length; index++) {
+            if (patterns[index].equals(pattern)) {
+                return patternNext[index];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds the child node of the segment containing the wildcard characters.
+     *
+     * @param pattern the segment pattern
+     * @param node    the child node
+     */
+    public void setPatternNext(String pattern, PathTrieNode<T> node) {
+        patterns = Arrays.copyOf(patterns, patterns.length + 1);
+        patternNext = Arrays.copyOf(patternNext, patternNext.length + 1);
+        patterns[patterns.length - 1] = pattern;
+        patternNext[patternNext.length - 1] = node;
+    }
+
+    /**
+     * Returns the number of wildcard segment child nodes.
+     *
+     * @return the number of child nodes
+     */
+    public int getPatternCount() {
+        return patterns.length;
+    }
+
+    /**
+     * Retrieves the wildcard segment at specific index.
+     *
+     * @param index the index
+     * @return the segment pattern
+     */
+    public String getPatternAt(int index) {
+        return patterns[index];
+    }
+
+    /**
+     * Retrieves the wildcard segment child node at specific index.
+     *
+     * @param index the index
+     * @return the child node
+     */
+    public PathTrieNode<T> getPatternNextAt(int index) {
+        return patternNext[index];
+    }
+
+    /**
+     * Retrieves the {@code *} segment child node.
+     *
+     * @return the child node or null if it does not exist
+     */
+    public PathTrieNode<T> getWildcard() {
+        return wildcard;
+    }
+
+    /**
+     * Sets the {@code *} segment child node.
+     *
+     * @param wildcard the child node
+     */
+    public void setWildcard(PathTrieNode<T> wildcard) {
+        this.wildcard = wildcard;
+    }
+
+    /**
+     * Retrieves the {@code **} segment child node.
+     *
+     * @return the child node or null if it does not exist
+     */
+    public PathTrieNode<T> getDoubleWildcard() {
+        return doubleWildcard;
+    }
+
+    /**
+     * Sets the {@code **} segment child node.
+     *
+     * @param doubleWildcard the child node
+     */
+    public void setDoubleWildcard(PathTrieNode<T> doubleWildcard) {
+        this.doubleWildcard = doubleWildcard;
+    }
+
+    /**
+     * Retrieves the {@code {name}} segment child node.
+     *
+     * @return the child node or null if it does not exist
+     */
+    public PathTrieNode<T> getVariable() {
+        return variable;
+    }
+
+    /**
+     * Sets the {@code {name}} segment child node.
+     *
+     * @param variable the child node
+     */
+    public void setVariable(PathTrieNode<T> variable) {
+        this.variable = variable;
+    }
+
+    /**
+     * Compares the segment with the region of the character sequence, consistently with
+     * {@link String#compareTo(String)}.
+     *
+     * @param segment the segment
+     * @param path    the path
+     * @param from    the region start offset, inclusive
+     * @param to      the region end offset, exclusive
+     * @return the comparison result
+     */
+    private static int compare(String segment, CharSequence path, int from, int to) {
+        final int length = Math.min(segment.length(), to - from);
+        for (int index = 0; index < length; index++) {
+            final int diff = segment.charAt(index) - path.charAt(from + index);
+            if (diff != 0) {
+                return diff;
+            }
+        }
+        return segment.length() - (to - from);
+    }
+}
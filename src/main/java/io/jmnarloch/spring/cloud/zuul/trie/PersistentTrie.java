@@ -0,0 +1,282 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+/**
+ * An immutable, persistent Trie tree. Instead of modifying the trie in place, {@link #with(String, Object)} and
+ * {@link #without(String)} return the new version of the trie, that copies only the nodes on the path of the
+ * modified key and shares all of the remaining nodes with the original version. Thanks to that a single entry update
+ * allocates O(M) nodes, where M is the key length, and the readers of any version always see the consistent snapshot
+ * without any locking.
+ *
+ * @author Jakub Narloch
+ */
+public class PersistentTrie<T> implements Trie<T> {
+
+    /**
+     * The empty trie.
+     */
+    private static final PersistentTrie EMPTY = new PersistentTrie<Object>(PersistentTrieNode.empty(), 0);
+
+    /**
+     * The root node of the tree.
+     */
+    private final PersistentTrieNode<T> root;
+
+    /**
+     * The total number of entries.
+     */
+    private final int size;
+
+    /**
+     * Creates new instance of {@link PersistentTrie}.
+     *
+     * @param root the root node
+     * @param size the number of entries
+     */
+    private PersistentTrie(PersistentTrieNode<T> root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * Returns the empty trie.
+     *
+     * @param <T> the element type
+     * @return the empty trie
+     */
+    @SuppressWarnings("unchecked")
+    static <T> PersistentTrie<T> empty() {
+        return (PersistentTrie<T>) EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the new version of the trie that associates the value with specific key.
+     *
+     * @param key   the key that the value will be associated
+     * @param value the value to insert
+     * @return the new version of the trie, or this trie if it already associates the same value with the key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string or {@code value} is {@code null}
+     */
+    public PersistentTrie<T> with(String key, T value) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+        Assert.notNull(value, "Parameter 'value' can not be null");
+
+        final T old = get(key);
+        if (old == value) {
+            return this;
+        }
+        return new PersistentTrie<T>(with(root, key, 0, value), old == null ? size + 1 : size);
+    }
+
+    /**
+     * Returns the new version of the trie without the value associated with specific key.
+     *
+     * @param key the key to remove
+     * @return the new version of the trie, or this trie if it does not contain the key
+     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     */
+    public PersistentTrie<T> without(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        if (get(key) == null) {
+            return this;
+        }
+        final PersistentTrieNode<T> root = without(this.root, key, 0);
+        return new PersistentTrie<T>(root != null ? root : PersistentTrieNode.<T>empty(), size - 1);
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the persistent trie is immutable, use {@link #with(String, Object)}
+     * instead.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T put(String key, T value) {
+        throw new UnsupportedOperationException("The persistent trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        PersistentTrieNode<T> node = root;
+        for (int index = from; index < to && node != null; index++) {
+            node = node.getNext(key.charAt(index));
+        }
+        return node != null ? node.getValue() : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        PersistentTrieNode<T> node = root;
+        int index = from;
+        while (node != null) {
+            if (node.getValue() != null) {
+                final T candidate = node.getValue();
+                if (matcher.matches(candidate, index - from, to - from)) {
+                    value = candidate;
+                }
+            }
+            if (index == to) {
+                break;
+            }
+            node = node.getNext(key.charAt(index));
+            index++;
+        }
+        return value;
+    }
+
+    /**
+     * Throws {@link UnsupportedOperationException}, the persistent trie is immutable, use {@link #without(String)}
+     * instead.
+     *
+     * @throws UnsupportedOperationException always
+     */
+    @Override
+    public T remove(String key) {
+        throw new UnsupportedOperationException("The persistent trie is immutable.");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(root, new StringBuilder(), visitor);
+    }
+
+    private void traverse(PersistentTrieNode<T> node, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        if (node.getValue() != null) {
+            visitor.visit(key.toString(), node.getValue());
+        }
+        for (int index = 0; index < node.getNextCount(); index++) {
+            key.append(node.getKeyAt(index));
+            traverse(node.getNextAt(index), key, visitor);
+            key.setLength(key.length() - 1);
+        }
+    }
+
+    /**
+     * Copies the path of the key, associating the value with its last node.
+     *
+     * @param node  the current node, may be null
+     * @param key   the key
+     * @param index the current key index
+     * @param value the value
+     * @return the copied node
+     */
+    private static <T> PersistentTrieNode<T> with(PersistentTrieNode<T> node, String key, int index, T value) {
+        if (node == null) {
+            node = PersistentTrieNode.empty();
+        }
+        if (index == key.length()) {
+            return node.withValue(value);
+        }
+        final char c = key.charAt(index);
+        return node.withNext(c, with(node.getNext(c), key, index + 1, value));
+    }
+
+    /**
+     * Copies the path of the key, removing the value from its last node and pruning the nodes left empty.
+     *
+     * @param node  the current node
+     * @param key   the key
+     * @param index the current key index
+     * @return the copied node, or {@code null} if the node has been left empty
+     */
+    private static <T> PersistentTrieNode<T> without(PersistentTrieNode<T> node, String key, int index) {
+        final PersistentTrieNode<T> result;
+        if (index == key.length()) {
+            result = node.withValue(null);
+        } else {
+            final char c = key.charAt(index);
+            final PersistentTrieNode<T> next = without(node.getNext(c), key, index + 1);
+            result = next != null ? node.withNext(c, next) : node.withoutNext(c);
+        }
+        return result.isEmpty() ? null : result;
+    }
+}
@@ -0,0 +1,196 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import java.util.Arrays;
+
+/**
+ * An immutable Trie node. Every modification returns a new node, that shares the child nodes with the original one.
+ *
+ * @author Jakub Narloch
+ */
+class PersistentTrieNode<T> {
+
+    /**
+     * The empty child characters.
+     */
+    private static final char[] EMPTY_KEYS = new char[0];
+
+    /**
+     * The empty child nodes.
+     */
+    private static final PersistentTrieNode[] EMPTY_NEXT = new PersistentTrieNode[0];
+
+    /**
+     * The empty node.
+     */
+    private static final PersistentTrieNode EMPTY = new PersistentTrieNode<Object>(EMPTY_KEYS, EMPTY_NEXT, null);
+
+    /**
+     * The sorted child characters.
+     */
+    private final char[] keys;
+
+    /**
+     * The child nodes, in the order of {@link #keys}.
+     */
+    private final PersistentTrieNode<T>[] next;
+
+    /**
+     * The node value, or {@code null} if none.
+     */
+    private final T value;
+
+    /**
+     * Creates new instance of {@link PersistentTrieNode} class.
+     *
+     * @param keys  the sorted child characters
+     * @param next  the child nodes
+     * @param value the node value
+     */
+    private PersistentTrieNode(char[] keys, PersistentTrieNode<T>[] next, T value) {
+        this.keys = keys;
+        this.next = next;
+        this.value = value;
+    }
+
+    /**
+     * Returns the node without value and child nodes.
+     *
+     * @param <T> the element type
+     * @return the empty node
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> PersistentTrieNode<T> empty() {
+        return (PersistentTrieNode<T>) EMPTY;
+    }
+
+    /**
+     * Returns whether the node does not have value nor child nodes.
+     *
+     * @return true if node is empty
+     */
+    public boolean isEmpty() {
+        return value == null && keys.length == 0;
+    }
+
+    /**
+     * Retrieves the node value.
+     *
+     * @return the node value, or {@code null} if none
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the copy of this node with the specific value.
+     *
+     * @param value the value, may be null
+     * @return the node copy
+     */
+    public PersistentTrieNode<T> withValue(T value) {
+        return new PersistentTrieNode<T>(keys, next, value);
+    }
+
+    /**
+     * Retrieves the child node.
+     *
+     * @param c the character
+     * @return the child node or {@code null} if none exists
+     */
+    public PersistentTrieNode<T> getNext(char c) {
+        final int index = Arrays.binarySearch(keys, c);
+        return index >= 0 ? next[index] : null;
+    }
+
+    /**
+     * Returns the copy of this node with the added or replaced child node.
+     *
+     * @param c    the character
+     * @param node the child node
+     * @return the node copy
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentTrieNode<T> withNext(char c, PersistentTrieNode<T> node) {
+        int index = Arrays.binarySearch(keys, c);
+        if (index >= 0) {
+            final PersistentTrieNode<T>[] next = this.next.clone();
+            next[index] = node;
+            return new PersistentTrieNode<T>(keys, next, value);
+        }
+        index = -(index + 1);
+        final char[] keys = new char[this.keys.length + 1];
+        final PersistentTrieNode<T>[] next = (PersistentTrieNode<T>[]) new PersistentTrieNode[this.next.length + 1];
+        System.arraycopy(this.keys, 0, keys, 0, index);
+        System.arraycopy(this.next, 0, next, 0, index);
+        keys[index] = c;
+        next[index] = node;
+        System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+        System.arraycopy(this.next, index, next, index + 1, this.next.length - index);
+        return new PersistentTrieNode<T>(keys, next, value);
+    }
+
+    /**
+     * Returns the copy of this node without the child node.
+     *
+     * @param c the character
+     * @return the node copy
+     */
+    @SuppressWarnings("unchecked")
+    public PersistentTrieNode<T> withoutNext(char c) {
+        final int index = Arrays.binarySearch(keys, c);
+        if (index < 0) {
+            return this;
+        }
+        final char[] keys = new char[this.keys.length - 1];
+        final PersistentTrieNode<T>[] next = (PersistentTrieNode<T>[]) new PersistentTrieNode[this.next.length - 1];
+        System.arraycopy(this.keys, 0, keys, 0, index);
+        System.arraycopy(this.next, 0, next, 0, index);
+        System.arraycopy(this.keys, index + 1, keys, index, this.keys.length - index - 1);
+        System.arraycopy(this.next, index + 1, next, index, this.next.length - index - 1);
+        return new PersistentTrieNode<T>(keys, next, value);
+    }
+
+    /**
+     * Returns the number of child nodes.
+     *
+     * @return the number of child nodes
+     */
+    public int getNextCount() {
+        return keys.length;
+    }
+
+    /**
+     * Retrieves the child character at specific index.
+     *
+     * @param index the index
+     * @return the child character
+     */
+    public char getKeyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Retrieves the child node at specific index.
+     *
+     * @param index the index
+     * @return the child node
+     */
+    public PersistentTrieNode<T> getNextAt(int index) {
+        return next[index];
+    }
+}
@@ -0,0 +1,37 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+/**
+ * A callback deciding which of the values stored under the prefixes of the key match the key. It is being invoked for
+ * every value found while the key is being walked down the {@link Trie}, from the shortest prefix to the longest one,
+ * so that the longest matching prefix is found in a single pass.
+ *
+ * @author Jakub Narloch
+ * @see Trie#longestMatch(CharSequence, int, int, PrefixMatcher)
+ */
+public interface PrefixMatcher<T> {
+
+    /**
+     * Returns whether the value stored under the prefix of the key matches the key.
+     *
+     * @param value     the value stored under the prefix
+     * @param length    the prefix length
+     * @param keyLength the key length
+     * @return true if the value matches the key
+     */
+    boolean matches(T value, int length, int keyLength);
+}
@@ -0,0 +1,268 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.springframework.util.Assert;
+
+/**
+ * A path compressed (radix) Trie tree. Instead of creating a node per character every edge stores the multi
+ * character label, so the chains of single child nodes that are typical for route paths sharing long common
+ * prefixes are being collapsed into a single node.
+ *
+ * @author Jakub Narloch
+ */
+public class RadixTrie<T> implements Trie<T> {
+
+    /**
+     * The root node of the tree, always with the empty label.
+     */
+    private final RadixTrieNode<T> root = new RadixTrieNode<T>("");
+
+    /**
+     * The total number of entries.
+     */
+    private int size;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T put(String key, T value) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        RadixTrieNode<T> node = root;
+        int index = 0;
+        while (index < key.length()) {
+            final RadixTrieNode<T> next = node.getNext(key.charAt(index));
+            if (next == null) {
+                node.setNext(new RadixTrieNode<T>(key.substring(index), value));
+                size++;
+                return null;
+            }
+            final String label = next.getLabel();
+            final int common = commonPrefix(label, key, index);
+            if (common < label.length()) {
+                final RadixTrieNode<T> split = new RadixTrieNode<T>(label.substring(0, common));
+                next.setLabel(label.substring(common));
+                split.setNext(next);
+                node.setNext(split);
+            }
+            node = node.getNext(key.charAt(index));
+            index += common;
+        }
+        final boolean replaced = node.hasValue();
+        final T old = node.getValue();
+        node.setValue(value);
+        if (replaced) {
+            return old;
+        }
+        size++;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean containsKey(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return get(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T get(CharSequence key, int from, int to) {
+        CharSequences.checkRegion(key, from, to);
+
+        RadixTrieNode<T> node = root;
+        int index = from;
+        while (index < to) {
+            node = node.getNext(key.charAt(index));
+            if (node == null || !CharSequences.startsWith(key, index, to, node.getLabel())) {
+                return null;
+            }
+            index += node.getLabel().length();
+        }
+        return node.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        return prefix(key, 0, key.length());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T prefix(CharSequence key, int from, int to) {
+        return longestMatch(key, from, to, Tries.ANY_PREFIX);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher) {
+        CharSequences.checkRegion(key, from, to);
+        Assert.notNull(matcher, "Parameter 'matcher' can not be null");
+
+        T value = null;
+        RadixTrieNode<T> node = root;
+        int index = from;
+        while (node != null) {
+            if (node.hasValue()) {
+                final T candidate = node.getValue();
+                if (matcher.matches(candidate, index - from, to - from)) {
+                    value = candidate;
+                }
+            }
+            if (index == to) {
+                break;
+            }
+            node = node.getNext(key.charAt(index));
+            if (node == null || !CharSequences.startsWith(key, index, to, node.getLabel())) {
+                break;
+            }
+            index += node.getLabel().length();
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public T remove(String key) {
+        Assert.hasLength(key, "Key must be not null or not empty string.");
+
+        RadixTrieNode<T> parent = null;
+        RadixTrieNode<T> node = root;
+        int index = 0;
+        while (index < key.length()) {
+            parent = node;
+            node = node.getNext(key.charAt(index));
+            if (node == null || !key.startsWith(node.getLabel(), index)) {
+                return null;
+            }
+            index += node.getLabel().length();
+        }
+        if (!node.hasValue()) {
+            return null;
+        }
+        final T value = node.getValue();
+        node.removeValue();
+        size--;
+
+        if (node.getNextCount() == 0) {
+            parent.removeNext(node.getLabel().charAt(0));
+            if (parent != root && !parent.hasValue() && parent.getNextCount() == 1) {
+                merge(parent);
+            }
+        } else if (node.getNextCount() == 1) {
+            merge(node);
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void traverse(TrieVisitor<? super T> visitor) {
+        Assert.notNull(visitor, "Parameter 'visitor' can not be null");
+
+        traverse(root, new StringBuilder(), visitor);
+    }
+
+    private void traverse(RadixTrieNode<T> node, StringBuilder key, TrieVisitor<? super T> visitor) {
+
+        key.append(node.getLabel());
+        if (node.hasValue()) {
+            visitor.visit(key.toString(), node.getValue());
+        }
+        for (int index = 0; index < node.getNextCount(); index++) {
+            traverse(node.getNextAt(index), key, visitor);
+        }
+        key.setLength(key.length() - node.getLabel().length());
+    }
+
+    /**
+     * Merges the node without value with its only child, by moving the child content into the node.
+     *
+     * @param node the node
+     */
+    private void merge(RadixTrieNode<T> node) {
+        final RadixTrieNode<T> child = node.getNextAt(0);
+        node.removeNext(child.getLabel().charAt(0));
+        node.setLabel(node.getLabel() + child.getLabel());
+        node.setValue(child.getValue());
+        for (int index = 0; index < child.getNextCount(); index++) {
+            node.setNext(child.getNextAt(index));
+        }
+    }
+
+    /**
+     * Returns the length of the common prefix of the label and the key starting at specific offset.
+     *
+     * @param label  the edge label
+     * @param key    the key
+     * @param offset the key offset
+     * @return the common prefix length
+     */
+    private static int commonPrefix(String label, String key, int offset) {
+        final int length = Math.min(label.length(), key.length() - offset);
+        int index = 0;
+        while (index < length && label.charAt(index) == key.charAt(offset + index)) {
+            index++;
+        }
+        return index;
+    }
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import java.util.Arrays;
+
+/**
+ * A path compressed Trie node, that stores the multi character edge label leading to this node. The children are
+ * kept in arrays sorted by the first character of their labels.
+ *
+ * @author Jakub Narloch
+ */
+class RadixTrieNode<T> {
+
+    /**
+     * The empty child characters.
+     */
+    private static final char[] EMPTY_KEYS = new char[0];
+
+    /**
+     * The empty child nodes.
+     */
+    private static final RadixTrieNode[] EMPTY_NEXT = new RadixTrieNode[0];
+
+    /**
+     * The edge label.
+     */
+    private String label;
+
+    /**
+     * The node value.
+     */
+    private T value;
+
+    /**
+     * The sorted first characters of the child labels.
+     */
+    private char[] keys;
+
+    /**
+     * The child nodes, in the order of {@link #keys}.
+     */
+    private RadixTrieNode<T>[] next;
+
+    /**
+     * Creates new instance of {@link RadixTrieNode} class.
+     *
+     * @param label the edge label
+     */
+    @SuppressWarnings("unchecked")
+    public RadixTrieNode(String label) {
+        this.label = label;
+        this.keys = EMPTY_KEYS;
+        this.next = (RadixTrieNode<T>[]) EMPTY_NEXT;
+    }
+
+    /**
+     * Creates new instance of {@link RadixTrieNode} class with value.
+     *
+     * @param label the edge label
+     * @param value the value
+     */
+    public RadixTrieNode(String label, T value) {
+        this(label);
+        this.value = value;
+    }
+
+    /**
+     * Returns the edge label.
+     *
+     * @return the edge label
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Sets the edge label.
+     *
+     * @param label the edge label
+     */
+    public void setLabel(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Retrieves the child node which label starts with the specific character.
+     *
+     * @param c the character
+     * @return the child node or {@code null} if none exists
+     */
+    public RadixTrieNode<T> getNext(char c) {
+        final int index = Arrays.binarySearch(keys, c);
+        return index >= 0 ? next[index] : null;
+    }
+
+    /**
+     * Adds or replaces the child node, the child is being indexed by the first character of its label.
+     *
+     * @param node the child node
+     */
+    @SuppressWarnings("unchecked")
+    public void setNext(RadixTrieNode<T> node) {
+        final char c = node.getLabel().charAt(0);
+        int index = Arrays.binarySearch(keys, c);
+        if (index >= 0) {
+            next[index] = node;
+            return;
+        }
+        index = -(index + 1);
+        final char[] keys = new char[this.keys.length + 1];
+        final RadixTrieNode<T>[] next = (RadixTrieNode<T>[]) new RadixTrieNode[this.next.length + 1];
+        System.arraycopy(this.keys, 0, keys, 0, index);
+        System.arraycopy(this.next, 0, next, 0, index);
+        keys[index] = c;
+        next[index] = node;
+        System.arraycopy(this.keys, index, keys, index + 1, this.keys.length - index);
+        System.arraycopy(this.next, index, next, index + 1, this.next.length - index);
+        this.keys = keys;
+        this.next = next;
+    }
+
+    /**
+     * Removes the child node which label starts with the specific character.
+     *
+     * @param c the character
+     */
+    @SuppressWarnings("unchecked")
+    public void removeNext(char c) {
+        final int index = Arrays.binarySearch(keys, c);
+        if (index < 0) {
+            return;
+        }
+        final char[] keys = new char[this.keys.length - 1];
+        final RadixTrieNode<T>[] next = (RadixTrieNode<T>[]) new RadixTrieNode[this.next.length - 1];
+        System.arraycopy(this.keys, 0, keys, 0, index);
+        System.arraycopy(this.next, 0, next, 0, index);
+        System.arraycopy(this.keys, index + 1, keys, index, keys.length - index);
+        System.arraycopy(this.next, index + 1, next, index, next.length - index);
+        this.keys = keys;
+        this.next = next;
+    }
+
+    /**
+     * Returns the number of child nodes.
+     *
+     * @return the number of child nodes
+     */
+    public int getNextCount() {
+        return next.length;
+    }
+
+    /**
+     * Returns the child node at the specific position.
+     *
+     * @param index the child index
+     * @return the child node
+     */
+    public RadixTrieNode<T> getNextAt(int index) {
+        return next[index];
+    }
+
+    /**
+     * Sets the node value.
+     *
+     * @param value the value
+     */
+    public void setValue(T value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the node value.
+     *
+     * @return the node value
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Returns whether the node has value.
+     *
+     * @return true if node has value
+     */
+    public boolean hasValue() {
+        return value != null;
+    }
+
+    /**
+     * Removes the node value.
+     */
+    public void removeValue() {
+        value = null;
+    }
+}
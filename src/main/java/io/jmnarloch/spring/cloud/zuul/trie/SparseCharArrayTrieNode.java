@@ -0,0 +1,153 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import java.util.Arrays;
+
+/**
+ * A character array backed Trie node, that instead of the whole character range stores only the window between the
+ * lowest and the highest character of its child nodes. The child node is retrieved by directly indexing the array,
+ * same as in {@link CharArrayTrieNode}, while the node allocates only as many slots as its window spans.
+ *
+ * @author Jakub Narloch
+ */
+class SparseCharArrayTrieNode<T> extends AbstractTrieNode<T, SparseCharArrayTrieNode<T>> {
+
+    /**
+     * The empty array of child nodes.
+     */
+    private static final SparseCharArrayTrieNode[] EMPTY = new SparseCharArrayTrieNode[0];
+
+    /**
+     * The lowest character of the window.
+     */
+    private char offset;
+
+    /**
+     * The array of child nodes, indexed from the {@link #offset}.
+     */
+    @SuppressWarnings("unchecked")
+    private SparseCharArrayTrieNode<T>[] next = EMPTY;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void setNext(char c, SparseCharArrayTrieNode<T> next) {
+        if (this.next.length == 0) {
+            this.next = (SparseCharArrayTrieNode<T>[]) new SparseCharArrayTrieNode[1];
+            this.offset = c;
+        } else if (c < offset) {
+            final SparseCharArrayTrieNode<T>[] nodes =
+                    (SparseCharArrayTrieNode<T>[]) new SparseCharArrayTrieNode[this.next.length + offset - c];
+            System.arraycopy(this.next, 0, nodes, offset - c, this.next.length);
+            this.next = nodes;
+            this.offset = c;
+        } else if (c - offset >= this.next.length) {
+            this.next = Arrays.copyOf(this.next, c - offset + 1);
+        }
+        this.next[c - offset] = next;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SparseCharArrayTrieNode<T> getNext(char c) {
+        final int index = c - offset;
+        if (index < 0 || index >= next.length) {
+            return null;
+        }
+        return next[index];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void removeNext(char c) {
+        final int index = c - offset;
+        if (index < 0 || index >= next.length) {
+            return;
+        }
+        next[index] = null;
+        shrink();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public char[] getNextChars() {
+        int count = 0;
+        for (SparseCharArrayTrieNode<T> node : next) {
+            if (node != null) {
+                count++;
+            }
+        }
+        final char[] chars = new char[count];
+        int index = 0;
+        for (int i = 0; i < next.length; i++) {
+            if (next[i] != null) {
+                chars[index++] = (char) (offset + i);
+            }
+        }
+        return chars;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getRetainedSize() {
+        return TrieStats.objectSize(FIELD_BYTES + TrieStats.REFERENCE + 2)
+                + TrieStats.arraySize(next.length, TrieStats.REFERENCE);
+    }
+
+    /**
+     * Retrieves the number of slots allocated by this node.
+     *
+     * @return the number of slots
+     */
+    public int getCapacity() {
+        return next.length;
+    }
+
+    /**
+     * Narrows the window to the lowest and highest of the remaining child nodes.
+     */
+    @SuppressWarnings("unchecked")
+    private void shrink() {
+        int from = 0;
+        while (from < next.length && next[from] == null) {
+            from++;
+        }
+        if (from == next.length) {
+            next = EMPTY;
+            offset = 0;
+            return;
+        }
+        int to = next.length;
+        while (next[to - 1] == null) {
+            to--;
+        }
+        if (from > 0 || to < next.length) {
+            next = Arrays.copyOfRange(next, from, to);
+            offset += from;
+        }
+    }
+}
@@ -42,7 +42,8 @@ public interface Trie<T> {
      * @param key   the key that the value will be associated
      * @param value the value to insert
      * @return the previous value associated with the specific key
-     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     * @throws IllegalArgumentException      if {@code key} is {@code null} or empty string
+     * @throws UnsupportedOperationException if the trie is immutable
      */
     T put(String key, T value);
 
@@ -64,6 +65,19 @@ public interface Trie<T> {
      */
     T get(String key);
 
+    /**
+     * Returns the values associated with the key stored in the specific region of the character sequence, or
+     * {@code null} otherwise.
+     *
+     * @param key  the character sequence containing the key
+     * @param from the key start offset, inclusive
+     * @param to   the key end offset, exclusive
+     * @return the associated key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException  if {@code key} is {@code null} or the region is empty
+     * @throws IndexOutOfBoundsException if the region is out of the {@code key} bounds
+     */
+    T get(CharSequence key, int from, int to);
+
     /**
      * Returns the longest common prefix of specified key.
      *
@@ -73,12 +87,49 @@ public interface Trie<T> {
      */
     T prefix(String key);
 
+    /**
+     * Returns the longest common prefix of the key stored in the specific region of the character sequence.
+     *
+     * @param key  the character sequence containing the key
+     * @param from the key start offset, inclusive
+     * @param to   the key end offset, exclusive
+     * @return the prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException  if {@code key} is {@code null} or the region is empty
+     * @throws IndexOutOfBoundsException if the region is out of the {@code key} bounds
+     */
+    T prefix(CharSequence key, int from, int to);
+
+    /**
+     * Returns the value of the longest prefix of the key stored in the specific region of the character sequence,
+     * that is accepted by the matcher. Every value found on the way is being passed to the matcher, so that the
+     * longest accepted prefix is found in a single walk, even if the longest prefix overall is not accepted.
+     *
+     * @param key     the character sequence containing the key
+     * @param from    the key start offset, inclusive
+     * @param to      the key end offset, exclusive
+     * @param matcher the matcher deciding whether the prefix value matches the key
+     * @return the accepted prefix key value or {@code null} if nothing was found
+     * @throws IllegalArgumentException  if {@code key} or {@code matcher} is {@code null} or the region is empty
+     * @throws IndexOutOfBoundsException if the region is out of the {@code key} bounds
+     */
+    T longestMatch(CharSequence key, int from, int to, PrefixMatcher<? super T> matcher);
+
     /**
      * Removes the value associated with specific key.
      *
      * @param key the key to remove
      * @return the removed value associated with the specific key
-     * @throws IllegalArgumentException if {@code key} is {@code null} or empty string
+     * @throws IllegalArgumentException      if {@code key} is {@code null} or empty string
+     * @throws UnsupportedOperationException if the trie is immutable
      */
     T remove(String key);
+
+    /**
+     * Visits every entry stored in the trie. The order in which the entries are being visited is implementation
+     * specific.
+     *
+     * @param visitor the entry visitor
+     * @throws IllegalArgumentException if {@code visitor} is {@code null}
+     */
+    void traverse(TrieVisitor<? super T> visitor);
 }
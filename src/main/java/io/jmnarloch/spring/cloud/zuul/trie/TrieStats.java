@@ -0,0 +1,287 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import java.util.Arrays;
+
+/**
+ * The statistics of the Trie tree shape and its memory usage, computed by a single traversal of the tree.
+ *
+ * <p>The retained size is an estimate of the memory used by the tree nodes, excluding the stored values, assuming the
+ * 64 bit JVM with compressed object references, that is 12 bytes object headers, 16 bytes array headers, 4 bytes
+ * references and 8 bytes object alignment.
+ *
+ * @author Jakub Narloch
+ */
+public final class TrieStats {
+
+    /**
+     * The object header size.
+     */
+    private static final int OBJECT_HEADER = 12;
+
+    /**
+     * The array header size.
+     */
+    private static final int ARRAY_HEADER = 16;
+
+    /**
+     * The object alignment.
+     */
+    private static final int ALIGNMENT = 8;
+
+    /**
+     * The reference size.
+     */
+    static final int REFERENCE = 4;
+
+    /**
+     * The total number of nodes.
+     */
+    private final int nodeCount;
+
+    /**
+     * The total number of values.
+     */
+    private final int valueCount;
+
+    /**
+     * The maximum depth of any node.
+     */
+    private final int maxDepth;
+
+    /**
+     * The average depth of the nodes holding values.
+     */
+    private final double averageDepth;
+
+    /**
+     * The number of nodes per number of their children.
+     */
+    private final int[] fanOutHistogram;
+
+    /**
+     * The estimated retained size in bytes.
+     */
+    private final long retainedBytes;
+
+    /**
+     * Creates new instance of {@link TrieStats}.
+     *
+     * @param nodeCount       the total number of nodes
+     * @param valueCount      the total number of values
+     * @param maxDepth        the maximum depth of any node
+     * @param averageDepth    the average depth of the nodes holding values
+     * @param fanOutHistogram the number of nodes per number of their children
+     * @param retainedBytes   the estimated retained size in bytes
+     */
+    private TrieStats(int nodeCount, int valueCount, int maxDepth, double averageDepth, int[] fanOutHistogram,
+                      long retainedBytes) {
+        this.nodeCount = nodeCount;
+        this.valueCount = valueCount;
+        this.maxDepth = maxDepth;
+        this.averageDepth = averageDepth;
+        this.fanOutHistogram = fanOutHistogram;
+        this.retainedBytes = retainedBytes;
+    }
+
+    /**
+     * Retrieves the total number of nodes, including the root.
+     *
+     * @return the total number of nodes
+     */
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * Retrieves the total number of values.
+     *
+     * @return the total number of values
+     */
+    public int getValueCount() {
+        return valueCount;
+    }
+
+    /**
+     * Retrieves the maximum depth of any node, the root node has depth 0.
+     *
+     * @return the maximum depth
+     */
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    /**
+     * Retrieves the average depth of the nodes holding values, which for the character tries equals to the average
+     * key length.
+     *
+     * @return the average depth, or 0 if the trie is empty
+     */
+    public double getAverageDepth() {
+        return averageDepth;
+    }
+
+    /**
+     * Retrieves the fan-out histogram, the element at index {@code i} is the number of nodes with exactly {@code i}
+     * children.
+     *
+     * @return the fan-out histogram
+     */
+    public int[] getFanOutHistogram() {
+        return fanOutHistogram.clone();
+    }
+
+    /**
+     * Retrieves the estimated number of bytes retained by the trie nodes.
+     *
+     * @return the estimated retained size in bytes
+     */
+    public long getRetainedBytes() {
+        return retainedBytes;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "TrieStats{" +
+                "nodeCount=" + nodeCount +
+                ", valueCount=" + valueCount +
+                ", maxDepth=" + maxDepth +
+                ", averageDepth=" + averageDepth +
+                ", fanOutHistogram=" + Arrays.toString(fanOutHistogram) +
+                ", retainedBytes=" + retainedBytes +
+                '}';
+    }
+
+    /**
+     * Estimates the size of an object with specific size of its fields.
+     *
+     * @param fieldBytes the total size of the object fields
+     * @return the object size
+     */
+    static long objectSize(int fieldBytes) {
+        return align(OBJECT_HEADER + fieldBytes);
+    }
+
+    /**
+     * Estimates the size of an array.
+     *
+     * @param length       the array length
+     * @param elementBytes the size of single element
+     * @return the array size
+     */
+    static long arraySize(int length, int elementBytes) {
+        return align(ARRAY_HEADER + (long) length * elementBytes);
+    }
+
+    /**
+     * Estimates the size of a Trove {@code TCharObjectHashMap} with specific number of entries, that is the map itself
+     * and its keys, values and states arrays, sized for the default load factor of 0.5.
+     *
+     * @param size the number of entries
+     * @return the map size
+     */
+    static long charObjectHashMapSize(int size) {
+        final int capacity = Math.max(23, 2 * size + 1);
+        return objectSize(40) + arraySize(capacity, 2) + arraySize(capacity, REFERENCE) + arraySize(capacity, 1);
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Accumulates the statistics of the visited nodes.
+     *
+     * @author Jakub Narloch
+     */
+    static final class Collector {
+
+        /**
+         * The total number of nodes.
+         */
+        private int nodeCount;
+
+        /**
+         * The total number of values.
+         */
+        private int valueCount;
+
+        /**
+         * The maximum depth of any node.
+         */
+        private int maxDepth;
+
+        /**
+         * The total depth of the nodes holding values.
+         */
+        private long valueDepth;
+
+        /**
+         * The number of nodes per number of their children.
+         */
+        private int[] fanOutHistogram = new int[0];
+
+        /**
+         * The estimated retained size in bytes.
+         */
+        private long retainedBytes;
+
+        /**
+         * Records single node.
+         *
+         * @param depth    the node depth
+         * @param fanOut   the number of node children
+         * @param hasValue whether the node holds the value
+         * @param bytes    the estimated size of the node
+         */
+        void node(int depth, int fanOut, boolean hasValue, long bytes) {
+            nodeCount++;
+            if (hasValue) {
+                valueCount++;
+                valueDepth += depth;
+            }
+            maxDepth = Math.max(maxDepth, depth);
+            if (fanOut >= fanOutHistogram.length) {
+                fanOutHistogram = Arrays.copyOf(fanOutHistogram, fanOut + 1);
+            }
+            fanOutHistogram[fanOut]++;
+            retainedBytes += bytes;
+        }
+
+        /**
+         * Records the size that is not attributed to any node.
+         *
+         * @param bytes the estimated size
+         */
+        void bytes(long bytes) {
+            retainedBytes += bytes;
+        }
+
+        /**
+         * Creates the statistics out of the recorded nodes.
+         *
+         * @return the trie statistics
+         */
+        TrieStats build() {
+            final double averageDepth = valueCount > 0 ? (double) valueDepth / valueCount : 0;
+            return new TrieStats(nodeCount, valueCount, maxDepth, averageDepth, fanOutHistogram, retainedBytes);
+        }
+    }
+}
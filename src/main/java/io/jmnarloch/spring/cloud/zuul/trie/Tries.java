@@ -15,6 +15,14 @@
  */
 package io.jmnarloch.spring.cloud.zuul.trie;
 
+import org.springframework.util.Assert;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * A convenient class for instantiating the Trie tries.
  *
@@ -22,6 +30,16 @@ package io.jmnarloch.spring.cloud.zuul.trie;
  */
 public final class Tries {
 
+    /**
+     * The prefix matcher accepting every value, that makes the longest match the longest prefix.
+     */
+    static final PrefixMatcher<Object> ANY_PREFIX = new PrefixMatcher<Object>() {
+        @Override
+        public boolean matches(Object value, int length, int keyLength) {
+            return true;
+        }
+    };
+
     /**
      * Creates new instances of {@link Tries}.
      *
@@ -54,6 +72,30 @@ public final class Tries {
         return new CharArrayTrie<T>(capacity);
     }
 
+    /**
+     * Creates new instance of {@link SparseCharArrayTrie}. Unlike the {@link CharArrayTrie} every node allocates only
+     * the range between the lowest and the highest of its child characters, so the trie is not limited to any
+     * character capacity and does not reserve the slots for the characters that are never used.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link SparseCharArrayTrie}
+     */
+    public static <T> SparseCharArrayTrie<T> newSparseCharArrayTrie() {
+        return new SparseCharArrayTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link AsciiTrie}. The trie stores the printable ASCII characters, that the URL paths
+     * consist of, in the directly indexed node arrays, same as {@link #newCharArrayTrie(int)}, but unlike it is still
+     * capable of storing and matching any other character, for instance of percent-decoded path.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link AsciiTrie}
+     */
+    public static <T> AsciiTrie<T> newAsciiTrie() {
+        return new AsciiTrie<T>();
+    }
+
     /**
      * Creates new instance of {@link CharHashMapTrie}.
      *
@@ -119,4 +161,252 @@ public final class Tries {
     public static <T> HashMapTrie<T> newHashMapTrie(int initialCapacity, float loadFactor) {
         return new HashMapTrie<T>(initialCapacity, loadFactor);
     }
+
+    /**
+     * Creates new instance of {@link RadixTrie}.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link RadixTrie}
+     */
+    public static <T> RadixTrie<T> newRadixTrie() {
+        return new RadixTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link PathTrie}.
+     *
+     * @param <T> the element type
+     * @return the instance of {@link PathTrie}
+     */
+    public static <T> PathTrie<T> newPathTrie() {
+        return new PathTrie<T>();
+    }
+
+    /**
+     * Returns the empty {@link PersistentTrie}. The new versions of the trie are being created through
+     * {@link PersistentTrie#with(String, Object)} and {@link PersistentTrie#without(String)}.
+     *
+     * @param <T> the element type
+     * @return the empty instance of {@link PersistentTrie}
+     */
+    public static <T> PersistentTrie<T> newPersistentTrie() {
+        return PersistentTrie.empty();
+    }
+
+    /**
+     * Creates new instance of {@link ConcurrentTrie}, that can be safely modified while being concurrently queried.
+     *
+     * @param <T> the element type
+     * @return the new instance of {@link ConcurrentTrie}
+     */
+    public static <T> ConcurrentTrie<T> newConcurrentTrie() {
+        return new ConcurrentTrie<T>();
+    }
+
+    /**
+     * Creates new instance of {@link OffHeapTrie} out of the entries of the given trie, that keeps its structure in
+     * the direct buffer outside of the Java heap. The off heap trie is immutable and is meant to be only queried
+     * afterwards.
+     *
+     * @param trie the trie
+     * @param <T>  the element type
+     * @return the off heap trie
+     * @throws IllegalArgumentException if {@code trie} is case insensitive
+     */
+    public static <T> OffHeapTrie<T> newOffHeapTrie(Trie<T> trie) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+        Assert.isTrue(!isCaseInsensitive(trie), "The OffHeapTrie can not be case insensitive.");
+
+        return OffHeapTrie.allocate(trie);
+    }
+
+    /**
+     * Creates new instance of {@link OffHeapTrie} out of the entries of the given trie, that is being written into the
+     * file and memory mapped from it. The same file can be afterwards mapped by other processes through
+     * {@link OffHeapTrie#map(File, Map)}.
+     *
+     * @param trie the trie
+     * @param file the file
+     * @param <T>  the element type
+     * @return the off heap trie
+     * @throws IOException              if any I/O error occurs
+     * @throws IllegalArgumentException if {@code trie} is case insensitive
+     */
+    public static <T> OffHeapTrie<T> newMappedTrie(Trie<T> trie, File file) throws IOException {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+        Assert.notNull(file, "Parameter 'file' can not be null");
+        Assert.isTrue(!isCaseInsensitive(trie), "The OffHeapTrie can not be case insensitive.");
+
+        return OffHeapTrie.map(trie, file);
+    }
+
+    /**
+     * Makes the empty {@link CharArrayTrie}, {@link SparseCharArrayTrie}, {@link AsciiTrie}, {@link HashMapTrie} or
+     * {@link CharHashMapTrie} case insensitive. The case of the key characters is being folded once when the key is
+     * being put and on the fly, character by character, when the key is being looked up, so the looked up keys are
+     * never copied. The trie compiled out of the case insensitive trie through {@link #compile(Trie)} is case
+     * insensitive as well.
+     *
+     * @param trie the trie
+     * @param <R>  the trie type
+     * @return the same trie instance
+     * @throws IllegalArgumentException if {@code trie} is {@code null} or it can not be case insensitive
+     * @throws IllegalStateException    if {@code trie} is not empty
+     */
+    public static <R extends Trie<?>> R caseInsensitive(R trie) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+        Assert.isTrue(trie instanceof AbstractTrie, "The " + trie.getClass().getSimpleName()
+                + " can not be case insensitive.");
+
+        ((AbstractTrie<?, ?>) trie).setCaseInsensitive(true);
+        return trie;
+    }
+
+    /**
+     * Returns whether the trie is case insensitive.
+     *
+     * @param trie the trie
+     * @return true if the trie is case insensitive
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     * @see #caseInsensitive(Trie)
+     */
+    public static boolean isCaseInsensitive(Trie<?> trie) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+
+        if (trie instanceof AbstractTrie) {
+            return ((AbstractTrie<?, ?>) trie).isCaseInsensitive();
+        } else if (trie instanceof CompiledTrie) {
+            return ((CompiledTrie<?>) trie).isCaseInsensitive();
+        }
+        return false;
+    }
+
+    /**
+     * Puts all of the entries into the trie. The empty {@link CharArrayTrie}, {@link SparseCharArrayTrie},
+     * {@link AsciiTrie}, {@link HashMapTrie} and {@link CharHashMapTrie} are being populated in parallel in the given
+     * fork join pool, by building the subtrees of the distinct key prefixes in separate tasks and linking them under
+     * the common root. Any other trie, as well as the small number of entries, is being populated sequentially, through
+     * {@link #bulkLoad(Trie, SortedMap)} if the entries are sorted.
+     *
+     * @param trie    the trie
+     * @param entries the entries
+     * @param pool    the fork join pool, {@code null} to populate the trie sequentially
+     * @param <T>     the element type
+     * @throws IllegalArgumentException if {@code trie} or {@code entries} is {@code null}
+     */
+    public static <T> void putAll(Trie<T> trie, Map<String, ? extends T> entries, ForkJoinPool pool) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+        Assert.notNull(entries, "Parameter 'entries' can not be null");
+
+        if (pool != null && trie instanceof AbstractTrie && trie.isEmpty()
+                && entries.size() >= AbstractTrie.PARALLEL_THRESHOLD) {
+            ((AbstractTrie<T, ?>) trie).putAll(entries, pool);
+            return;
+        }
+        if (entries instanceof SortedMap) {
+            bulkLoad(trie, (SortedMap<String, ? extends T>) entries);
+            return;
+        }
+        for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+            trie.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Puts all of the entries sorted by their keys into the trie. The empty {@link CharArrayTrie},
+     * {@link SparseCharArrayTrie}, {@link AsciiTrie}, {@link HashMapTrie} and {@link CharHashMapTrie} are being
+     * populated in a single pass over the keys, that creates only the suffix of every key not shared with the
+     * previous one and computes the subtree sizes bottom up, rather than walking the trie from its root for every
+     * key. The keys put into the case insensitive trie are being folded and sorted again before the single pass. Any
+     * other trie, as well as the entries not sorted in the natural order of their keys, is being populated by putting
+     * the entries one by one.
+     *
+     * @param trie    the trie
+     * @param entries the entries
+     * @param <T>     the element type
+     * @throws IllegalArgumentException if {@code trie} or {@code entries} is {@code null}
+     */
+    public static <T> void bulkLoad(Trie<T> trie, SortedMap<String, ? extends T> entries) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+        Assert.notNull(entries, "Parameter 'entries' can not be null");
+
+        if (trie instanceof AbstractTrie && trie.isEmpty() && entries.comparator() == null) {
+            ((AbstractTrie<T, ?>) trie).bulkLoad(entries);
+            return;
+        }
+        for (Map.Entry<String, ? extends T> entry : entries.entrySet()) {
+            trie.put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * Computes the statistics of the trie shape and its estimated memory usage. The statistics are available for the
+     * {@link CharArrayTrie}, {@link SparseCharArrayTrie}, {@link AsciiTrie}, {@link HashMapTrie},
+     * {@link CharHashMapTrie}, {@link CompiledTrie} and {@link DoubleArrayTrie}.
+     *
+     * @param trie the trie
+     * @param <T>  the element type
+     * @return the trie statistics, or {@code null} if the trie does not provide the statistics
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     */
+    public static <T> TrieStats getStats(Trie<T> trie) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+
+        if (trie instanceof AbstractTrie) {
+            return ((AbstractTrie<T, ?>) trie).getStats();
+        } else if (trie instanceof CompiledTrie) {
+            return ((CompiledTrie<T>) trie).getStats();
+        } else if (trie instanceof DoubleArrayTrie) {
+            return ((DoubleArrayTrie<T>) trie).getStats();
+        }
+        return null;
+    }
+
+    /**
+     * Compiles the trie into the immutable {@link CompiledTrie}, that stores all of the entries of the given trie in
+     * flat primitive arrays. The compiled trie is meant to be built once and afterwards only queried.
+     *
+     * @param trie the trie to compile
+     * @param <T>  the element type
+     * @return the instance of {@link CompiledTrie}
+     * @throws IllegalArgumentException if {@code trie} is {@code null}
+     */
+    public static <T> CompiledTrie<T> compile(Trie<T> trie) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+
+        return CompiledTrie.compile(trie);
+    }
+
+    /**
+     * Compiles the entries sorted by their keys straight into the immutable {@link CompiledTrie}, in a single pass over
+     * the keys and without populating any trie first. The result is the same as of compiling the trie the entries have
+     * been put into, case insensitive one if {@code caseInsensitive} is set.
+     *
+     * @param entries         the entries
+     * @param caseInsensitive whether the compiled trie is case insensitive
+     * @param <T>             the element type
+     * @return the instance of {@link CompiledTrie}
+     * @throws IllegalArgumentException if {@code entries} is {@code null} or contains an empty key
+     */
+    public static <T> CompiledTrie<T> compile(SortedMap<String, ? extends T> entries, boolean caseInsensitive) {
+        Assert.notNull(entries, "Parameter 'entries' can not be null");
+
+        return CompiledTrie.compile(entries, caseInsensitive);
+    }
+
+    /**
+     * Creates new instance of {@link DoubleArrayTrie} out of the entries of the given trie. Similarly to
+     * {@link #compile(Trie)} the double array trie is immutable and is meant to be only queried afterwards.
+     *
+     * @param trie the trie which entries are going to be stored
+     * @param <T>  the element type
+     * @return the instance of {@link DoubleArrayTrie}
+     * @throws IllegalArgumentException if {@code trie} is {@code null} or is case insensitive
+     */
+    public static <T> DoubleArrayTrie<T> newDoubleArrayTrie(Trie<T> trie) {
+        Assert.notNull(trie, "Parameter 'trie' can not be null");
+        Assert.isTrue(!isCaseInsensitive(trie), "The DoubleArrayTrie can not be case insensitive.");
+
+        return DoubleArrayTrie.build(trie);
+    }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link FrequencySketch} class.
+ *
+ * @author Jakub Narloch
+ */
+public class FrequencySketchTest {
+
+    @Test
+    public void shouldEstimateFrequency() {
+
+        // given
+        final FrequencySketch sketch = new FrequencySketch(512);
+
+        // when
+        for (int index = 0; index < 5; index++) {
+            sketch.increment(42);
+        }
+
+        // then
+        assertEquals(5, sketch.frequency(42));
+    }
+
+    @Test
+    public void shouldLimitFrequency() {
+
+        // given
+        final FrequencySketch sketch = new FrequencySketch(512);
+
+        // when
+        for (int index = 0; index < 100; index++) {
+            sketch.increment(42);
+        }
+
+        // then
+        assertEquals(15, sketch.frequency(42));
+    }
+
+    @Test
+    public void shouldHalveFrequencyAfterSample() {
+
+        // given
+        final FrequencySketch sketch = new FrequencySketch(64);
+        for (int index = 0; index < 10; index++) {
+            sketch.increment(42);
+        }
+
+        // when
+        for (int index = 0; index < 640; index++) {
+            sketch.increment(index * 31 + 1000);
+        }
+
+        // then
+        assertTrue(sketch.frequency(42) <= 5);
+    }
+}
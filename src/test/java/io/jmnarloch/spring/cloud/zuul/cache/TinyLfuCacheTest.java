@@ -0,0 +1,177 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.cache;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link TinyLfuCache} class.
+ *
+ * @author Jakub Narloch
+ */
+public class TinyLfuCacheTest {
+
+    @Test
+    public void shouldCacheValue() {
+
+        // given
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(16);
+
+        // when
+        cache.put("/uaa/authorize", "uaa");
+
+        // then
+        assertEquals("uaa", cache.get("/uaa/authorize"));
+        assertNull(cache.get("/uaa/token"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void shouldNotExceedMaximumSize() {
+
+        // given
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(100);
+
+        // when
+        for (int index = 0; index < 10000; index++) {
+            final String key = "/api/" + index;
+            cache.get(key);
+            cache.put(key, key);
+        }
+
+        // then
+        assertTrue(cache.size() <= 100);
+    }
+
+    @Test
+    public void shouldNotAdmitRarelyUsedKeys() {
+
+        // given
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(64, 1);
+        for (int index = 0; index < 64; index++) {
+            final String key = "/api/" + index;
+            cache.get(key);
+            cache.put(key, key);
+        }
+
+        // when
+        for (int index = 0; index < 10000; index++) {
+            final String key = "/api/" + index % 64;
+            if (cache.get(key) == null) {
+                cache.put(key, key);
+            }
+            final String scan = "/scan/" + index;
+            cache.get(scan);
+            cache.put(scan, scan);
+        }
+
+        // then
+        int cached = 0;
+        for (int index = 0; index < 64; index++) {
+            if (cache.get("/api/" + index) != null) {
+                cached++;
+            }
+        }
+        assertTrue(cached >= 60);
+    }
+
+    @Test
+    public void shouldAdmitFrequentlyUsedKeys() {
+
+        // given
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(1, 1);
+        cache.put("/api/1", "/api/1");
+
+        // when
+        for (int access = 0; access < 5; access++) {
+            cache.get("/api/2");
+        }
+        final boolean admitted = cache.put("/api/2", "/api/2");
+
+        // then
+        assertTrue(admitted);
+        assertNull(cache.get("/api/1"));
+        assertEquals("/api/2", cache.get("/api/2"));
+    }
+
+    @Test
+    public void shouldReportStats() {
+
+        // given
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(1, 1);
+        cache.put("/api/1", "/api/1");
+
+        // when
+        cache.get("/api/1");
+        cache.get("/api/1");
+        cache.get("/api/1");
+        cache.get("/api/2");
+        final boolean admitted = cache.put("/api/2", "/api/2");
+
+        // then
+        final CacheStats stats = cache.stats();
+        assertFalse(admitted);
+        assertEquals(3, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(0, stats.getEvictionCount());
+        assertEquals(1, stats.getRejectionCount());
+        assertEquals(0.75, stats.getHitRatio(), 0.0);
+    }
+
+    @Test
+    public void shouldCountHitsOfConcurrentReaders() throws Exception {
+
+        // given
+        final TinyLfuCache<String, String> cache = new TinyLfuCache<String, String>(16);
+        cache.put("/api/1", "/api/1");
+        final Thread[] readers = new Thread[8];
+        for (int index = 0; index < readers.length; index++) {
+            readers[index] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int access = 0; access < 10000; access++) {
+                        cache.get("/api/1");
+                    }
+                }
+            });
+        }
+
+        // when
+        for (Thread reader : readers) {
+            reader.start();
+        }
+        for (Thread reader : readers) {
+            reader.join();
+        }
+
+        // then
+        assertEquals(80000, cache.stats().getHitCount());
+        assertEquals(0, cache.stats().getMissCount());
+        assertEquals("/api/1", cache.get("/api/1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNonPositiveSize() {
+
+        // expect
+        new TinyLfuCache<String, String>(0);
+    }
+}
@@ -0,0 +1,260 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link HostRouteMatcher} class.
+ *
+ * @author Jakub Narloch
+ */
+public class HostRouteMatcherTest {
+
+    private HostRouteMatcher instance;
+
+    @Before
+    public void setUp() throws Exception {
+
+        instance = new HostRouteMatcher();
+        instance.setHosts(getHosts());
+        instance.setRoutes(getRoutes());
+    }
+
+    @Test
+    public void shouldMatchExactHost() {
+        // given
+        final String host = "api.example.com";
+        final String path = "/orders/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders", result.getId());
+    }
+
+    @Test
+    public void shouldMatchWildcardHost() {
+        // given
+        final String host = "tenant.example.com";
+        final String path = "/users/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("users", result.getId());
+    }
+
+    @Test
+    public void shouldNotMatchWildcardHostParentDomain() {
+        // given
+        final String host = "example.com";
+        final String path = "/users/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldMatchHostIgnoringPortAndCase() {
+        // given
+        final String host = "API.Example.COM:8080";
+        final String path = "/orders/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders", result.getId());
+    }
+
+    @Test
+    public void shouldMatchHostWithTrailingDot() {
+        // given
+        final String host = "example.com.";
+        final String path = "/home/index";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("home", result.getId());
+    }
+
+    @Test
+    public void shouldMatchMostSpecificWildcardHost() {
+        // given
+        final String host = "tenant.eu.example.com";
+        final String path = "/users/admin/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("admin", result.getId());
+    }
+
+    @Test
+    public void shouldFallBackToLessSpecificWildcardHost() {
+        // given
+        final String host = "tenant.eu.example.com";
+        final String path = "/users/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("users", result.getId());
+    }
+
+    @Test
+    public void shouldFallBackToWildcardHostOfExactHostSubdomain() {
+        // given
+        final String host = "www.api.example.com";
+
+        // expect
+        assertNull(instance.getMatchingRoute(host, "/orders/1", 0, "/orders/1".length()));
+        assertEquals("users", instance.getMatchingRoute(host, "/users/1", 0, "/users/1".length()).getId());
+    }
+
+    @Test
+    public void shouldNotMatchHostSharingSuffix() {
+        // given
+        final String host = "myexample.com";
+        final String path = "/home/index";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldFallBackToRoutesWithoutHost() {
+        // given
+        final String host = "api.example.com";
+        final String path = "/status/health";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(host, path, 0, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("status", result.getId());
+    }
+
+    @Test
+    public void shouldMatchOnlyRoutesWithoutHost() {
+
+        // expect
+        assertNull(instance.getMatchingRoute("/orders/1"));
+        assertEquals("status", instance.getMatchingRoute("/status/health").getId());
+    }
+
+    @Test
+    public void shouldMatchRoutesWithoutHostsConfigured() {
+        // given
+        final HostRouteMatcher matcher = new HostRouteMatcher();
+        matcher.setRoutes(getRoutes());
+
+        // when
+        final ZuulProperties.ZuulRoute result = matcher.getMatchingRoute("api.example.com", "/orders/1", 0, 9);
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders", result.getId());
+    }
+
+    @Test
+    public void shouldMatchNothingWithoutRoutes() {
+
+        // expect
+        assertNull(new HostRouteMatcher().getMatchingRoute("api.example.com", "/orders/1", 0, 9));
+    }
+
+    @Test
+    public void shouldMatchRoutesQualifiedWithHost() {
+        // given
+        final Map<String, ZuulProperties.ZuulRoute> routes = new HashMap<String, ZuulProperties.ZuulRoute>();
+        routes.put("a.example.com /orders/**",
+                new ZuulProperties.ZuulRoute("orders-a", "/orders/**", "orders-a", null, true, null));
+        routes.put("b.example.com /orders/**",
+                new ZuulProperties.ZuulRoute("orders-b", "/orders/**", "orders-b", null, true, null));
+        final HostRouteMatcher matcher = new HostRouteMatcher();
+
+        // when
+        matcher.setRoutes(routes);
+
+        // then
+        assertEquals("orders-a", matcher.getMatchingRoute("a.example.com", "/orders/1", 0, 9).getId());
+        assertEquals("orders-b", matcher.getMatchingRoute("b.example.com", "/orders/1", 0, 9).getId());
+        assertNull(matcher.getMatchingRoute("/orders/1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidHostPattern() {
+        // given
+        instance.setHosts(Collections.singletonMap("orders", "api.*.com"));
+
+        // when
+        instance.setRoutes(getRoutes());
+    }
+
+    protected Map<String, String> getHosts() {
+
+        final Map<String, String> hosts = new HashMap<String, String>();
+        hosts.put("orders", "api.example.com");
+        hosts.put("home", "example.com");
+        hosts.put("users", "*.example.com");
+        hosts.put("admin", "*.eu.example.com");
+        return hosts;
+    }
+
+    protected Map<String, ZuulProperties.ZuulRoute> getRoutes() {
+
+        final Map<String, ZuulProperties.ZuulRoute> routes =
+                new HashMap<String, ZuulProperties.ZuulRoute>();
+        routes.put("/orders/**", new ZuulProperties.ZuulRoute("orders", "/orders/**", "orders", null, true, null));
+        routes.put("/home/**", new ZuulProperties.ZuulRoute("home", "/home/**", "home", null, true, null));
+        routes.put("/users/**", new ZuulProperties.ZuulRoute("users", "/users/**", "users", null, true, null));
+        routes.put("/users/admin/**",
+                new ZuulProperties.ZuulRoute("admin", "/users/admin/**", "admin", null, true, null));
+        routes.put("/status/**", new ZuulProperties.ZuulRoute("status", "/status/**", "status", null, true, null));
+        return routes;
+    }
+}
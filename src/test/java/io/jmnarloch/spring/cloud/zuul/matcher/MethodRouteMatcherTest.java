@@ -0,0 +1,164 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link MethodRouteMatcher} class.
+ *
+ * @author Jakub Narloch
+ */
+public class MethodRouteMatcherTest {
+
+    private MethodRouteMatcher instance;
+
+    @Before
+    public void setUp() throws Exception {
+
+        instance = new MethodRouteMatcher();
+        instance.setRoutes(getRoutes());
+    }
+
+    @Test
+    public void shouldMatchMethodRoute() {
+        // given
+        final String path = "/orders/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("POST", path);
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders-write", result.getId());
+    }
+
+    @Test
+    public void shouldMatchRouteOfAnyListedMethod() {
+
+        // expect
+        assertEquals("orders-read", instance.getMatchingRoute("GET", "/orders/1").getId());
+        assertEquals("orders-read", instance.getMatchingRoute("HEAD", "/orders/1").getId());
+    }
+
+    @Test
+    public void shouldFallBackToAnyMethodRoute() {
+        // given
+        final String path = "/orders/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("DELETE", path);
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders", result.getId());
+    }
+
+    @Test
+    public void shouldFallBackToAnyMethodRouteForUnsupportedMethod() {
+        // given
+        final String path = "/orders/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("PROPFIND", path);
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders", result.getId());
+    }
+
+    @Test
+    public void shouldMatchAnyMethodRouteWithoutMethod() {
+
+        // expect
+        assertEquals("orders", instance.getMatchingRoute("/orders/1").getId());
+        assertEquals("orders", instance.getMatchingRoute(null, "/orders/1").getId());
+    }
+
+    @Test
+    public void shouldNotMatchPathWithoutAnyMethodRoute() {
+
+        // expect
+        assertEquals("users-write", instance.getMatchingRoute("PUT", "/users/1").getId());
+        assertNull(instance.getMatchingRoute("GET", "/users/1"));
+        assertNull(instance.getMatchingRoute("/users/1"));
+    }
+
+    @Test
+    public void shouldFallBackToLessSpecificRouteOfMethod() {
+        // given
+        final Map<String, ZuulProperties.ZuulRoute> routes = new HashMap<String, ZuulProperties.ZuulRoute>();
+        routes.put("GET /orders/**",
+                new ZuulProperties.ZuulRoute("orders-read", "/orders/**", "orders-read", null, true, null));
+        routes.put("/**", new ZuulProperties.ZuulRoute("default", "/**", "default", null, true, null));
+        instance.setRoutes(routes);
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("POST", "/orders/1");
+
+        // then
+        assertNotNull(result);
+        assertEquals("default", result.getId());
+        assertEquals("orders-read", instance.getMatchingRoute("GET", "/orders/1").getId());
+        assertEquals("default", instance.getMatchingRoute("PROPFIND", "/orders/1").getId());
+        assertEquals("default", instance.getMatchingRoute("/orders/1").getId());
+    }
+
+    @Test
+    public void shouldMatchMethodRouteInRegion() {
+        // given
+        final String path = "/zuul/orders/1";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("POST", path, 5, path.length());
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders-write", result.getId());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectUnsupportedMethod() {
+
+        // when
+        instance.setRoutes(Collections.singletonMap("FETCH /orders/**",
+                new ZuulProperties.ZuulRoute("orders", "/orders/**", "orders", null, true, null)));
+    }
+
+    protected Map<String, ZuulProperties.ZuulRoute> getRoutes() {
+
+        final Map<String, ZuulProperties.ZuulRoute> routes =
+                new HashMap<String, ZuulProperties.ZuulRoute>();
+        routes.put("/orders/**", new ZuulProperties.ZuulRoute("orders", "/orders/**", "orders", null, true, null));
+        routes.put("GET,head /orders/**",
+                new ZuulProperties.ZuulRoute("orders-read", "/orders/**", "orders-read", null, true, null));
+        routes.put("POST /orders/**",
+                new ZuulProperties.ZuulRoute("orders-write", "/orders/**", "orders-write", null, true, null));
+        routes.put("PUT /users/**",
+                new ZuulProperties.ZuulRoute("users-write", "/users/**", "users-write", null, true, null));
+        return routes;
+    }
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.trie.PathMatch;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link PathTrieRouteMatcher} class.
+ *
+ * @author Jakub Narloch
+ */
+public class PathTrieRouteMatcherTest {
+
+    private PathTrieRouteMatcher instance;
+
+    @Before
+    public void setUp() throws Exception {
+
+        instance = new PathTrieRouteMatcher();
+        instance.setRoutes(getRoutes());
+    }
+
+    @Test
+    public void shouldNotMatchWildcardRoute() {
+        // given
+        final String path = "/accounts/";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldMatchWildcardRoute() {
+        // given
+        final String path = "/account/details";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNotNull(result);
+        assertEquals("account", result.getId());
+    }
+
+    @Test
+    public void shouldMatchSingleSegmentWildcardRoute() {
+        // given
+        final String path = "/orders/1/items";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNotNull(result);
+        assertEquals("items", result.getId());
+    }
+
+    @Test
+    public void shouldNotMatchSingleSegmentWildcardRoute() {
+        // given
+        final String path = "/orders/1/2/items";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldNotMatchExactRouteWithSuffix() {
+        // given
+        final String path = "/uaa/authorize";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldMatchRouteInRegion() {
+        // given
+        final String path = "/zuul/account/details";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path, 5, path.length());
+
+        // then
+        assertNotNull(result);
+    }
+
+    @Test
+    public void shouldMatchExactRoute() {
+        // given
+        final String path = "/uaa/";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNotNull(result);
+    }
+
+    @Test
+    public void shouldNotMatchBeforeRoutesAreSet() {
+        // given
+        instance = new PathTrieRouteMatcher();
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("/uaa/");
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldCaptureTemplateVariables() {
+        // given
+        final String path = "/users/j.doe/orders/1";
+        final PathMatch<ZuulProperties.ZuulRoute> match = new PathMatch<ZuulProperties.ZuulRoute>();
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path, 0, path.length(), match);
+
+        // then
+        assertNotNull(result);
+        assertEquals("orders", result.getId());
+        assertEquals(7, match.getStart(match.indexOf("user")));
+        assertEquals(12, match.getEnd(match.indexOf("user")));
+    }
+
+    protected Map<String, ZuulProperties.ZuulRoute> getRoutes() {
+
+        final Map<String, ZuulProperties.ZuulRoute> routes =
+                new HashMap<String, ZuulProperties.ZuulRoute>();
+        routes.put("/uaa/", new ZuulProperties.ZuulRoute("uaa", "/uaa/", "uaa", "/uaa", false, null));
+        routes.put("/account/**", new ZuulProperties.ZuulRoute("account", "/account/**", "account", "/account", false, null));
+        routes.put("/users/{user}/orders/**",
+                new ZuulProperties.ZuulRoute("orders", "/users/{user}/orders/**", "orders", null, false, null));
+        routes.put("/orders/*/items", new ZuulProperties.ZuulRoute("items", "/orders/*/items", "items", "/items", false, null));
+        return routes;
+    }
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link PersistentTrieRouteMatcher} class.
+ *
+ * @author Jakub Narloch
+ */
+public class PersistentTrieRouteMatcherTest {
+
+    private PersistentTrieRouteMatcher instance;
+
+    @Before
+    public void setUp() throws Exception {
+
+        instance = new PersistentTrieRouteMatcher();
+        instance.setRoutes(getRoutes());
+    }
+
+    @Test
+    public void shouldNotMatchWildcardRoute() {
+        // given
+        final String path = "/accounts/";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldMatchWildcardRoute() {
+        // given
+        final String path = "/account/details";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNotNull(result);
+    }
+
+    @Test
+    public void shouldFallBackToWildcardRoute() {
+        // given
+        final Map<String, ZuulProperties.ZuulRoute> routes = getRoutes();
+        routes.put("/account/details",
+                new ZuulProperties.ZuulRoute("details", "/account/details", "details", null, false, null));
+        instance.setRoutes(routes);
+
+        // when
+        final ZuulProperties.ZuulRoute exact = instance.getMatchingRoute("/account/details");
+        final ZuulProperties.ZuulRoute fallback = instance.getMatchingRoute("/account/details/42");
+
+        // then
+        assertEquals("details", exact.getId());
+        assertEquals("account", fallback.getId());
+    }
+
+    @Test
+    public void shouldNotMatchExactRouteWithSuffix() {
+        // given
+        final String path = "/uaa/authorize";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldMatchExactRoute() {
+        // given
+        final String path = "/uaa/";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path);
+
+        // then
+        assertNotNull(result);
+    }
+
+    @Test
+    public void shouldApplyRouteChanges() {
+        // given
+        final Map<String, ZuulProperties.ZuulRoute> routes = getRoutes();
+        routes.remove("/uaa/");
+        routes.put("/account/**", new ZuulProperties.ZuulRoute("accounts", "/account", "accounts", "/account", false,
+                null));
+        routes.put("/orders/**", new ZuulProperties.ZuulRoute("orders", "/orders", "orders", "/orders", false, null));
+
+        // when
+        instance.setRoutes(routes);
+
+        // then
+        assertNull(instance.getMatchingRoute("/uaa/"));
+        assertEquals("accounts", instance.getMatchingRoute("/account/details").getId());
+        assertEquals("orders", instance.getMatchingRoute("/orders/1").getId());
+    }
+
+    @Test
+    public void shouldNotMatchBeforeRoutesAreSet() {
+        // given
+        instance = new PersistentTrieRouteMatcher();
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("/uaa/");
+
+        // then
+        assertNull(result);
+    }
+
+    protected Map<String, ZuulProperties.ZuulRoute> getRoutes() {
+
+        final Map<String, ZuulProperties.ZuulRoute> routes =
+                new HashMap<String, ZuulProperties.ZuulRoute>();
+        routes.put("/uaa/", new ZuulProperties.ZuulRoute("uaa", "/uaa", "uaa", "/uaa", false, null));
+        routes.put("/account/**", new ZuulProperties.ZuulRoute("account", "/account", "account", "/account", false, null));
+        return routes;
+    }
+}
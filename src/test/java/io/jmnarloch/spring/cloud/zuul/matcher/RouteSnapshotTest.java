@@ -0,0 +1,161 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.matcher;
+
+import io.jmnarloch.spring.cloud.zuul.route.PrecomputedZuulRoute;
+import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link RouteSnapshot} class.
+ *
+ * @author Jakub Narloch
+ */
+public class RouteSnapshotTest {
+
+    private File file;
+
+    @Before
+    public void setUp() throws Exception {
+        file = File.createTempFile("routes", ".snapshot");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        file.delete();
+    }
+
+    @Test
+    public void shouldReadWrittenSnapshot() throws Exception {
+
+        // given
+        final Trie<ZuulRouteEntry> trie = Tries.newCharArrayTrie();
+        put(trie, new ZuulRouteEntry("/account/**",
+                new ZuulProperties.ZuulRoute("account", "/account/**", "account", null, true, Boolean.TRUE)));
+        put(trie, new ZuulRouteEntry("/uaa/",
+                new ZuulProperties.ZuulRoute("uaa", "/uaa/", null, "http://uaa", false, null)));
+        RouteSnapshot.write(trie, file);
+
+        // when
+        final Trie<ZuulRouteEntry> result = RouteSnapshot.read(file);
+
+        // then
+        assertEquals(2, result.size());
+        final ZuulRouteEntry account = result.prefix("/account/details");
+        assertEquals("/account/**", account.getPath());
+        assertTrue(account.isWildcard());
+        assertEquals("account", account.getRoute().getId());
+        assertEquals("account", account.getRoute().getServiceId());
+        assertNull(account.getRoute().getUrl());
+        assertTrue(account.getRoute().isStripPrefix());
+        assertEquals(Boolean.TRUE, account.getRoute().getRetryable());
+        final ZuulRouteEntry uaa = result.get("/uaa/");
+        assertEquals("http://uaa", uaa.getRoute().getUrl());
+        assertNull(uaa.getRoute().getServiceId());
+        assertFalse(uaa.getRoute().isStripPrefix());
+        assertNull(uaa.getRoute().getRetryable());
+    }
+
+    @Test
+    public void shouldReadPrecomputedRoutes() throws Exception {
+
+        // given
+        final ZuulProperties properties = new ZuulProperties();
+        properties.setPrefix("/gateway");
+        properties.setRetryable(true);
+        final PrecomputedZuulRoute route = new PrecomputedZuulRoute(
+                new ZuulProperties.ZuulRoute("account", "/account/**", "account", null, true, null), properties);
+        final Trie<ZuulRouteEntry> trie = Tries.newCharArrayTrie();
+        put(trie, new ZuulRouteEntry("/account/**", route));
+        RouteSnapshot.write(trie, file);
+
+        // when
+        final Trie<ZuulRouteEntry> result = RouteSnapshot.read(file);
+
+        // then
+        final ZuulProperties.ZuulRoute account = result.prefix("/account/details").getRoute();
+        assertTrue(account instanceof PrecomputedZuulRoute);
+        assertEquals(route, account);
+        assertEquals("/gateway/account", ((PrecomputedZuulRoute) account).getSpecPrefix());
+        assertEquals(Boolean.TRUE, ((PrecomputedZuulRoute) account).getSpecRetryable());
+    }
+
+    @Test
+    public void shouldReadEmptySnapshot() throws Exception {
+
+        // given
+        RouteSnapshot.write(Tries.<ZuulRouteEntry>newCharArrayTrie(), file);
+
+        // when
+        final Trie<ZuulRouteEntry> result = RouteSnapshot.read(file);
+
+        // then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectCorruptedSnapshot() throws Exception {
+
+        // given
+        final Trie<ZuulRouteEntry> trie = Tries.newCharArrayTrie();
+        put(trie, new ZuulRouteEntry("/uaa/**",
+                new ZuulProperties.ZuulRoute("uaa", "/uaa/**", "uaa", null, false, null)));
+        RouteSnapshot.write(trie, file);
+        final RandomAccessFile content = new RandomAccessFile(file, "rw");
+        try {
+            content.seek(12);
+            content.write(0xFF);
+        } finally {
+            content.close();
+        }
+
+        // expect
+        RouteSnapshot.read(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRejectOtherFile() throws Exception {
+
+        // given
+        final RandomAccessFile content = new RandomAccessFile(file, "rw");
+        try {
+            content.writeLong(42L);
+            content.writeLong(42L);
+        } finally {
+            content.close();
+        }
+
+        // expect
+        RouteSnapshot.read(file);
+    }
+
+    private static void put(Trie<ZuulRouteEntry> trie, ZuulRouteEntry entry) {
+        trie.put(entry.getKey(), entry);
+    }
+}
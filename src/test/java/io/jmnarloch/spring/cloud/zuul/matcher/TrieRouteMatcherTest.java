@@ -16,16 +16,23 @@
 package io.jmnarloch.spring.cloud.zuul.matcher;
 
 import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.TrieStats;
 import io.jmnarloch.spring.cloud.zuul.trie.Tries;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
 
+import java.io.File;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the {@link TrieRouteMatcher} class.
@@ -72,6 +79,23 @@ public class TrieRouteMatcherTest {
         assertNotNull(result);
     }
 
+    @Test
+    public void shouldFallBackToWildcardRoute() {
+        // given
+        final Map<String, ZuulProperties.ZuulRoute> routes = getRoutes();
+        routes.put("/account/details",
+                new ZuulProperties.ZuulRoute("details", "/account/details", "details", null, false, null));
+        instance.setRoutes(routes);
+
+        // when
+        final ZuulProperties.ZuulRoute exact = instance.getMatchingRoute("/account/details");
+        final ZuulProperties.ZuulRoute fallback = instance.getMatchingRoute("/account/details/42");
+
+        // then
+        assertEquals("details", exact.getId());
+        assertEquals("account", fallback.getId());
+    }
+
     @Test
     public void shouldNotMatchExactRouteWithSuffix() {
         // given
@@ -84,6 +108,18 @@ public class TrieRouteMatcherTest {
         assertNull(result);
     }
 
+    @Test
+    public void shouldMatchRouteInRegion() {
+        // given
+        final String path = "/zuul/account/details";
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute(path, 5, path.length());
+
+        // then
+        assertNotNull(result);
+    }
+
     @Test
     public void shouldMatchExactRoute() {
         // given
@@ -108,6 +144,147 @@ public class TrieRouteMatcherTest {
         assertNull(result);
     }
 
+    @Test
+    public void shouldMatchRouteWithoutCompiling() {
+        // given
+        instance = new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+            @Override
+            public <T> Trie<T> createTrie() {
+                return Tries.newCharHashMapTrie();
+            }
+        }, new TrieRouteMatcher.TrieCompiler() {
+            @Override
+            public <T> Trie<T> compile(Trie<T> trie) {
+                return trie;
+            }
+        });
+        instance.setRoutes(getRoutes());
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("/account/details");
+
+        // then
+        assertNotNull(result);
+    }
+
+    @Test
+    public void shouldReturnStatsOfPublishedTrie() {
+
+        // when
+        final TrieStats stats = instance.getStats();
+
+        // then
+        assertNotNull(stats);
+        assertEquals(2, stats.getValueCount());
+        assertEquals("/account/".length(), stats.getMaxDepth());
+    }
+
+    @Test
+    public void shouldNotReturnStatsBeforeRoutesAreSet() {
+
+        // given
+        instance = new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+            @Override
+            public <T> Trie<T> createTrie() {
+                return Tries.newCharHashMapTrie();
+            }
+        });
+
+        // when
+        final TrieStats stats = instance.getStats();
+
+        // then
+        assertNull(stats);
+    }
+
+    @Test
+    public void shouldMatchSnapshotRoutesBeforeRoutesAreSet() throws Exception {
+
+        // given
+        final File file = File.createTempFile("routes", ".snapshot");
+        try {
+            instance.setSnapshotFile(file);
+            instance.setRoutes(getRoutes());
+            instance.shutdown();
+            assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+            final TrieRouteMatcher matcher = new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+                @Override
+                public <T> Trie<T> createTrie() {
+                    return Tries.newCharHashMapTrie();
+                }
+            });
+            matcher.setSnapshotFile(file);
+
+            // when
+            final boolean loaded = matcher.loadSnapshot();
+
+            // then
+            assertTrue(loaded);
+            assertEquals("account", matcher.getMatchingRoute("/account/details").getId());
+            assertNull(matcher.getMatchingRoute("/uaa/authorize"));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldNotLoadMissingSnapshot() throws Exception {
+
+        // given
+        final File file = File.createTempFile("routes", ".snapshot");
+        file.delete();
+        instance.setSnapshotFile(file);
+
+        // when
+        final boolean loaded = instance.loadSnapshot();
+
+        // then
+        assertFalse(loaded);
+    }
+
+    @Test
+    public void shouldMatchRoutesBuiltInParallel() {
+
+        // given
+        final Map<String, ZuulProperties.ZuulRoute> routes = new HashMap<String, ZuulProperties.ZuulRoute>();
+        for (int index = 0; index < 2000; index++) {
+            final String id = "service" + index;
+            routes.put("/" + id + "/**", new ZuulProperties.ZuulRoute(id, "/" + id + "/**", id, null, true, null));
+        }
+        final ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            instance.setBuildPool(pool);
+
+            // when
+            instance.setRoutes(routes);
+
+            // then
+            assertEquals(2000, instance.getStats().getValueCount());
+            assertEquals("service1234", instance.getMatchingRoute("/service1234/orders/1").getId());
+            assertEquals("service12", instance.getMatchingRoute("/service12/orders/1").getId());
+            assertNull(instance.getMatchingRoute("/service2000/orders/1"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldMatchRoutesIgnoringCase() {
+
+        // given
+        instance.setCaseInsensitive(true);
+        instance.setRoutes(getRoutes());
+
+        // when
+        final ZuulProperties.ZuulRoute result = instance.getMatchingRoute("/ACCOUNT/Details");
+
+        // then
+        assertEquals("account", result.getId());
+        assertEquals("uaa", instance.getMatchingRoute("/UAA/").getId());
+        assertNull(instance.getMatchingRoute("/UAA/authorize"));
+    }
+
     protected Map<String, ZuulProperties.ZuulRoute> getRoutes() {
 
         final Map<String, ZuulProperties.ZuulRoute> routes =
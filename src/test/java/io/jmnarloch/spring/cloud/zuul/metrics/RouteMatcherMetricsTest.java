@@ -0,0 +1,143 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link RouteMatcherMetrics} class.
+ *
+ * @author Jakub Narloch
+ */
+public class RouteMatcherMetricsTest {
+
+    @Test
+    public void shouldCountMatches() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics();
+
+        // when
+        metrics.recordMatch(true);
+        metrics.recordMatch(true);
+        metrics.recordMatch(false);
+
+        // then
+        assertEquals(2, metrics.getMatchedCount());
+        assertEquals(1, metrics.getUnmatchedCount());
+    }
+
+    @Test
+    public void shouldRecordMatchTime() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics();
+
+        // when
+        metrics.recordMatchTime(100);
+        metrics.recordMatchTime(300);
+
+        // then
+        assertEquals(2, metrics.getSampleCount());
+        assertEquals(200.0, metrics.getMeanMatchNanos(), 0.0);
+        assertEquals(300, metrics.getMaxMatchNanos());
+    }
+
+    @Test
+    public void shouldRecordRebuilds() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics();
+
+        // when
+        metrics.recordRebuild(1000, 10);
+        metrics.recordRebuild(3000, 12);
+
+        // then
+        assertEquals(2, metrics.getRebuildCount());
+        assertEquals(4000, metrics.getTotalRebuildNanos());
+        assertEquals(3000, metrics.getLastRebuildNanos());
+        assertEquals(12, metrics.getRouteCount());
+    }
+
+    @Test
+    public void shouldRecordSkippedRebuilds() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics();
+
+        // when
+        metrics.recordSkippedRebuild();
+        metrics.recordSkippedRebuild();
+
+        // then
+        assertEquals(2, metrics.getSkippedRebuildCount());
+        assertEquals(0, metrics.getRebuildCount());
+    }
+
+    @Test
+    public void shouldSampleEveryLookup() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics(1);
+
+        // expect
+        for (int i = 0; i < 100; i++) {
+            assertTrue(metrics.sample());
+        }
+    }
+
+    @Test
+    public void shouldNotSampleWhenTimingDisabled() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics(0);
+
+        // expect
+        for (int i = 0; i < 100; i++) {
+            assertFalse(metrics.sample());
+        }
+    }
+
+    @Test
+    public void shouldSampleFractionOfLookups() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics(16);
+
+        // when
+        int sampled = 0;
+        for (int i = 0; i < 16000; i++) {
+            if (metrics.sample()) {
+                sampled++;
+            }
+        }
+
+        // then
+        assertTrue(sampled > 500 && sampled < 1500);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNegativeSampleRate() {
+
+        // expect
+        new RouteMatcherMetrics(-1);
+    }
+}
@@ -0,0 +1,201 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.route;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link AsyncRouteRebuilder} class.
+ *
+ * @author Jakub Narloch
+ */
+public class AsyncRouteRebuilderTest {
+
+    private AsyncRouteRebuilder instance;
+
+    @Before
+    public void setUp() throws Exception {
+        instance = new AsyncRouteRebuilder();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        instance.shutdown();
+    }
+
+    @Test
+    public void shouldRunRebuildInBackground() throws Exception {
+
+        // given
+        final Thread caller = Thread.currentThread();
+        final AtomicBoolean background = new AtomicBoolean();
+
+        // when
+        instance.submit(new Runnable() {
+            @Override
+            public void run() {
+                background.set(Thread.currentThread() != caller);
+            }
+        });
+        instance.shutdown();
+
+        // then
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+        assertTrue(background.get());
+    }
+
+    @Test
+    public void shouldMergePendingRebuilds() throws Exception {
+
+        // given
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable rebuild = new Runnable() {
+            @Override
+            public void run() {
+                if (runs.incrementAndGet() == 1) {
+                    started.countDown();
+                    await(release);
+                }
+            }
+        };
+        instance.submit(rebuild);
+        started.await(10, TimeUnit.SECONDS);
+
+        // when
+        for (int index = 0; index < 10; index++) {
+            instance.submit(rebuild);
+        }
+        release.countDown();
+        instance.shutdown();
+
+        // then
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    public void shouldRunRebuildAfterFailure() throws Exception {
+
+        // given
+        final CountDownLatch failed = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        instance.submit(new Runnable() {
+            @Override
+            public void run() {
+                failed.countDown();
+                throw new IllegalStateException("Discovery is not available");
+            }
+        });
+        failed.await(10, TimeUnit.SECONDS);
+
+        // when
+        instance.submit(new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        });
+        instance.shutdown();
+
+        // then
+        assertTrue(instance.awaitTermination(10, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void shouldDebounceBurstOfRebuilds() throws Exception {
+
+        // given
+        instance.shutdown();
+        instance = new AsyncRouteRebuilder(200, 10000, TimeUnit.MILLISECONDS);
+        final CountDownLatch completed = new CountDownLatch(1);
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable rebuild = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+                completed.countDown();
+            }
+        };
+
+        // when
+        final boolean queued = instance.submit(rebuild);
+        int merged = 0;
+        for (int index = 0; index < 10; index++) {
+            if (!instance.submit(rebuild)) {
+                merged++;
+            }
+        }
+
+        // then
+        assertTrue(queued);
+        assertEquals(10, merged);
+        assertTrue(completed.await(10, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void shouldNotDelayRebuildLongerThanMaxDelay() throws Exception {
+
+        // given
+        instance.shutdown();
+        instance = new AsyncRouteRebuilder(200, 400, TimeUnit.MILLISECONDS);
+        final AtomicInteger runs = new AtomicInteger();
+        final Runnable rebuild = new Runnable() {
+            @Override
+            public void run() {
+                runs.incrementAndGet();
+            }
+        };
+
+        // when
+        final long start = System.nanoTime();
+        while (runs.get() == 0 && System.nanoTime() - start < TimeUnit.SECONDS.toNanos(10)) {
+            instance.submit(rebuild);
+            Thread.sleep(20);
+        }
+
+        // then
+        assertEquals(1, runs.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMaxDelayLowerThanMinInterval() {
+
+        // expect
+        new AsyncRouteRebuilder(200, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,601 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.route;
+
+import io.jmnarloch.spring.cloud.zuul.matcher.HostRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.MethodRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.PathTrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.matcher.TrieRouteMatcher;
+import io.jmnarloch.spring.cloud.zuul.metrics.RouteMatcherMetrics;
+import io.jmnarloch.spring.cloud.zuul.trie.Trie;
+import io.jmnarloch.spring.cloud.zuul.trie.Tries;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.ProxyRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link MatcherProxyRouteLocator} class.
+ *
+ * @author Jakub Narloch
+ */
+public class MatcherProxyRouteLocatorTest {
+
+    private ZuulProperties properties;
+
+    @Before
+    public void setUp() throws Exception {
+
+        properties = new ZuulProperties();
+        properties.getRoutes().put("api", new ZuulProperties.ZuulRoute("api", "/api/**", "api", null, true, null));
+        properties.getRoutes().put("uaa", new ZuulProperties.ZuulRoute("uaa", "/uaa/**", "uaa", null, false, true));
+    }
+
+    @Test
+    public void shouldStripRoutePrefix() {
+
+        // given
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/api", null), result);
+    }
+
+    @Test
+    public void shouldNotStripRoutePrefix() {
+
+        // given
+        properties.setRetryable(false);
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/uaa/authorize");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("uaa", "/uaa/authorize", "uaa", "", true), result);
+    }
+
+    @Test
+    public void shouldStripGlobalAndRoutePrefix() {
+
+        // given
+        properties.setPrefix("/gateway");
+        properties.setRetryable(true);
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/gateway/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/gateway/api", true), result);
+    }
+
+    @Test
+    public void shouldStripOnlyRoutePrefix() {
+
+        // given
+        properties.setPrefix("/gateway");
+        properties.setStripPrefix(false);
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/gateway/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/gateway/users/1", "api", "/gateway/api", null),
+                result);
+    }
+
+    @Test
+    public void shouldStripServletPath() {
+
+        // given
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("/zuul", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher());
+        instance.resetRoutes();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/zuul/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/api", null), result);
+    }
+
+    @Test
+    public void shouldNotMatchRoute() {
+
+        // given
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/orders/1");
+
+        // then
+        assertNull(result);
+    }
+
+    @Test
+    public void shouldCacheMatchingRoute() {
+
+        // given
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher(), 100);
+        instance.resetRoutes();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec first = instance.getMatchingRoute("/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec second = instance.getMatchingRoute("/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec missing = instance.getMatchingRoute("/orders/1");
+
+        // then
+        assertSame(first, second);
+        assertNull(missing);
+        assertEquals(1, instance.getCacheStats().getHitCount());
+        assertEquals(2, instance.getCacheStats().getMissCount());
+    }
+
+    @Test
+    public void shouldInvalidateCacheOnReset() {
+
+        // given
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher(), 100);
+        instance.resetRoutes();
+        instance.getMatchingRoute("/api/users/1");
+
+        // when
+        properties.getRoutes().put("users", new ZuulProperties.ZuulRoute("users", "/api/users/**", "users", null,
+                true, null));
+        instance.resetRoutes();
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("users", "/1", "users", "/api/users", null), result);
+        assertEquals(0, instance.getCacheStats().getHitCount());
+    }
+
+    @Test
+    public void shouldNotReportStatsWithoutCache() {
+
+        // given
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // expect
+        assertNull(instance.getCacheStats());
+    }
+
+    @Test
+    public void shouldRecordMetrics() {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics(1);
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher(), 0, metrics);
+        instance.resetRoutes();
+
+        // when
+        instance.getMatchingRoute("/api/users/1");
+        instance.getMatchingRoute("/uaa/authorize");
+        instance.getMatchingRoute("/orders/1");
+
+        // then
+        assertSame(metrics, instance.getMetrics());
+        assertEquals(2, metrics.getMatchedCount());
+        assertEquals(1, metrics.getUnmatchedCount());
+        assertEquals(3, metrics.getSampleCount());
+        assertEquals(1, metrics.getRebuildCount());
+        assertEquals(2, metrics.getRouteCount());
+    }
+
+    @Test
+    public void shouldNotReportMetricsWhenDisabled() {
+
+        // given
+        final MatcherProxyRouteLocator instance = createLocator();
+
+        // expect
+        assertNull(instance.getMetrics());
+    }
+
+    @Test
+    public void shouldRebuildRoutesAsynchronously() throws Exception {
+
+        // given
+        final AsyncRouteRebuilder rebuilder = new AsyncRouteRebuilder();
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher(), 0, null, rebuilder);
+        instance.resetRoutes();
+        final ProxyRouteLocator.ProxyRouteSpec initial = instance.getMatchingRoute("/api/users/1");
+
+        // when
+        properties.getRoutes().put("users", new ZuulProperties.ZuulRoute("users", "/api/users/**", "users", null,
+                true, null));
+        instance.resetRoutes();
+        rebuilder.shutdown();
+        assertTrue(rebuilder.awaitTermination(10, TimeUnit.SECONDS));
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/api/users/1");
+
+        // then
+        assertEquals("api", initial.getId());
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("users", "/1", "users", "/api/users", null), result);
+    }
+
+    @Test
+    public void shouldRecordSkippedRebuilds() throws Exception {
+
+        // given
+        final RouteMatcherMetrics metrics = new RouteMatcherMetrics(1);
+        final AsyncRouteRebuilder rebuilder = new AsyncRouteRebuilder(200, 10000, TimeUnit.MILLISECONDS);
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher(), 0, metrics, rebuilder);
+        instance.resetRoutes();
+
+        // when
+        for (int index = 0; index < 5; index++) {
+            instance.resetRoutes();
+        }
+        rebuilder.shutdown();
+        assertTrue(rebuilder.awaitTermination(10, TimeUnit.SECONDS));
+
+        // then
+        assertEquals(2, metrics.getRebuildCount());
+        assertEquals(4, metrics.getSkippedRebuildCount());
+    }
+
+    @Test
+    public void shouldPublishRoutesWhileRebuildsAreRequested() throws Exception {
+
+        // given
+        final long maxDelay = 300;
+        final AsyncRouteRebuilder rebuilder = new AsyncRouteRebuilder(50, maxDelay, TimeUnit.MILLISECONDS);
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher(), 0, null, rebuilder) {
+            @Override
+            protected LinkedHashMap<String, ZuulProperties.ZuulRoute> locateRoutes() {
+                sleep(20);
+                return super.locateRoutes();
+            }
+        };
+        try {
+            instance.resetRoutes();
+            properties.getRoutes().put("users", new ZuulProperties.ZuulRoute("users", "/api/users/**", "users", null,
+                    true, null));
+
+            // when
+            final long start = System.nanoTime();
+            long elapsed = 0;
+            while (!"users".equals(instance.getMatchingRoute("/api/users/1").getId())
+                    && elapsed < TimeUnit.SECONDS.toNanos(10)) {
+                instance.resetRoutes();
+                sleep(1);
+                elapsed = System.nanoTime() - start;
+            }
+
+            // then
+            assertEquals("users", instance.getMatchingRoute("/api/users/1").getId());
+            assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(maxDelay + 500));
+        } finally {
+            rebuilder.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldStripRoutePrefixMatchedIgnoringCase() {
+
+        // given
+        final TrieRouteMatcher matcher = new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+            @Override
+            public <T> Trie<T> createTrie() {
+                return Tries.newHashMapTrie();
+            }
+        });
+        matcher.setCaseInsensitive(true);
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, matcher);
+        instance.resetRoutes();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("/API/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/api", null), result);
+    }
+
+    @Test
+    public void shouldMatchRouteByHost() {
+
+        // given
+        final HostRouteMatcher matcher = new HostRouteMatcher();
+        matcher.setHosts(Collections.singletonMap("api", "api.example.com"));
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, matcher, 100);
+        instance.resetRoutes();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec result = instance.getMatchingRoute("api.example.com:443",
+                "/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec other = instance.getMatchingRoute("www.example.com", "/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec pathOnly = instance.getMatchingRoute("/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/api", null), result);
+        assertNull(other);
+        assertNull(pathOnly);
+        assertEquals(1, instance.getCacheStats().getMissCount());
+    }
+
+    @Test
+    public void shouldMatchRoutesSharingPathByHost() {
+
+        // given
+        properties.getRoutes().put("api-b",
+                new ZuulProperties.ZuulRoute("api-b", "/api/**", "api-b", null, true, null));
+        final Map<String, String> hosts = new HashMap<String, String>();
+        hosts.put("api", "a.example.com");
+        hosts.put("api-b", "b.example.com");
+        final HostRouteMatcher matcher = new HostRouteMatcher();
+        matcher.setHosts(hosts);
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, matcher);
+        instance.resetRoutes();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec a = instance.getMatchingRoute("a.example.com", "/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec b = instance.getMatchingRoute("b.example.com", "/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/api", null), a);
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api-b", "/users/1", "api-b", "/api", null), b);
+        assertEquals("uaa", instance.getMatchingRoute("a.example.com", "/uaa/login").getId());
+        assertNull(instance.getMatchingRoute("c.example.com", "/api/users/1"));
+    }
+
+    @Test
+    public void shouldMatchRouteByMethod() {
+
+        // given
+        properties.getRoutes().put("api-write",
+                new ZuulProperties.ZuulRoute("api-write", "/api/**", "api-write", null, true, null));
+        final MethodRouteMatcher matcher = new MethodRouteMatcher();
+        matcher.setMethods(Collections.singletonMap("api-write", "POST,PUT"));
+        final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, matcher);
+        instance.resetRoutes();
+
+        // when
+        final ProxyRouteLocator.ProxyRouteSpec write = instance.getMatchingRoute("PUT", null, "/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec read = instance.getMatchingRoute("GET", null, "/api/users/1");
+        final ProxyRouteLocator.ProxyRouteSpec any = instance.getMatchingRoute("/api/users/1");
+
+        // then
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api-write", "/users/1", "api-write", "/api", null), write);
+        assertEquals(new ProxyRouteLocator.ProxyRouteSpec("api", "/users/1", "api", "/api", null), read);
+        assertEquals(read, any);
+    }
+
+    @Test
+    public void shouldMatchSnapshotRoutesBeforeFirstRebuildCompletes() throws Exception {
+
+        // given
+        final File file = File.createTempFile("routes", ".snapshot");
+        try {
+            final TrieRouteMatcher previous = createTrieRouteMatcher();
+            previous.setSnapshotFile(file);
+            new MatcherProxyRouteLocator("", new NoopDiscoveryClient(), properties, previous).resetRoutes();
+            previous.shutdown();
+            assertTrue(previous.awaitTermination(10, TimeUnit.SECONDS));
+
+            final TrieRouteMatcher matcher = createTrieRouteMatcher();
+            matcher.setSnapshotFile(file);
+            assertTrue(matcher.loadSnapshot());
+            properties.getRoutes().put("users", new ZuulProperties.ZuulRoute("users", "/api/users/**", "users", null,
+                    true, null));
+            final CountDownLatch discovered = new CountDownLatch(1);
+            final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                    properties, matcher) {
+                @Override
+                protected LinkedHashMap<String, ZuulProperties.ZuulRoute> locateRoutes() {
+                    await(discovered);
+                    return super.locateRoutes();
+                }
+            };
+
+            // when
+            instance.resetRoutes();
+            final ProxyRouteLocator.ProxyRouteSpec snapshot = instance.getMatchingRoute("/api/users/1");
+            discovered.countDown();
+
+            // then
+            assertEquals("api", snapshot.getId());
+            assertEquals("users", awaitMatchingRoute(instance, "/api/users/1", "users").getId());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldMergeResetsIntoSingleBackgroundRebuild() throws Exception {
+
+        // given
+        final File file = File.createTempFile("routes", ".snapshot");
+        try {
+            final TrieRouteMatcher previous = createTrieRouteMatcher();
+            previous.setSnapshotFile(file);
+            new MatcherProxyRouteLocator("", new NoopDiscoveryClient(), properties, previous).resetRoutes();
+            previous.shutdown();
+            assertTrue(previous.awaitTermination(10, TimeUnit.SECONDS));
+
+            final TrieRouteMatcher matcher = createTrieRouteMatcher();
+            matcher.setSnapshotFile(file);
+            assertTrue(matcher.loadSnapshot());
+            properties.getRoutes().put("users", new ZuulProperties.ZuulRoute("users", "/api/users/**", "users", null,
+                    true, null));
+            final CountDownLatch discovered = new CountDownLatch(1);
+            final AtomicInteger located = new AtomicInteger();
+            final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                    properties, matcher) {
+                @Override
+                protected LinkedHashMap<String, ZuulProperties.ZuulRoute> locateRoutes() {
+                    located.incrementAndGet();
+                    await(discovered);
+                    return super.locateRoutes();
+                }
+            };
+
+            // when
+            for (int index = 0; index < 20; index++) {
+                instance.resetRoutes();
+            }
+            discovered.countDown();
+
+            // then
+            assertEquals("users", awaitMatchingRoute(instance, "/api/users/1", "users").getId());
+            assertTrue(located.get() <= 2);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldRebuildSnapshotRoutesAsynchronously() throws Exception {
+
+        // given
+        final File file = File.createTempFile("routes", ".snapshot");
+        final AsyncRouteRebuilder rebuilder = new AsyncRouteRebuilder();
+        try {
+            final TrieRouteMatcher previous = createTrieRouteMatcher();
+            previous.setSnapshotFile(file);
+            new MatcherProxyRouteLocator("", new NoopDiscoveryClient(), properties, previous).resetRoutes();
+            previous.shutdown();
+            assertTrue(previous.awaitTermination(10, TimeUnit.SECONDS));
+
+            final TrieRouteMatcher matcher = createTrieRouteMatcher();
+            matcher.setSnapshotFile(file);
+            assertTrue(matcher.loadSnapshot());
+            properties.getRoutes().put("users", new ZuulProperties.ZuulRoute("users", "/api/users/**", "users", null,
+                    true, null));
+            final CountDownLatch discovered = new CountDownLatch(1);
+            final MatcherProxyRouteLocator instance = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                    properties, matcher, 0, null, rebuilder) {
+                @Override
+                protected LinkedHashMap<String, ZuulProperties.ZuulRoute> locateRoutes() {
+                    await(discovered);
+                    return super.locateRoutes();
+                }
+            };
+
+            // when
+            instance.resetRoutes();
+            final ProxyRouteLocator.ProxyRouteSpec snapshot = instance.getMatchingRoute("/api/users/1");
+            discovered.countDown();
+            rebuilder.shutdown();
+            assertTrue(rebuilder.awaitTermination(10, TimeUnit.SECONDS));
+
+            // then
+            assertEquals("api", snapshot.getId());
+            assertEquals("users", instance.getMatchingRoute("/api/users/1").getId());
+        } finally {
+            rebuilder.shutdown();
+            file.delete();
+        }
+    }
+
+    private MatcherProxyRouteLocator createLocator() {
+        final MatcherProxyRouteLocator locator = new MatcherProxyRouteLocator("", new NoopDiscoveryClient(),
+                properties, new PathTrieRouteMatcher());
+        locator.resetRoutes();
+        return locator;
+    }
+
+    private static TrieRouteMatcher createTrieRouteMatcher() {
+        return new TrieRouteMatcher(new TrieRouteMatcher.TrieSupplier() {
+            @Override
+            public <T> Trie<T> createTrie() {
+                return Tries.newCharHashMapTrie();
+            }
+        });
+    }
+
+    private static ProxyRouteLocator.ProxyRouteSpec awaitMatchingRoute(MatcherProxyRouteLocator locator, String path,
+                                                                       String id) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        ProxyRouteLocator.ProxyRouteSpec route = locator.getMatchingRoute(path);
+        while (!id.equals(route.getId()) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+            route = locator.getMatchingRoute(path);
+        }
+        return route;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class NoopDiscoveryClient implements DiscoveryClient {
+
+        @Override
+        public String description() {
+            return "No-op discovery client";
+        }
+
+        @Override
+        public ServiceInstance getLocalServiceInstance() {
+            return null;
+        }
+
+        @Override
+        public List<ServiceInstance> getInstances(String serviceId) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public List<String> getServices() {
+            return Collections.emptyList();
+        }
+    }
+}
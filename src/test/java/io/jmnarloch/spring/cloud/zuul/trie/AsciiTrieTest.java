@@ -0,0 +1,99 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link AsciiTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class AsciiTrieTest extends BaseTrieTest {
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new AsciiTrie<String>();
+    }
+
+    @Test
+    public void shouldStoreNonAsciiCharacters() {
+
+        // given
+        final Trie<String> trie = createTrie();
+
+        // when
+        trie.put("/caf\u00e9/", "cafe");
+        trie.put("/\u4e2d\u6587/", "chinese");
+        trie.put("/tab\t/", "tab");
+        trie.put("/cafe/", "ascii");
+
+        // then
+        assertEquals(4, trie.size());
+        assertEquals("cafe", trie.prefix("/caf\u00e9/menu"));
+        assertEquals("chinese", trie.prefix("/\u4e2d\u6587/1"));
+        assertEquals("tab", trie.get("/tab\t/"));
+        assertEquals("ascii", trie.prefix("/cafe/menu"));
+        assertNull(trie.prefix("/caf\u00e8/"));
+    }
+
+    @Test
+    public void shouldRemoveNonAsciiCharacters() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("/caf\u00e9/", "cafe");
+        trie.put("/cafe/", "ascii");
+
+        // when
+        trie.remove("/caf\u00e9/");
+
+        // then
+        assertEquals(1, trie.size());
+        assertNull(trie.prefix("/caf\u00e9/menu"));
+        assertEquals("ascii", trie.prefix("/cafe/menu"));
+    }
+
+    @Test
+    public void shouldTraverseKeysInOrder() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("/\u00e9", "e-acute");
+        trie.put("/\n", "new-line");
+        trie.put("/~", "tilde");
+        trie.put("/a", "a");
+
+        // when
+        final List<String> keys = new ArrayList<String>();
+        trie.traverse(new TrieVisitor<String>() {
+            @Override
+            public void visit(String key, String value) {
+                keys.add(key);
+            }
+        });
+
+        // then
+        assertEquals(Arrays.asList("/\n", "/a", "/~", "/\u00e9"), keys);
+    }
+}
@@ -0,0 +1,192 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The base class for the tests of the immutable tries, built out of the populated Trie.
+ *
+ * @author Jakub Narloch
+ */
+public abstract class BaseImmutableTrieTest {
+
+    private Trie<String> instance;
+
+    /**
+     * Accepts the keys ending with the separator under any prefix, and the remaining keys only under the whole key.
+     */
+    private static final PrefixMatcher<String> MATCHER = new PrefixMatcher<String>() {
+        @Override
+        public boolean matches(String value, int length, int keyLength) {
+            assertEquals(value.length(), length);
+            return value.endsWith("/") || length == keyLength;
+        }
+    };
+
+    @Before
+    public void setUp() throws Exception {
+
+        final Trie<String> trie = Tries.newHashMapTrie();
+        for (String value : getValues()) {
+            trie.put(value, value);
+        }
+        instance = createTrie(trie);
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // when
+        instance = createTrie(Tries.<String>newHashMapTrie());
+
+        // then
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+        assertNull(instance.prefix("/api/"));
+    }
+
+    @Test
+    public void shouldReturnsCorrectTrieSize() {
+
+        // expect
+        assertEquals(getValues().size(), instance.size());
+    }
+
+    @Test
+    public void shouldFindAllMatchingKeys() {
+
+        for (String value : getValues()) {
+            // when
+            final String result = instance.get(value);
+
+            // then
+            assertEquals(value, result);
+            assertTrue(instance.containsKey(value));
+        }
+    }
+
+    @Test
+    public void shouldNotFindMissingKeys() {
+
+        // expect
+        assertNull(instance.get("/api/v1"));
+        assertNull(instance.get("/api/v1/customer"));
+        assertNull(instance.get("/api/v1/customers/1"));
+        assertNull(instance.get("/uaa"));
+        assertFalse(instance.containsKey("/ws"));
+        assertNull(instance.get("/\u017c\u00f3\u0142"));
+        assertNull(instance.get("/\u0105"));
+    }
+
+    @Test
+    public void shouldFindLongestPrefix() {
+
+        // expect
+        assertEquals("/api/", instance.prefix("/api/v2/customers"));
+        assertEquals("/api/v1/customers", instance.prefix("/api/v1/customers1"));
+        assertEquals("/api/v1/customers/", instance.prefix("/api/v1/customers/1"));
+        assertEquals("/api/v1/", instance.prefix("/api/v1/orders"));
+        assertNull(instance.prefix("/ap"));
+    }
+
+    @Test
+    public void shouldFindLongestMatchingPrefix() {
+
+        // expect
+        assertEquals("/api/v1/customers", instance.longestMatch("/api/v1/customers", 0, 17, MATCHER));
+        assertEquals("/api/v1/", instance.longestMatch("/api/v1/customers1", 0, 18, MATCHER));
+        assertEquals("/api/v1/customers/", instance.longestMatch("/api/v1/customers/1", 0, 19, MATCHER));
+        assertEquals("/api/", instance.longestMatch("/zuul/api/v2", 5, 12, MATCHER));
+        assertNull(instance.longestMatch("/ap", 0, 3, MATCHER));
+    }
+
+    @Test
+    public void shouldFindLongestPrefixInRegion() {
+
+        // given
+        final String path = "/zuul/api/v1/customers/1";
+
+        // expect
+        assertEquals("/api/v1/customers/", instance.prefix(path, 5, path.length()));
+        assertEquals("/api/v1/", instance.prefix(path, 5, 13));
+        assertEquals("/api/v1/customers", instance.get(path, 5, 22));
+        assertNull(instance.get(path, 5, 21));
+        assertNull(instance.prefix(path, 0, path.length()));
+    }
+
+    @Test
+    public void shouldTraverseAllEntries() {
+
+        // given
+        final Map<String, String> entries = new HashMap<String, String>();
+
+        // when
+        instance.traverse(new TrieVisitor<String>() {
+            @Override
+            public void visit(String key, String value) {
+                entries.put(key, value);
+            }
+        });
+
+        // then
+        assertEquals(getValues().size(), entries.size());
+        for (String value : getValues()) {
+            assertEquals(value, entries.get(value));
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowPut() {
+
+        // expect
+        instance.put("/uaa/", "uaa");
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void shouldNotAllowRemove() {
+
+        // expect
+        instance.remove("/uaa/");
+    }
+
+    protected List<String> getValues() {
+
+        return Arrays.asList(
+                "/uaa/",
+                "/api/",
+                "/api/v1/",
+                "/api/v1/customers",
+                "/api/v1/customers/",
+                "/notifications/",
+                "/ws/",
+                "/\u017c\u00f3\u0142w/"
+        );
+    }
+
+    protected abstract Trie<String> createTrie(Trie<String> trie);
+}
@@ -19,7 +19,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
@@ -35,6 +37,17 @@ public abstract class BaseTrieTest {
 
     private Trie<String> instance;
 
+    /**
+     * Accepts the keys ending with the separator under any prefix, and the remaining keys only under the whole key.
+     */
+    private static final PrefixMatcher<String> MATCHER = new PrefixMatcher<String>() {
+        @Override
+        public boolean matches(String value, int length, int keyLength) {
+            assertEquals(value.length(), length);
+            return value.endsWith("/") || length == keyLength;
+        }
+    };
+
     @Before
     public void setUp() throws Exception {
 
@@ -107,6 +120,65 @@ public abstract class BaseTrieTest {
         }
     }
 
+    @Test
+    public void shouldFindAllMatchingKeysInRegion() throws Exception {
+
+        for (String value : getValues()) {
+            // given
+            final String path = "/zuul" + value + "/details";
+
+            // when
+            final String result = instance.get(path, 5, 5 + value.length());
+
+            // then
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void shouldFindAllPrefixKeysInRegion() throws Exception {
+
+        for (String value : getValues()) {
+            // given
+            final StringBuilder path = new StringBuilder("/zuul").append(value).append("/details");
+
+            // when
+            final String result = instance.prefix(path, 5, path.length());
+
+            // then
+            assertEquals(value, result);
+        }
+    }
+
+    @Test
+    public void shouldFindLongestMatchingPrefix() throws Exception {
+
+        // given
+        instance.put("/api/", "/api/");
+        instance.put("/api/users", "/api/users");
+        final String path = "/zuul/api/users/42";
+
+        // expect
+        assertEquals("/api/users", instance.prefix(path, 5, path.length()));
+        assertEquals("/api/", instance.longestMatch(path, 5, path.length(), MATCHER));
+        assertEquals("/api/users", instance.longestMatch(path, 5, 15, MATCHER));
+        assertNull(instance.longestMatch(path, 0, path.length(), MATCHER));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void shouldNotAllowRegionOutOfBounds() throws Exception {
+
+        // expect
+        instance.prefix("/uaa/**", 1, 8);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowEmptyRegion() throws Exception {
+
+        // expect
+        instance.get("/uaa/**", 3, 3);
+    }
+
     @Test
     public void shouldFindAllExistingKeys() throws Exception {
 
@@ -155,6 +227,27 @@ public abstract class BaseTrieTest {
         }
     }
 
+    @Test
+    public void shouldTraverseAllEntries() {
+
+        // given
+        final Map<String, String> entries = new HashMap<String, String>();
+
+        // when
+        instance.traverse(new TrieVisitor<String>() {
+            @Override
+            public void visit(String key, String value) {
+                entries.put(key, value);
+            }
+        });
+
+        // then
+        assertEquals(getValues(), entries.keySet());
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            assertEquals(entry.getKey(), entry.getValue());
+        }
+    }
+
     protected Set<String> getValues() {
 
         return new HashSet<String>(Arrays.asList(
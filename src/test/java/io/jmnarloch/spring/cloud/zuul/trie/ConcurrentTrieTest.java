@@ -0,0 +1,239 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link ConcurrentTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class ConcurrentTrieTest extends BaseTrieTest {
+
+    private static final int WRITERS = 4;
+
+    private static final int READERS = 4;
+
+    private static final int KEYS = 32;
+
+    private static final int ROUNDS = 200;
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new ConcurrentTrie<String>();
+    }
+
+    @Test
+    public void shouldPruneRemovedNodes() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("/api/", "api");
+        trie.put("/api/v1/customers", "customers");
+
+        // when
+        trie.remove("/api/v1/customers");
+        trie.put("/api/v1/orders", "orders");
+
+        // then
+        assertEquals(2, trie.size());
+        assertNull(trie.get("/api/v1/customers"));
+        assertEquals("api", trie.prefix("/api/v1/customers"));
+        assertEquals("orders", trie.prefix("/api/v1/orders/1"));
+        assertEquals(2, count(trie));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAcceptNullValue() {
+
+        // given
+        final Trie<String> trie = createTrie();
+
+        // expect
+        trie.put("/api/", null);
+    }
+
+    @Test
+    public void shouldRemainConsistentUnderConcurrentReadersAndWriters() throws Exception {
+
+        // given
+        final ConcurrentTrie<Integer> trie = new ConcurrentTrie<Integer>();
+        trie.put("/api/", -1);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<String> failure = new AtomicReference<String>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Thread> writers = new ArrayList<Thread>();
+        final List<Thread> readers = new ArrayList<Thread>();
+        for (int writer = 0; writer < WRITERS; writer++) {
+            writers.add(new Thread(new Writer(trie, writer, start, failure)));
+        }
+        for (int reader = 0; reader < READERS; reader++) {
+            readers.add(new Thread(new Reader(trie, start, running, failure)));
+        }
+
+        // when
+        for (Thread thread : readers) {
+            thread.start();
+        }
+        for (Thread thread : writers) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : writers) {
+            thread.join();
+        }
+        running.set(false);
+        for (Thread thread : readers) {
+            thread.join();
+        }
+
+        // then
+        assertNull(failure.get(), failure.get());
+        assertEquals(WRITERS * KEYS + 1, trie.size());
+        assertEquals(WRITERS * KEYS + 1, count(trie));
+        assertEquals(-1, (int) trie.get("/api/"));
+        for (int writer = 0; writer < WRITERS; writer++) {
+            for (int key = 0; key < KEYS; key++) {
+                assertEquals(ROUNDS, (int) trie.get(key(writer, key)));
+            }
+        }
+    }
+
+    private static <T> int count(Trie<T> trie) {
+        final AtomicInteger count = new AtomicInteger();
+        trie.traverse(new TrieVisitor<T>() {
+            @Override
+            public void visit(String key, T value) {
+                count.incrementAndGet();
+            }
+        });
+        return count.get();
+    }
+
+    private static String key(int writer, int key) {
+        return "/api/w" + writer + "/k" + key;
+    }
+
+    /**
+     * Writes increasing versions of its own keys, removing them every other round.
+     */
+    private static class Writer implements Runnable {
+
+        private final ConcurrentTrie<Integer> trie;
+
+        private final int writer;
+
+        private final CountDownLatch start;
+
+        private final AtomicReference<String> failure;
+
+        Writer(ConcurrentTrie<Integer> trie, int writer, CountDownLatch start, AtomicReference<String> failure) {
+            this.trie = trie;
+            this.writer = writer;
+            this.start = start;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            await(start);
+            for (int round = 1; round <= ROUNDS; round++) {
+                for (int key = 0; key < KEYS; key++) {
+                    final String path = key(writer, key);
+                    final Integer previous = trie.put(path, round);
+                    if (previous != null && previous != round - 1) {
+                        failure.compareAndSet(null, "Expected version " + (round - 1) + " of " + path
+                                + " but was " + previous);
+                    }
+                    if (round % 2 == 1) {
+                        final Integer removed = trie.remove(path);
+                        if (removed == null || removed != round) {
+                            failure.compareAndSet(null, "Removed version " + removed + " of " + path);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks that the observed versions of every key never decrease and that the permanent prefix is always found.
+     */
+    private static class Reader implements Runnable {
+
+        private final ConcurrentTrie<Integer> trie;
+
+        private final CountDownLatch start;
+
+        private final AtomicBoolean running;
+
+        private final AtomicReference<String> failure;
+
+        private final int[] versions = new int[WRITERS * KEYS];
+
+        Reader(ConcurrentTrie<Integer> trie, CountDownLatch start, AtomicBoolean running,
+               AtomicReference<String> failure) {
+            this.trie = trie;
+            this.start = start;
+            this.running = running;
+            this.failure = failure;
+        }
+
+        @Override
+        public void run() {
+            await(start);
+            while (running.get() && failure.get() == null) {
+                for (int writer = 0; writer < WRITERS; writer++) {
+                    for (int key = 0; key < KEYS; key++) {
+                        final String path = key(writer, key);
+                        final Integer version = trie.get(path);
+                        final int index = writer * KEYS + key;
+                        if (version != null) {
+                            if (version < versions[index]) {
+                                failure.compareAndSet(null, "Observed version " + version + " of " + path
+                                        + " after version " + versions[index]);
+                            }
+                            versions[index] = version;
+                        }
+                        final Integer prefix = trie.prefix(path + "/orders");
+                        if (prefix == null || (prefix != -1 && prefix < versions[index])) {
+                            failure.compareAndSet(null, "Observed prefix " + prefix + " of " + path);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
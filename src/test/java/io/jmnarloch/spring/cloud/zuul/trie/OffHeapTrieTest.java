@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link OffHeapTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class OffHeapTrieTest extends BaseImmutableTrieTest {
+
+    private File file;
+
+    @Before
+    public void createFile() throws Exception {
+        file = File.createTempFile("routes", ".trie");
+    }
+
+    @After
+    public void deleteFile() throws Exception {
+        file.delete();
+    }
+
+    @Override
+    protected Trie<String> createTrie(Trie<String> trie) {
+        return Tries.newOffHeapTrie(trie);
+    }
+
+    @Test
+    public void shouldMapTrieFromFile() throws Exception {
+
+        // given
+        final Trie<String> trie = Tries.newHashMapTrie();
+        trie.put("/uaa/", "uaa");
+        trie.put("/uaa/account/", "account");
+        trie.put("/api/", "api");
+        final OffHeapTrie<String> written = Tries.newMappedTrie(trie, file);
+
+        // when
+        final OffHeapTrie<String> mapped = OffHeapTrie.map(file, entries("/uaa/", "UAA", "/api/", "API",
+                "/uaa/account/", "ACCOUNT"));
+
+        // then
+        assertEquals(3, written.size());
+        assertEquals("account", written.prefix("/uaa/account/1"));
+        assertEquals(3, mapped.size());
+        assertEquals("API", mapped.prefix("/api/users"));
+        assertEquals("UAA", mapped.prefix("/uaa/authorize"));
+        assertEquals("ACCOUNT", mapped.prefix("/uaa/account/1"));
+        assertNull(mapped.prefix("/orders/1"));
+    }
+
+    @Test
+    public void shouldReplaceMappedFile() throws Exception {
+
+        // given
+        final Trie<String> trie = Tries.newHashMapTrie();
+        trie.put("/uaa/", "uaa");
+        final OffHeapTrie<String> previous = Tries.newMappedTrie(trie, file);
+        trie.put("/api/", "api");
+
+        // when
+        final OffHeapTrie<String> current = Tries.newMappedTrie(trie, file);
+
+        // then
+        assertEquals("uaa", previous.prefix("/uaa/authorize"));
+        assertNull(previous.prefix("/api/users"));
+        assertEquals("api", current.prefix("/api/users"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectMismatchedValues() throws Exception {
+
+        // given
+        final Trie<String> trie = Tries.newHashMapTrie();
+        trie.put("/uaa/", "uaa");
+        Tries.newMappedTrie(trie, file);
+
+        // expect
+        OffHeapTrie.map(file, entries("/uaa/", "uaa", "/api/", "api"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectValuesOfOtherKeys() throws Exception {
+
+        // given
+        final Trie<String> trie = Tries.newHashMapTrie();
+        trie.put("/uaa/", "uaa");
+        trie.put("/api/", "api");
+        Tries.newMappedTrie(trie, file);
+
+        // expect
+        OffHeapTrie.map(file, entries("/uaa/", "uaa", "/orders/", "orders"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectInvalidFile() throws Exception {
+
+        // given
+        final RandomAccessFile output = new RandomAccessFile(file, "rw");
+        try {
+            output.writeInt(0xCAFEBABE);
+            output.writeInt(1);
+        } finally {
+            output.close();
+        }
+
+        // expect
+        OffHeapTrie.map(file, Collections.<String, String>emptyMap());
+    }
+
+    private static Map<String, String> entries(String... keysAndValues) {
+        final Map<String, String> entries = new HashMap<String, String>();
+        for (int index = 0; index < keysAndValues.length; index += 2) {
+            entries.put(keysAndValues[index], keysAndValues[index + 1]);
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PathTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class PathTrieTest {
+
+    private PathTrie<String> instance;
+
+    @Before
+    public void setUp() throws Exception {
+
+        instance = new PathTrie<String>();
+        instance.put("/uaa/", "/uaa/");
+        instance.put("/account/**", "/account/**");
+        instance.put("/account/*/details", "/account/*/details");
+        instance.put("/api/*", "/api/*");
+        instance.put("/api/v1/customers", "/api/v1/customers");
+        instance.put("/api/**/orders/**", "/api/**/orders/**");
+        instance.put("/files/*.json", "/files/*.json");
+        instance.put("/files/v?/{name}", "/files/v?/{name}");
+    }
+
+    @Test
+    public void shouldBeEmpty() {
+
+        // given
+        instance = new PathTrie<String>();
+
+        // expect
+        assertTrue(instance.isEmpty());
+        assertEquals(0, instance.size());
+    }
+
+    @Test
+    public void shouldReturnCorrectSize() {
+
+        // when
+        final String old = instance.put("/uaa/", "uaa");
+
+        // then
+        assertFalse(instance.isEmpty());
+        assertEquals(8, instance.size());
+        assertEquals("/uaa/", old);
+    }
+
+    @Test
+    public void shouldGetExactPattern() {
+
+        // expect
+        assertEquals("/uaa/", instance.get("/uaa/"));
+        assertEquals("/account/**", instance.get("/account/**"));
+        assertEquals("/files/*.json", instance.get("/files/*.json"));
+        assertNull(instance.get("/uaa"));
+        assertNull(instance.get("/account/*"));
+        assertNull(instance.get("/files/*.xml"));
+    }
+
+    @Test
+    public void shouldMatchExactPath() {
+
+        // expect
+        assertEquals("/uaa/", instance.match("/uaa/"));
+        assertNull(instance.match("/uaa"));
+        assertNull(instance.match("/uaa/authorize"));
+    }
+
+    @Test
+    public void shouldMatchDoubleWildcardOnSegmentBoundary() {
+
+        // expect
+        assertEquals("/account/**", instance.match("/account"));
+        assertEquals("/account/**", instance.match("/account/"));
+        assertEquals("/account/**", instance.match("/account/j.doe/orders"));
+        assertNull(instance.match("/accounts"));
+        assertNull(instance.match("/accountxyz/details"));
+    }
+
+    @Test
+    public void shouldMatchSingleWildcard() {
+
+        // expect
+        assertEquals("/api/*", instance.match("/api/orders"));
+        assertEquals("/api/*", instance.match("/api/"));
+        assertNull(instance.match("/api"));
+        assertNull(instance.match("/api/v2/customers"));
+    }
+
+    @Test
+    public void shouldMatchMostSpecificPattern() {
+
+        // expect
+        assertEquals("/account/*/details", instance.match("/account/j.doe/details"));
+        assertEquals("/api/v1/customers", instance.match("/api/v1/customers"));
+        assertEquals("/api/*", instance.match("/api/v1"));
+    }
+
+    @Test
+    public void shouldMatchDoubleWildcardInTheMiddle() {
+
+        // expect
+        assertEquals("/api/*", instance.match("/api/orders"));
+        assertEquals("/api/**/orders/**", instance.match("/api/v1/orders"));
+        assertEquals("/api/**/orders/**", instance.match("/api/v1/customers/1/orders/2"));
+        assertEquals("/api/**/orders/**", instance.match("/api/v1/orders/orders/orders"));
+        assertNull(instance.match("/api/v1/customers/1"));
+    }
+
+    @Test
+    public void shouldMatchSegmentPatterns() {
+
+        // expect
+        assertEquals("/files/*.json", instance.match("/files/routes.json"));
+        assertEquals("/files/v?/{name}", instance.match("/files/v1/routes.xml"));
+        assertNull(instance.match("/files/routes.xml"));
+        assertNull(instance.match("/files/v10/routes.xml"));
+    }
+
+    @Test
+    public void shouldMatchRootPatterns() {
+
+        // given
+        instance.put("/**", "/**");
+
+        // expect
+        assertEquals("/**", instance.match("/"));
+        assertEquals("/**", instance.match("/other/path"));
+        assertEquals("/uaa/", instance.match("/uaa/"));
+    }
+
+    @Test
+    public void shouldMatchSegment() {
+
+        // expect
+        assertTrue(PathTrie.matchesSegment("*.json", "/a.json", 1, 7));
+        assertTrue(PathTrie.matchesSegment("a*b*c", "abxbyc", 0, 6));
+        assertTrue(PathTrie.matchesSegment("{id}", "x", 0, 1));
+        assertFalse(PathTrie.matchesSegment("a*b*c", "abxbyd", 0, 6));
+        assertFalse(PathTrie.matchesSegment("?", "ab", 0, 2));
+    }
+
+    @Test
+    public void shouldMatchPathInRegion() {
+
+        // given
+        final String path = "/zuul/account/j.doe/details?expand=true";
+
+        // expect
+        assertEquals("/account/*/details", instance.match(path, 5, 27));
+        assertEquals("/account/**", instance.match(path, 5, 19));
+        assertNull(instance.match(path, 0, 27));
+    }
+
+    @Test
+    public void shouldCaptureTemplateVariables() {
+
+        // given
+        instance.put("/users/{id}/orders/**", "/users/{id}/orders/**");
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // when
+        final boolean matched = instance.match("/users/42/orders/7", match);
+
+        // then
+        assertTrue(matched);
+        assertEquals("/users/{id}/orders/**", match.getValue());
+        assertEquals(1, match.getVariableCount());
+        assertEquals("id", match.getVariableName(0));
+        assertEquals(7, match.getStart(0));
+        assertEquals(9, match.getEnd(0));
+        assertEquals("42", match.getVariable("id"));
+    }
+
+    @Test
+    public void shouldCaptureTemplateVariablesFollowingDoubleWildcard() {
+
+        // given
+        instance.put("/api/**/items/{item}/{part}", "/api/**/items/{item}/{part}");
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // when
+        final boolean matched = instance.match("/api/v1/items/items/5/a", match);
+
+        // then
+        assertTrue(matched);
+        assertEquals("/api/**/items/{item}/{part}", match.getValue());
+        assertEquals("5", match.getVariable("item"));
+        assertEquals("a", match.getVariable("part"));
+        assertNull(match.getVariable("id"));
+    }
+
+    @Test(timeout = 5000)
+    public void shouldCaptureTemplateVariablesBetweenDoubleWildcardsOnLongPath() {
+
+        // given
+        instance.put("/**/x/{a}/**/y/{b}/**/z/**", "/**/x/{a}/**/y/{b}/**/z/**");
+        final StringBuilder path = new StringBuilder();
+        for (String segment : new String[]{"x/1", "y/2", "z"}) {
+            for (int index = 0; index < 500; index++) {
+                path.append("/f");
+            }
+            path.append('/').append(segment);
+        }
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // when
+        final boolean matched = instance.match(path.toString(), match);
+
+        // then
+        assertTrue(matched);
+        assertEquals("/**/x/{a}/**/y/{b}/**/z/**", match.getValue());
+        assertEquals("1", match.getVariable("a"));
+        assertEquals("2", match.getVariable("b"));
+    }
+
+    @Test
+    public void shouldPreferLiteralSegmentOverTemplateVariable() {
+
+        // given
+        instance.put("/users/{id}", "/users/{id}");
+        instance.put("/users/me", "/users/me");
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // expect
+        assertTrue(instance.match("/users/me", match));
+        assertEquals("/users/me", match.getValue());
+        assertEquals(0, match.getVariableCount());
+        assertTrue(instance.match("/users/7", match));
+        assertEquals("/users/{id}", match.getValue());
+        assertEquals("7", match.getVariable("id"));
+        assertEquals("/users/{id}", instance.get("/users/{userId}"));
+    }
+
+    @Test
+    public void shouldResetReusedMatch() {
+
+        // given
+        instance.put("/users/{id}", "/users/{id}");
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // when
+        instance.match("/users/7", match);
+        final boolean matched = instance.match("/orders/7", match);
+
+        // then
+        assertFalse(matched);
+        assertFalse(match.isMatched());
+        assertNull(match.getValue());
+        assertEquals(0, match.getVariableCount());
+    }
+
+    @Test
+    public void shouldCaptureTemplateVariablesInRegion() {
+
+        // given
+        instance.put("/users/{id}/orders", "/users/{id}/orders");
+        final String path = "/zuul/users/42/orders?expand=true";
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // when
+        final boolean matched = instance.match(path, 5, 21, match);
+
+        // then
+        assertTrue(matched);
+        assertEquals(12, match.getStart(0));
+        assertEquals(14, match.getEnd(0));
+    }
+
+    @Test
+    public void shouldNotCaptureRegularExpressionVariables() {
+
+        // given
+        instance.put("/files/{name:[a-z]+}", "/files/{name:[a-z]+}");
+        final PathMatch<String> match = new PathMatch<String>();
+
+        // when
+        final boolean matched = instance.match("/files/routes", match);
+
+        // then
+        assertTrue(matched);
+        assertEquals("/files/{name:[a-z]+}", match.getValue());
+        assertEquals(0, match.getVariableCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotMatchEmptyPath() {
+
+        // expect
+        instance.match("");
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link PersistentTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class PersistentTrieTest extends BaseImmutableTrieTest {
+
+    @Test
+    public void shouldNotModifyPreviousVersion() {
+
+        // given
+        final PersistentTrie<String> trie = Tries.<String>newPersistentTrie()
+                .with("/api/", "api")
+                .with("/api/v1/customers", "customers");
+
+        // when
+        final PersistentTrie<String> updated = trie
+                .with("/api/v1/orders", "orders")
+                .with("/api/", "replaced")
+                .without("/api/v1/customers");
+
+        // then
+        assertEquals(2, trie.size());
+        assertEquals("api", trie.get("/api/"));
+        assertEquals("customers", trie.get("/api/v1/customers"));
+        assertNull(trie.get("/api/v1/orders"));
+        assertEquals(2, updated.size());
+        assertEquals("replaced", updated.get("/api/"));
+        assertEquals("orders", updated.get("/api/v1/orders"));
+        assertNull(updated.get("/api/v1/customers"));
+        assertEquals("replaced", updated.prefix("/api/v1/customers"));
+    }
+
+    @Test
+    public void shouldReturnSameVersionIfNotModified() {
+
+        // given
+        final PersistentTrie<String> trie = Tries.<String>newPersistentTrie().with("/api/", "api");
+
+        // expect
+        assertSame(trie, trie.with("/api/", "api"));
+        assertSame(trie, trie.without("/api/v1/"));
+        assertSame(trie, trie.without("/ap"));
+    }
+
+    @Test
+    public void shouldRemoveAllEntries() {
+
+        // given
+        final PersistentTrie<String> trie = Tries.<String>newPersistentTrie()
+                .with("/api/", "api")
+                .with("/api/v1/customers", "customers");
+
+        // when
+        final PersistentTrie<String> updated = trie.without("/api/v1/customers").without("/api/");
+
+        // then
+        assertTrue(updated.isEmpty());
+        assertNull(updated.prefix("/api/v1/customers"));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Trie<String> createTrie(Trie<String> trie) {
+        final PersistentTrie<String>[] result = new PersistentTrie[]{Tries.<String>newPersistentTrie()};
+        trie.traverse(new TrieVisitor<String>() {
+            @Override
+            public void visit(String key, String value) {
+                result[0] = result[0].with(key, value);
+            }
+        });
+        return result[0];
+    }
+}
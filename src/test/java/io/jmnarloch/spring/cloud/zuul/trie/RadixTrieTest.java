@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * Tests the {@link RadixTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class RadixTrieTest extends BaseTrieTest {
+
+    @Test
+    public void shouldSplitEdgeOnInsert() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("/api/v1/customers", "customers");
+
+        // when
+        trie.put("/api/v1/orders", "orders");
+        trie.put("/api/", "api");
+
+        // then
+        assertEquals(3, trie.size());
+        assertEquals("customers", trie.get("/api/v1/customers"));
+        assertEquals("orders", trie.get("/api/v1/orders"));
+        assertEquals("api", trie.get("/api/"));
+        assertNull(trie.get("/api/v1/"));
+        assertNull(trie.get("/api/v1/c"));
+        assertEquals("api", trie.prefix("/api/v1/c"));
+        assertEquals("customers", trie.prefix("/api/v1/customers/1"));
+        assertNull(trie.prefix("/ap"));
+    }
+
+    @Test
+    public void shouldMergeEdgesOnRemove() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("/api/v1/customers", "customers");
+        trie.put("/api/v1/orders", "orders");
+        trie.put("/api/", "api");
+
+        // when
+        trie.remove("/api/v1/orders");
+        trie.remove("/api/");
+
+        // then
+        assertEquals(1, trie.size());
+        assertEquals("customers", trie.get("/api/v1/customers"));
+        assertEquals("customers", trie.prefix("/api/v1/customers/1"));
+        assertNull(trie.prefix("/api/v1/orders"));
+    }
+
+    @Test
+    public void shouldNotRemoveMissingKeys() {
+
+        // given
+        final Trie<String> trie = createTrie();
+        trie.put("/api/v1/customers", "customers");
+
+        // when
+        final String removed = trie.remove("/api/v1");
+
+        // then
+        assertNull(removed);
+        assertEquals(1, trie.size());
+        assertEquals("customers", trie.get("/api/v1/customers"));
+    }
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new RadixTrie<String>();
+    }
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SparseCharArrayTrie} class.
+ *
+ * @author Jakub Narloch
+ */
+public class SparseCharArrayTrieTest extends BaseTrieTest {
+
+    @Override
+    protected Trie<String> createTrie() {
+        return new SparseCharArrayTrie<String>();
+    }
+
+    @Test
+    public void shouldStoreCharactersOutsideOfAsciiRange() {
+
+        // given
+        final Trie<String> trie = createTrie();
+
+        // when
+        trie.put("/caf\u00e9/", "cafe");
+        trie.put("/\u4e2d\u6587/", "chinese");
+        trie.put("/api/", "api");
+
+        // then
+        assertEquals("cafe", trie.prefix("/caf\u00e9/menu"));
+        assertEquals("chinese", trie.prefix("/\u4e2d\u6587/1"));
+        assertEquals("api", trie.prefix("/api/1"));
+        assertNull(trie.prefix("/cafe/"));
+    }
+
+    @Test
+    public void shouldGrowAndShrinkWindow() {
+
+        // given
+        final SparseCharArrayTrieNode<String> node = new SparseCharArrayTrieNode<String>();
+        final SparseCharArrayTrieNode<String> m = new SparseCharArrayTrieNode<String>();
+        final SparseCharArrayTrieNode<String> a = new SparseCharArrayTrieNode<String>();
+        final SparseCharArrayTrieNode<String> z = new SparseCharArrayTrieNode<String>();
+
+        // when
+        node.setNext('m', m);
+        node.setNext('a', a);
+        node.setNext('z', z);
+
+        // then
+        assertEquals('z' - 'a' + 1, node.getCapacity());
+        assertEquals(a, node.getNext('a'));
+        assertEquals(m, node.getNext('m'));
+        assertEquals(z, node.getNext('z'));
+        assertNull(node.getNext('b'));
+        assertNull(node.getNext('/'));
+        assertNull(node.getNext('~'));
+
+        // when
+        node.removeNext('a');
+        node.removeNext('z');
+
+        // then
+        assertEquals(1, node.getCapacity());
+        assertEquals(m, node.getNext('m'));
+        assertNull(node.getNext('a'));
+
+        // when
+        node.removeNext('m');
+
+        // then
+        assertEquals(0, node.getCapacity());
+        assertEquals(0, node.getNextChars().length);
+    }
+
+    @Test
+    public void shouldAllocateFractionOfCharArrayTrieSlots() {
+
+        // given
+        final List<String> routes = new ArrayList<String>();
+        for (int service = 0; service < 200; service++) {
+            routes.add("/api/v" + service % 3 + "/service-" + service + "/");
+            routes.add("/service-" + service + "/resources/");
+        }
+        final List<CharArrayTrieNode<String>> charArrayNodes = new ArrayList<CharArrayTrieNode<String>>();
+        final List<SparseCharArrayTrieNode<String>> sparseNodes = new ArrayList<SparseCharArrayTrieNode<String>>();
+        final Trie<String> charArrayTrie = new AbstractTrie<String, CharArrayTrieNode<String>>(
+                new AbstractTrie.TrieNodeFactory<String, CharArrayTrieNode<String>>() {
+                    @Override
+                    public CharArrayTrieNode<String> createNode() {
+                        final CharArrayTrieNode<String> node = new CharArrayTrieNode<String>(128);
+                        charArrayNodes.add(node);
+                        return node;
+                    }
+                }) {
+        };
+        final Trie<String> sparseTrie = new AbstractTrie<String, SparseCharArrayTrieNode<String>>(
+                new AbstractTrie.TrieNodeFactory<String, SparseCharArrayTrieNode<String>>() {
+                    @Override
+                    public SparseCharArrayTrieNode<String> createNode() {
+                        final SparseCharArrayTrieNode<String> node = new SparseCharArrayTrieNode<String>();
+                        sparseNodes.add(node);
+                        return node;
+                    }
+                }) {
+        };
+
+        // when
+        for (String route : routes) {
+            charArrayTrie.put(route, route);
+            sparseTrie.put(route, route);
+        }
+
+        // then
+        assertEquals(charArrayNodes.size(), sparseNodes.size());
+        long charArraySlots = 0;
+        for (CharArrayTrieNode<String> node : charArrayNodes) {
+            charArraySlots += node.getCapacity();
+        }
+        long sparseSlots = 0;
+        for (SparseCharArrayTrieNode<String> node : sparseNodes) {
+            sparseSlots += node.getCapacity();
+        }
+        assertTrue("Sparse trie allocated " + sparseSlots + " out of " + charArraySlots + " slots",
+                sparseSlots * 20 < charArraySlots);
+        for (String route : routes) {
+            assertEquals(route, sparseTrie.prefix(route + "1"));
+        }
+    }
+}
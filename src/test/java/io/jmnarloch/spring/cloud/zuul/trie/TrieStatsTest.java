@@ -0,0 +1,117 @@
+/**
+ * Copyright (c) 2016 the original author or authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.jmnarloch.spring.cloud.zuul.trie;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link TrieStats} class.
+ *
+ * @author Jakub Narloch
+ */
+public class TrieStatsTest {
+
+    @Test
+    public void shouldComputeStatsOfEmptyTrie() {
+
+        // when
+        final TrieStats stats = Tries.newHashMapTrie().getStats();
+
+        // then
+        assertEquals(1, stats.getNodeCount());
+        assertEquals(0, stats.getValueCount());
+        assertEquals(0, stats.getMaxDepth());
+        assertEquals(0, stats.getAverageDepth(), 0.0);
+        assertArrayEquals(new int[]{1}, stats.getFanOutHistogram());
+        assertTrue(stats.getRetainedBytes() > 0);
+    }
+
+    @Test
+    public void shouldComputeSameShapeForEveryImplementation() {
+
+        // given
+        final List<Trie<String>> tries = Arrays.<Trie<String>>asList(
+                Tries.<String>newCharArrayTrie(128),
+                Tries.<String>newSparseCharArrayTrie(),
+                Tries.<String>newAsciiTrie(),
+                Tries.<String>newHashMapTrie(),
+                Tries.<String>newCharHashMapTrie()
+        );
+
+        for (Trie<String> trie : tries) {
+            trie.put("/uaa/", "uaa");
+            trie.put("/uaa/account/", "account");
+            trie.put("/api/", "api");
+
+            // when
+            final TrieStats stats = Tries.getStats(trie);
+            final TrieStats compiled = Tries.getStats(Tries.compile(trie));
+            final TrieStats doubleArray = Tries.getStats(Tries.newDoubleArrayTrie(trie));
+
+            // then
+            for (TrieStats result : Arrays.asList(stats, compiled, doubleArray)) {
+                assertEquals(18, result.getNodeCount());
+                assertEquals(3, result.getValueCount());
+                assertEquals(13, result.getMaxDepth());
+                assertEquals(23.0 / 3, result.getAverageDepth(), 0.0001);
+                assertArrayEquals(new int[]{2, 15, 1}, result.getFanOutHistogram());
+            }
+        }
+    }
+
+    @Test
+    public void shouldEstimateRetainedBytes() {
+
+        // given
+        final Trie<String> charArrayTrie = Tries.newCharArrayTrie(128);
+        final Trie<String> sparseTrie = Tries.newSparseCharArrayTrie();
+        final Trie<String> hashMapTrie = Tries.newHashMapTrie();
+        for (Trie<String> trie : Arrays.asList(charArrayTrie, sparseTrie, hashMapTrie)) {
+            trie.put("/uaa/", "uaa");
+            trie.put("/api/", "api");
+        }
+
+        // when
+        final long charArrayBytes = Tries.getStats(charArrayTrie).getRetainedBytes();
+        final long sparseBytes = Tries.getStats(sparseTrie).getRetainedBytes();
+        final long hashMapBytes = Tries.getStats(hashMapTrie).getRetainedBytes();
+        final long compiledBytes = Tries.getStats(Tries.compile(hashMapTrie)).getRetainedBytes();
+
+        // then
+        assertEquals(10 * (TrieStats.objectSize(12) + TrieStats.arraySize(128, 4)), charArrayBytes);
+        assertTrue(sparseBytes < hashMapBytes);
+        assertTrue(hashMapBytes < charArrayBytes);
+        assertTrue(compiledBytes < sparseBytes);
+    }
+
+    @Test
+    public void shouldEstimateObjectSizes() {
+
+        // expect
+        assertEquals(16, TrieStats.objectSize(4));
+        assertEquals(24, TrieStats.objectSize(12));
+        assertEquals(16, TrieStats.arraySize(0, 4));
+        assertEquals(24, TrieStats.arraySize(1, 4));
+        assertEquals(24, TrieStats.arraySize(4, 2));
+    }
+}
@@ -17,7 +17,21 @@ package io.jmnarloch.spring.cloud.zuul.trie;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the {@link Tries} class.
@@ -76,6 +90,28 @@ public class TriesTest {
         assertNotNull(trie);
     }
 
+    @Test
+    public void shouldCreateSparseCharArrayTrie() {
+
+        // when
+        SparseCharArrayTrie<String> trie = Tries.newSparseCharArrayTrie();
+
+        // then
+        assertNotNull(trie);
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void shouldCreateAsciiTrie() {
+
+        // when
+        AsciiTrie<String> trie = Tries.newAsciiTrie();
+
+        // then
+        assertNotNull(trie);
+        assertEquals(0, trie.size());
+    }
+
     @Test
     public void shouldCreateCharHashMapTrie() {
 
@@ -105,4 +141,413 @@ public class TriesTest {
         // then
         assertNotNull(trie);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldCreateRadixTrie() {
+
+        // when
+        Trie<String> trie = Tries.newRadixTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreatePathTrie() {
+
+        // when
+        PathTrie<String> trie = Tries.newPathTrie();
+
+        // then
+        assertNotNull(trie);
+    }
+
+    @Test
+    public void shouldCreatePersistentTrie() {
+
+        // when
+        PersistentTrie<String> trie = Tries.newPersistentTrie();
+
+        // then
+        assertNotNull(trie);
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void shouldCreateConcurrentTrie() {
+
+        // when
+        ConcurrentTrie<String> trie = Tries.newConcurrentTrie();
+
+        // then
+        assertNotNull(trie);
+        assertEquals(0, trie.size());
+    }
+
+    @Test
+    public void shouldCreateOffHeapTrie() {
+
+        // given
+        Trie<String> trie = Tries.newHashMapTrie();
+        trie.put("/uaa/", "uaa");
+
+        // when
+        OffHeapTrie<String> result = Tries.newOffHeapTrie(trie);
+
+        // then
+        assertNotNull(result);
+        assertEquals(1, result.size());
+        assertEquals("uaa", result.prefix("/uaa/authorize"));
+    }
+
+    @Test
+    public void shouldNotComputeStatsOfRadixTrie() {
+
+        // given
+        RadixTrie<String> trie = Tries.newRadixTrie();
+
+        // when
+        TrieStats stats = Tries.getStats(trie);
+
+        // then
+        assertNull(stats);
+    }
+
+    @Test
+    public void shouldCompileTrie() {
+
+        // given
+        Trie<String> trie = Tries.newHashMapTrie();
+        trie.put("/uaa/", "uaa");
+
+        // when
+        Trie<String> compiled = Tries.compile(trie);
+
+        // then
+        assertNotNull(compiled);
+        assertEquals("uaa", compiled.get("/uaa/"));
+    }
+
+    @Test
+    public void shouldPutAllEntriesInParallel() {
+
+        // given
+        final Map<String, String> entries = entries(5000);
+        final Trie<String> expected = Tries.newCharArrayTrie(128);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            expected.put(entry.getKey(), entry.getValue());
+        }
+        final ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            for (Trie<String> trie : new Trie[]{Tries.<String>newCharArrayTrie(128),
+                    Tries.<String>newSparseCharArrayTrie(), Tries.<String>newAsciiTrie(),
+                    Tries.<String>newHashMapTrie(), Tries.<String>newCharHashMapTrie()}) {
+
+                // when
+                Tries.putAll(trie, entries, pool);
+
+                // then
+                assertEquals(entries.size(), trie.size());
+                assertEquals(keys(expected), keys(trie));
+                assertEquals("api", trie.get("/api/"));
+                assertEquals("api", trie.prefix("/api/unknown"));
+                assertEquals(Tries.getStats(expected).getNodeCount(), Tries.getStats(trie).getNodeCount());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldPutAllEntriesIntoNonEmptyTrie() {
+
+        // given
+        final Trie<String> trie = Tries.newCharArrayTrie(128);
+        trie.put("/uaa/", "uaa");
+        final ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            // when
+            Tries.putAll(trie, entries(2000), pool);
+
+            // then
+            assertEquals(2001, trie.size());
+            assertEquals("uaa", trie.get("/uaa/"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldBulkLoadSmallNumberOfSortedEntries() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>(entries(100));
+        final Trie<String> expected = Tries.newCharArrayTrie(128);
+        Tries.bulkLoad(expected, entries);
+        final Trie<String> trie = Tries.newCharArrayTrie(128);
+        final ForkJoinPool pool = new ForkJoinPool(2);
+
+        try {
+            // when
+            Tries.putAll(trie, entries, pool);
+
+            // then
+            assertEquals(100, trie.size());
+            assertEquals(keys(expected), keys(trie));
+            assertEquals("api", trie.prefix("/api/unknown"));
+            assertEquals(Tries.getStats(expected).getNodeCount(), Tries.getStats(trie).getNodeCount());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldPutAllEntriesSequentially() {
+
+        // given
+        final Trie<String> trie = Tries.newRadixTrie();
+
+        // when
+        Tries.putAll(trie, entries(100), null);
+
+        // then
+        assertEquals(100, trie.size());
+        assertEquals("api", trie.get("/api/"));
+    }
+
+    @Test
+    public void shouldBulkLoadSortedEntries() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>(entries(3000));
+        entries.put("/api/service1/", "service1");
+        entries.put("/uaa/", "uaa");
+        final Trie<String> expected = Tries.newCharArrayTrie(128);
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            expected.put(entry.getKey(), entry.getValue());
+        }
+
+        for (Trie<String> trie : new Trie[]{Tries.<String>newCharArrayTrie(128),
+                Tries.<String>newSparseCharArrayTrie(), Tries.<String>newAsciiTrie(),
+                Tries.<String>newHashMapTrie(), Tries.<String>newCharHashMapTrie(), Tries.<String>newRadixTrie()}) {
+
+            // when
+            Tries.bulkLoad(trie, entries);
+
+            // then
+            assertEquals(entries.size(), trie.size());
+            assertEquals(keys(expected), keys(trie));
+            assertEquals("service1", trie.prefix("/api/service1/orders"));
+            assertEquals("api", trie.prefix("/api/unknown"));
+            assertEquals("uaa", trie.remove("/uaa/"));
+            assertEquals(entries.size() - 1, trie.size());
+        }
+    }
+
+    @Test
+    public void shouldComputeSizesOfBulkLoadedSubtrees() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>();
+        entries.put("/a", "a");
+        entries.put("/ab", "ab");
+        entries.put("/abc", "abc");
+        entries.put("/b", "b");
+        final CharArrayTrie<String> trie = Tries.newCharArrayTrie(128);
+
+        // when
+        Tries.bulkLoad(trie, entries);
+        trie.remove("/abc");
+        trie.remove("/ab");
+        trie.remove("/a");
+
+        // then
+        assertEquals(1, trie.size());
+        assertEquals(3, Tries.getStats(trie).getNodeCount());
+        assertEquals("b", trie.get("/b"));
+    }
+
+    @Test
+    public void shouldBulkLoadEntriesInComparatorOrder() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>(String.CASE_INSENSITIVE_ORDER);
+        entries.put("/b", "b");
+        entries.put("/A", "A");
+        entries.put("/a/b", "ab");
+        final Trie<String> trie = Tries.newHashMapTrie();
+
+        // when
+        Tries.bulkLoad(trie, entries);
+
+        // then
+        assertEquals(3, trie.size());
+        assertEquals("A", trie.get("/A"));
+        assertEquals("ab", trie.get("/a/b"));
+    }
+
+    @Test
+    public void shouldMatchKeysIgnoringCase() {
+
+        // given
+        final Trie<String> trie = Tries.caseInsensitive(Tries.<String>newHashMapTrie());
+
+        // when
+        trie.put("/API/Users", "users");
+        trie.put("/api/users", "replaced");
+        trie.put("/Stra\u00dfe", "strasse");
+
+        // then
+        assertTrue(Tries.isCaseInsensitive(trie));
+        assertEquals(2, trie.size());
+        assertEquals("replaced", trie.get("/Api/USERS"));
+        assertEquals("replaced", trie.prefix("/gateway/API/users/1", 8, 20));
+        assertEquals("strasse", trie.get("/STRA\u00dfE"));
+        assertEquals(Arrays.asList("/api/users=replaced", "/stra\u00dfe=strasse"), keys(trie));
+    }
+
+    @Test
+    public void shouldCompileCaseInsensitiveTrie() {
+
+        // given
+        final Trie<String> trie = Tries.caseInsensitive(Tries.<String>newCharHashMapTrie());
+        trie.put("/Uaa/", "uaa");
+
+        // when
+        final CompiledTrie<String> compiled = Tries.compile(trie);
+
+        // then
+        assertTrue(compiled.isCaseInsensitive());
+        assertEquals("uaa", compiled.get("/UAA/"));
+        assertEquals("uaa", compiled.prefix("/uAa/authorize"));
+        assertNull(compiled.get("/uab/"));
+    }
+
+    @Test
+    public void shouldCompileSortedEntries() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>();
+        entries.put("/api/users", "users");
+        entries.put("/api/", "api");
+        entries.put("/uaa/", "uaa");
+        final Trie<String> trie = Tries.newCharArrayTrie();
+        Tries.bulkLoad(trie, entries);
+
+        // when
+        final CompiledTrie<String> compiled = Tries.compile(entries, false);
+
+        // then
+        assertFalse(compiled.isCaseInsensitive());
+        assertEquals(keys(Tries.compile(trie)), keys(compiled));
+        assertEquals(Tries.getStats(Tries.compile(trie)).getNodeCount(), Tries.getStats(compiled).getNodeCount());
+        assertEquals("api", compiled.prefix("/api/orders"));
+        assertNull(compiled.get("/API/users"));
+    }
+
+    @Test
+    public void shouldCompileSortedEntriesIgnoringCase() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>();
+        entries.put("/API/Users", "users");
+        entries.put("/api/users", "replaced");
+        entries.put("/Uaa/", "uaa");
+
+        // when
+        final CompiledTrie<String> compiled = Tries.compile(entries, true);
+
+        // then
+        assertTrue(compiled.isCaseInsensitive());
+        assertEquals(2, compiled.size());
+        assertEquals("replaced", compiled.get("/API/USERS"));
+        assertEquals("uaa", compiled.prefix("/uAa/authorize"));
+    }
+
+    @Test
+    public void shouldPutAllEntriesIgnoringCase() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>();
+        entries.put("/B", "B");
+        entries.put("/a", "a");
+        entries.put("/A", "A");
+        final Trie<String> trie = Tries.caseInsensitive(Tries.<String>newAsciiTrie());
+
+        // when
+        Tries.bulkLoad(trie, entries);
+
+        // then
+        assertEquals(2, trie.size());
+        assertEquals("a", trie.get("/A"));
+        assertEquals("B", trie.get("/b"));
+    }
+
+    @Test
+    public void shouldBulkLoadEntriesIgnoringCase() {
+
+        // given
+        final SortedMap<String, String> entries = new TreeMap<String, String>();
+        entries.put("/API/Users", "users");
+        entries.put("/Api/orders", "orders");
+        entries.put("/api/users", "replaced");
+        entries.put("/UAA/", "uaa");
+        final Trie<String> expected = Tries.caseInsensitive(Tries.<String>newCharArrayTrie(128));
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            expected.put(entry.getKey(), entry.getValue());
+        }
+        final Trie<String> trie = Tries.caseInsensitive(Tries.<String>newCharArrayTrie(128));
+
+        // when
+        Tries.bulkLoad(trie, entries);
+
+        // then
+        assertEquals(3, trie.size());
+        assertEquals(keys(expected), keys(trie));
+        assertEquals(Tries.getStats(expected).getNodeCount(), Tries.getStats(trie).getNodeCount());
+        assertEquals("replaced", trie.get("/API/USERS"));
+        assertEquals("uaa", trie.remove("/uaa/"));
+        assertEquals(2, trie.size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotCreateCaseInsensitiveRadixTrie() {
+
+        // expect
+        Tries.caseInsensitive(Tries.<String>newRadixTrie());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotConvertCaseInsensitiveTrieIntoDoubleArrayTrie() {
+
+        // given
+        final Trie<String> trie = Tries.caseInsensitive(Tries.<String>newHashMapTrie());
+        trie.put("/uaa/", "uaa");
+
+        // expect
+        Tries.newDoubleArrayTrie(trie);
+    }
+
+    private static Map<String, String> entries(int count) {
+        final Map<String, String> entries = new LinkedHashMap<String, String>();
+        entries.put("/api/", "api");
+        for (int index = 1; index < count; index++) {
+            entries.put("/api/service" + (index % 37) + "/v" + (index % 3) + "/" + index, "route" + index);
+        }
+        return entries;
+    }
+
+    private static List<String> keys(Trie<String> trie) {
+        final List<String> keys = new ArrayList<String>();
+        trie.traverse(new TrieVisitor<String>() {
+            @Override
+            public void visit(String key, String value) {
+                keys.add(key + "=" + value);
+            }
+        });
+        Collections.sort(keys);
+        return keys;
+    }
+}